@@ -1,10 +1,17 @@
 package Console;
 import fonctionnel.*;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 /**
  * Cette classe représente l'interface en ligne de commande (CLI) pour l'application.
  * Elle gère l'interprétation des arguments et les actions associées.
@@ -40,6 +47,9 @@ public class CLI {
         }
 
 
+        // Les exclusions valent pour toute la ligne de commande
+        args = appliquerExclusions(args);
+
         // Vérification minimale d'arguments
         if (args.length < 2) {
             System.out.println("Erreur : Paramètres insuffisants.");
@@ -62,20 +72,22 @@ public class CLI {
         File fileOrDirectory = new File(path);
         String mimeType = null;
 
-        try {
-            mimeType = Files.probeContentType(fileOrDirectory.toPath());
-        } catch (IOException e) {
-            System.out.println("Erreur lors de la détection du type MIME: " + e.getMessage());
-        }
-
         if (isFileOption && (!fileOrDirectory.exists() || !fileOrDirectory.isFile())) {
             System.out.println("Erreur : Le chemin spécifié n'est pas un fichier valide.");
             return;
         }
 
+        if (isFileOption) {
+            try {
+                mimeType = TypeMime.detecter(fileOrDirectory.toPath());
+            } catch (IOException e) {
+                System.out.println("Erreur lors de la détection du type MIME: " + e.getMessage());
+            }
+        }
+
         // Avertissement si l'image a un type MIME d'image mais une extension incompatible
         if (isFileOption && Fichier.isImageMimeType(mimeType) && Fichier.isImageExtension(Fichier.getExtension(fileOrDirectory))) {
-            if(!(Fichier.recupMyme(mimeType).equals(Fichier.getExtension(fileOrDirectory)))) {
+            if(!TypeMime.correspond(mimeType, Fichier.getExtension(fileOrDirectory))) {
                 System.out.println("Avertissement : Le fichier a un type MIME d'image (" + mimeType + ") mais son extension (" + Fichier.getExtension(fileOrDirectory) + ") ne correspond pas.");
             }
         }
@@ -148,17 +160,177 @@ public class CLI {
         	        break;
 
         	    /**
-        	     * Extrait et affiche les métadonnées d'une image.
-        	     * Cette option est valide uniquement pour un fichier image (-f).
+        	     * Extrait et affiche les métadonnées d'une image (-f),
+        	     * ou de toutes les images d'un répertoire et de ses sous-dossiers (-d), traitées en parallèle.
         	     */
         	    case "--metadata":
         	        if (isFileOption) {
         	            File file = new File(path);
-        	            Image image = new Image(file); // Crée une instance de la classe Image
+        	            Image image = new Image(file, ProfilExtraction.METADONNEES); // Crée une instance de la classe Image
         	            String metadata = image.ExtractAllMetadata(); // Récupère les métadonnées
         	            System.out.println(metadata); // Affiche les métadonnées
+        	            if (image.getOctetsLus() >= 0) {
+        	                System.out.println("Octets lus : " + image.getOctetsLus());
+        	            }
+        	        } else {
+        	            afficherMetadonneesRepertoire(fileOrDirectory);
+        	        }
+        	        break;
+
+        	    /**
+        	     * Exporte les métadonnées au format JSON Lines (un objet JSON par image et par ligne).
+        	     * Valable pour un fichier (-f) ou pour toutes les images d'un répertoire (-d).
+        	     */
+        	    case "--json":
+        	        exporterMetadonnees(isFileOption, fileOrDirectory, EcrivainMetadonnees.Format.JSONL);
+        	        break;
+
+        	    /**
+        	     * Exporte les métadonnées au format CSV, avec une ligne d'en-tête.
+        	     * Valable pour un fichier (-f) ou pour toutes les images d'un répertoire (-d).
+        	     */
+        	    case "--csv":
+        	        exporterMetadonnees(isFileOption, fileOrDirectory, EcrivainMetadonnees.Format.CSV);
+        	        break;
+
+        	    /**
+        	     * Enregistre un aperçu JPEG de l'image (-f) ou de toutes les images du répertoire (-d).
+        	     * La miniature EXIF est recopiée telle quelle quand elle existe, les autres images sont décodées en sous-échantillonnant.
+        	     * @param args[i+1] Le dossier de sortie, où l'arborescence du répertoire est reproduite.
+        	     * @param args[i+2] Le côté maximal des aperçus en pixels (facultatif, 160 par défaut).
+        	     */
+        	    case "--miniatures":
+        	        if (i + 1 >= args.length) {
+        	            System.out.println("Erreur : veuillez indiquer le dossier de sortie des miniatures");
+        	            break;
+        	        }
+        	        int cote = Miniature.COTE_DEFAUT;
+        	        if (i + 2 < args.length && args[i + 2].matches("\\d+")) {
+        	            cote = Math.max(1, Integer.parseInt(args[i + 2]));
+        	            enregistrerMiniatures(isFileOption, fileOrDirectory, new File(args[i + 1]), cote);
+        	            i += 2;
+        	        } else {
+        	            enregistrerMiniatures(isFileOption, fileOrDirectory, new File(args[i + 1]), cote);
+        	            i++;
+        	        }
+        	        break;
+
+        	    /**
+        	     * Fixe le nombre maximal d'octets lus par fichier lors de l'extraction des métadonnées.
+        	     * Doit précéder les options de recherche ou d'extraction concernées.
+        	     * @param args[i+1] Le plafond en octets (0 pour ne pas limiter).
+        	     */
+        	    case "--plafond":
+        	        if (i + 1 < args.length) {
+        	            try {
+        	                Image.setPlafondOctets(Long.parseLong(args[i + 1]));
+        	            } catch (NumberFormatException e) {
+        	                System.out.println("Erreur : veuillez entrer un nombre d'octets valide");
+        	            }
         	        } else {
-        	            System.out.println("Erreur : L'option --metadata est uniquement valable pour les fichiers (-f).");
+        	            System.out.println("Erreur : veuillez entrer un nombre d'octets");
+        	        }
+        	        i++;
+        	        break;
+
+        	    /**
+        	     * Fixe la taille de fichier à partir de laquelle les métadonnées sont lues par projection en mémoire.
+        	     * Doit précéder les options de recherche ou d'extraction concernées.
+        	     * @param args[i+1] Le seuil en octets (0 pour toujours projeter, -1 pour ne jamais projeter).
+        	     */
+        	    case "--projection":
+        	        if (i + 1 < args.length) {
+        	            try {
+        	                Image.setSeuilProjection(Long.parseLong(args[i + 1]));
+        	            } catch (NumberFormatException e) {
+        	                System.out.println("Erreur : veuillez entrer un nombre d'octets valide");
+        	            }
+        	        } else {
+        	            System.out.println("Erreur : veuillez entrer un nombre d'octets");
+        	        }
+        	        i++;
+        	        break;
+
+        	    /**
+        	     * Fixe le nombre de fils du parcours des répertoires (voir {@link Parcours}).
+        	     * Doit précéder les options de recherche ou de liste concernées.
+        	     * @param args[i+1] Le nombre de fils (1 pour un parcours séquentiel).
+        	     */
+        	    case "--parallelisme":
+        	        if (i + 1 < args.length) {
+        	            try {
+        	                int fils = Integer.parseInt(args[i + 1]);
+        	                if (fils >= 1) {
+        	                    Parcours.setParallelisme(fils);
+        	                } else {
+        	                    System.out.println("Erreur : veuillez entrer un nombre de fils positif");
+        	                }
+        	            } catch (NumberFormatException e) {
+        	                System.out.println("Erreur : veuillez entrer un nombre de fils valide");
+        	            }
+        	        } else {
+        	            System.out.println("Erreur : veuillez entrer un nombre de fils");
+        	        }
+        	        i++;
+        	        break;
+
+        	    /**
+        	     * Désactive le cache des fichiers qui ne sont pas des images exploitables et celui des types MIME :
+        	     * tous les fichiers sont de nouveau analysés.
+        	     * Doit précéder les options de recherche, d'extraction ou de statistiques concernées.
+        	     */
+        	    case "--sanscache":
+        	        CacheNegatif.setActif(false);
+        	        TypeMime.setActif(false);
+        	        break;
+
+        	    /**
+        	     * Vide le cache des fichiers qui ne sont pas des images exploitables et celui des types MIME.
+        	     */
+        	    case "--videcache":
+        	        CacheNegatif.vider();
+        	        TypeMime.vider();
+        	        System.out.println("Caches des fichiers non-images et des types MIME vidés.");
+        	        break;
+
+        	    /**
+        	     * Choisit les fils utilisés pour l'extraction parallèle des métadonnées.
+        	     * Doit précéder l'option --metadata.
+        	     * @param args[i+1] "virtuel" (un fil virtuel par fichier) ou "plateforme" (groupe fixe de fils système).
+        	     * @param args[i+2] Le nombre de lectures simultanées (facultatif) : fichiers ouverts en mode virtuel, fils en mode plateforme.
+        	     */
+        	    case "--threads":
+        	        if (i + 1 < args.length && (args[i + 1].equals("virtuel") || args[i + 1].equals("plateforme"))) {
+        	            boolean virtuel = args[i + 1].equals("virtuel");
+        	            int simultanes = virtuel ? Image.MAX_FICHIERS_OUVERTS_DEFAUT : Runtime.getRuntime().availableProcessors();
+        	            i++;
+        	            if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+        	                simultanes = Integer.parseInt(args[i + 1]);
+        	                i++;
+        	            }
+        	            ExtractionParLots.setParDefaut(virtuel ? ExtractionParLots.virtuel(simultanes) : ExtractionParLots.plateforme(simultanes));
+        	        } else {
+        	            System.out.println("Erreur : veuillez préciser virtuel ou plateforme");
+        	        }
+        	        break;
+
+        	    /**
+        	     * Mesure le temps de lecture des métadonnées par flux et par projection en mémoire,
+        	     * puis la mémoire allouée par fichier pour reconnaître les images.
+        	     * Cette option est valide uniquement pour un répertoire (-d).
+        	     * @param args[i+1] Le nombre de tours mesurés (facultatif, 3 par défaut).
+        	     */
+        	    case "--bench":
+        	        if (isDirectoryOption) {
+        	            int tours = 3;
+        	            if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+        	                tours = Integer.parseInt(args[i + 1]);
+        	                i++;
+        	            }
+        	            Mesures.comparerLectures(path, tours);
+        	            Mesures.comparerAllocations(path);
+        	        } else {
+        	            System.out.println("Erreur : L'option --bench est uniquement valable pour les répertoires (-d).");
         	        }
         	        break;
 
@@ -263,10 +435,8 @@ public class CLI {
         	                    String date = fd + " " + sd;
 
         	                    if (Repertoire.IsDate(date)) {
-        	                        ArrayList<File> eqdateList = new ArrayList<>();
-        	                        Repertoire.recherche_fichier_date(fileOrDirectory, date, eqdateList);
         	                        System.out.println("Liste des fichiers égaux à la date de création " + date + " :");
-        	                        Repertoire.affichage(eqdateList);
+        	                        Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_date(date)));
         	                    } else {
         	                        System.out.println("Erreur : Veuillez entrer une date valide");
         	                    }
@@ -346,10 +516,8 @@ public class CLI {
         	                        String date = fd + " " + sd;
 
         	                        if (Repertoire.IsDate(date)) {
-        	                            ArrayList<File> gedateList = new ArrayList<>();                
-        	                            Repertoire.recherche_fichier_date_sup_egale(fileOrDirectory, date, gedateList);
         	                            System.out.println("Liste des fichiers supérieurs ou égaux à la date de création " + date + " :");
-        	                            Repertoire.affichage(gedateList);
+        	                            Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_date_sup_egale(date)));
         	                        } else {
         	                            System.out.println("Erreur : Veuillez entrer une date valide");
         	                        }
@@ -412,10 +580,8 @@ public class CLI {
         	                        String date = fd + " " + sd;
 
         	                        if (Repertoire.IsDate(date)) {
-        	                            ArrayList<File> gedateList = new ArrayList<>();                
-        	                            Repertoire.recherche_fichier_date_sup(fileOrDirectory, date, gedateList);
         	                            System.out.println("Liste des fichiers supérieurs à la date de création " + date + " :");
-        	                            Repertoire.affichage(gedateList);
+        	                            Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_date_sup(date)));
         	                        } else {
         	                            System.out.println("Erreur : Veuillez entrer une date valide");
         	                        }
@@ -478,10 +644,8 @@ public class CLI {
         	                        String date = fd + " " + sd;
 
         	                        if (Repertoire.IsDate(date)) {
-        	                            ArrayList<File> gedateList = new ArrayList<>();                
-        	                            Repertoire.recherche_fichier_date_inf_egale(fileOrDirectory, date, gedateList);
         	                            System.out.println("Liste des fichiers inférieurs ou égaux à la date de création " + date + " :");
-        	                            Repertoire.affichage(gedateList);
+        	                            Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_date_inf_egale(date)));
         	                        } else {
         	                            System.out.println("Erreur : Veuillez entrer une date valide");
         	                        }
@@ -543,10 +707,8 @@ public class CLI {
         	                            String sd = args[4];
         	                            String date = fd + " " + sd;
         	                            if (Repertoire.IsDate(date)) {
-        	                                ArrayList<File> gedateList = new ArrayList<>();
-        	                                Repertoire.recherche_fichier_date_inf(fileOrDirectory, date, gedateList);
         	                                System.out.println("Liste des fichiers inférieurs à la date de création " + date + " :");
-        	                                Repertoire.affichage(gedateList);
+        	                                Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_date_inf(date)));
         	                            } else {
         	                                System.out.println("Erreur : Veuillez entrer une date valide");
         	                            }
@@ -608,10 +770,8 @@ public class CLI {
         	                            String sd = args[4];
         	                            String date = fd + " " + sd;
         	                            if (Repertoire.IsDate(date)) {
-        	                                ArrayList<File> gedateList = new ArrayList<>();
-        	                                Repertoire.recherche_fichier_date_dif(fileOrDirectory, date, gedateList);
         	                                System.out.println("Liste des fichiers différents de la date de création " + date + " :");
-        	                                Repertoire.affichage(gedateList);
+        	                                Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_date_dif(date)));
         	                            } else {
         	                                System.out.println("Erreur : Veuillez entrer une date valide");
         	                            }
@@ -682,10 +842,8 @@ public class CLI {
         	                                    int largeur = Fichier.larg(args[3]);
         	                                    int haut = Fichier.haut(args[5]);
         	                                    if (haut != -1 && largeur != -1) {
-        	                                        ArrayList<File> eqdim = new ArrayList<>();
-        	                                        Repertoire.recherche_fichier_dim(fileOrDirectory, haut, largeur, eqdim);
         	                                        System.out.println("Liste des fichiers égaux à la dimension " + largeur + " x " + haut);
-        	                                        Repertoire.affichage(eqdim);
+        	                                        Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_dim(haut, largeur)));
         	                                    }
         	                                } else {
         	                                    System.out.println("Erreur : veuillez entrer une dimension");
@@ -756,10 +914,8 @@ public class CLI {
         	                                    int largeur = Fichier.larg(args[3]);
         	                                    int haut = Fichier.haut(args[5]);
         	                                    if (haut != -1 && largeur != -1) {
-        	                                        ArrayList<File> nedim = new ArrayList<>();
-        	                                        Repertoire.recherche_fichier_dim_dif(fileOrDirectory, haut, largeur, nedim);
         	                                        System.out.println("Liste des fichiers différents à la dimension " + largeur + " x " + haut);
-        	                                        Repertoire.affichage(nedim);
+        	                                        Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_dim_dif(haut, largeur)));
         	                                    }
         	                                } else {
         	                                    System.out.println("Erreur : veuillez entrer une dimension");
@@ -806,10 +962,8 @@ public class CLI {
         	                                    System.out.println("Liste des fichiers dont le nom est : " + args[4]);
         	                                    Repertoire.affichage(Final);
         	                                } else if (args.length >= 4 && !AllChoice(args[3])) {
-        	                                    ArrayList<File> eqname = new ArrayList<>();
-        	                                    Repertoire.recherche_fichier_nom(fileOrDirectory, args[3], eqname);
         	                                    System.out.println("Liste des fichiers dont le nom est : " + args[3]);
-        	                                    Repertoire.affichage(eqname);
+        	                                    Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_nom(args[3])));
         	                                } else {
         	                                    System.out.println("Erreur : Veuillez entrer des arguments valides.");
         	                                }
@@ -851,10 +1005,8 @@ public class CLI {
         	                                    System.out.println("Liste des fichiers dont le nom est différent de : " + args[4]);
         	                                    Repertoire.affichage(Final);
         	                                } else if (args.length >= 4 && !AllChoice(args[3])) {
-        	                                    ArrayList<File> nename = new ArrayList<>();
-        	                                    Repertoire.recherche_fichier_nom_dif(fileOrDirectory, args[3], nename);
         	                                    System.out.println("Liste des fichiers dont le nom est différent de : " + args[3]);
-        	                                    Repertoire.affichage(nename);
+        	                                    Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_nom_dif(args[3])));
         	                                } else {
         	                                    System.out.println("Erreur : Veuillez entrer des arguments valides.");
         	                                }
@@ -904,10 +1056,8 @@ public class CLI {
         	                                } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                    int haut = Fichier.haut(args[3]);
         	                                    if (haut != -1) {
-        	                                        ArrayList<File> gthaut = new ArrayList<>();
-        	                                        Repertoire.recherche_fichier_hauteur_sup(fileOrDirectory, haut, gthaut);
         	                                        System.out.println("Liste des fichiers dont la hauteur est supérieure à : " + haut);
-        	                                        Repertoire.affichage(gthaut);
+        	                                        Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_hauteur_sup(haut)));
         	                                    }
         	                                } else {
         	                                    System.out.println("Erreur : Veuillez entrer des arguments valides.");
@@ -965,10 +1115,8 @@ public class CLI {
         	                                    } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                        int haut = Fichier.haut(args[3]);
         	                                        if (haut != -1) {
-        	                                            ArrayList<File> gehaut = new ArrayList<>();
-        	                                            Repertoire.recherche_fichier_hauteur_sup_egale(fileOrDirectory, haut, gehaut);
         	                                            System.out.println("Liste des fichiers dont la hauteur est supérieure ou égale : " + haut);
-        	                                            Repertoire.affichage(gehaut);
+        	                                            Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_hauteur_sup_egale(haut)));
         	                                        }
         	                                    } else {
         	                                        System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1028,10 +1176,8 @@ public class CLI {
         	                                    } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                        int haut = Fichier.haut(args[3]);
         	                                        if (haut != -1) {
-        	                                            ArrayList<File> lthaut = new ArrayList<>();
-        	                                            Repertoire.recherche_fichier_hauteur_inf(fileOrDirectory, haut, lthaut);
         	                                            System.out.println("Liste des fichiers dont la hauteur est inférieure : " + haut);
-        	                                            Repertoire.affichage(lthaut);
+        	                                            Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_hauteur_inf(haut)));
         	                                        }
         	                                    } else {
         	                                        System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1097,14 +1243,8 @@ public class CLI {
         	                                        } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                            int haut = Fichier.haut(args[3]); // Récupère la hauteur
         	                                            if (haut != -1) {
-        	                                                ArrayList<File> eqhaut = new ArrayList<>();
-
-        	                                                // Recherche les fichiers dont la hauteur est égale à la valeur spécifiée
-        	                                                Repertoire.recherche_fichier_hauteur_egale(fileOrDirectory, haut, eqhaut);
         	                                                System.out.println("Liste des fichiers dont la hauteur est égale : " + haut);
-
-        	                                                // Affiche les résultats
-        	                                                Repertoire.affichage(eqhaut);
+        	                                                Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_hauteur_egale(haut)));
         	                                            }
         	                                        } else {
         	                                            System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1169,14 +1309,8 @@ public class CLI {
         	                                        } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                            int larg = Fichier.larg(args[3]); // Récupère la largeur
         	                                            if (larg != -1) {
-        	                                                ArrayList<File> lelarg = new ArrayList<>();
-
-        	                                                // Recherche les fichiers dont la largeur est inférieure ou égale à la valeur spécifiée
-        	                                                Repertoire.recherche_fichier_largeur_inf_egale(fileOrDirectory, larg, lelarg);
         	                                                System.out.println("Liste des fichiers dont la largeur est inférieure ou égale : " + larg);
-
-        	                                                // Affiche les résultats
-        	                                                Repertoire.affichage(lelarg);
+        	                                                Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_largeur_inf_egale(larg)));
         	                                            }
         	                                        } else {
         	                                            System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1241,14 +1375,8 @@ public class CLI {
         	                                            } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                                int larg = Fichier.larg(args[3]); // Récupère la largeur
         	                                                if (larg != -1) {
-        	                                                    ArrayList<File> ltlarg = new ArrayList<>();
-
-        	                                                    // Recherche les fichiers dont la largeur est strictement inférieure à la valeur spécifiée
-        	                                                    Repertoire.recherche_fichier_largeur_inf(fileOrDirectory, larg, ltlarg);
         	                                                    System.out.println("Liste des fichiers dont la largeur est strictement inférieure : " + larg);
-
-        	                                                    // Affiche les résultats
-        	                                                    Repertoire.affichage(ltlarg);
+        	                                                    Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_largeur_inf(larg)));
         	                                                }
         	                                            } else {
         	                                                System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1308,12 +1436,8 @@ public class CLI {
         	                                                } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                                    int larg = Fichier.larg(args[3]);
         	                                                    if (larg != -1) {
-        	                                                        ArrayList<File> gtlarg = new ArrayList<>();
-
-        	                                                        Repertoire.recherche_fichier_largeur_sup(fileOrDirectory, larg, gtlarg);
         	                                                        System.out.println("Liste des fichiers dont la largeur est supérieure : " + larg);
-
-        	                                                        Repertoire.affichage(gtlarg);
+        	                                                        Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_largeur_sup(larg)));
         	                                                    }
         	                                                } else {
         	                                                    System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1372,12 +1496,8 @@ public class CLI {
         	                                                } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                                    int larg = Fichier.larg(args[3]);
         	                                                    if (larg != -1) {
-        	                                                        ArrayList<File> gelarg = new ArrayList<>();
-
-        	                                                        Repertoire.recherche_fichier_largeur_sup_egale(fileOrDirectory, larg, gelarg);
         	                                                        System.out.println("Liste des fichiers dont la largeur est supérieure ou égale : " + larg);
-
-        	                                                        Repertoire.affichage(gelarg);
+        	                                                        Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_largeur_sup_egale(larg)));
         	                                                    }
         	                                                } else {
         	                                                    System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1436,12 +1556,8 @@ public class CLI {
         	                                                } else if (args.length >= 4 && !AllChoice(args[3])) {
         	                                                    int larg = Fichier.larg(args[3]);
         	                                                    if (larg != -1) {
-        	                                                        ArrayList<File> eqlarg = new ArrayList<>();
-
-        	                                                        Repertoire.recherche_fichier_largeur_egale(fileOrDirectory, larg, eqlarg);
         	                                                        System.out.println("Liste des fichiers dont la largeur est égale : " + larg);
-
-        	                                                        Repertoire.affichage(eqlarg);
+        	                                                        Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_largeur_egale(larg)));
         	                                                    }
         	                                                } else {
         	                                                    System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1515,10 +1631,8 @@ public class CLI {
         	                                                         */
         	                                                        int larg = Fichier.larg(args[3]);
         	                                                        if (larg != -1) {
-        	                                                            ArrayList<File> nelarg = new ArrayList<>();
-        	                                                            Repertoire.recherche_fichier_largeur_dif(fileOrDirectory, larg, nelarg);
         	                                                            System.out.println("Liste des fichiers dont la largeur est différente : " + larg);
-        	                                                            Repertoire.affichage(nelarg);
+        	                                                            Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_largeur_dif(larg)));
         	                                                        }
         	                                                    } else {
         	                                                        System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1581,10 +1695,8 @@ public class CLI {
         	                                                         */
         	                                                        int haut = Fichier.haut(args[3]);
         	                                                        if (haut != -1) {
-        	                                                            ArrayList<File> nehaut = new ArrayList<>();
-        	                                                            Repertoire.recherche_fichier_hauteur_dif(fileOrDirectory, haut, nehaut);
         	                                                            System.out.println("Liste des fichiers dont la hauteur est différente : " + haut);
-        	                                                            Repertoire.affichage(nehaut);
+        	                                                            Repertoire.affichage(Repertoire.flux_fichiers(fileOrDirectory, Repertoire.critere_hauteur_dif(haut)));
         	                                                        }
         	                                                    } else {
         	                                                        System.out.println("Erreur : Veuillez entrer des arguments valides");
@@ -1601,6 +1713,94 @@ public class CLI {
                 	
                 	
                 	
+        	                                            /**
+        	                                             * Options "-geobox" et "-georayon" : recherche des images par position GPS,
+        	                                             * dans un rectangle ou autour d'un point, à l'aide de l'index spatial du catalogue.
+        	                                             * Comme les autres critères, elles acceptent un ou deux choix supplémentaires.
+        	                                             */
+        	                                            case "-geobox":
+        	                                                if (isDirectoryOption) {
+        	                                                    i += rechercheCombinee(args, fileOrDirectory, 4, CLI::rechercheGeoBoite);
+        	                                                } else {
+        	                                                    System.out.println("Erreur : L'option -geobox est uniquement valable pour un dossier");
+        	                                                }
+        	                                                break;
+
+        	                                            case "-georayon":
+        	                                                if (isDirectoryOption) {
+        	                                                    i += rechercheCombinee(args, fileOrDirectory, 3, CLI::rechercheGeoRayon);
+        	                                                } else {
+        	                                                    System.out.println("Erreur : L'option -georayon est uniquement valable pour un dossier");
+        	                                                }
+        	                                                break;
+
+        	                                            /**
+        	                                             * Options "-eqcapt", "-gtcapt" et "-ltcapt" : recherche des images selon leur date
+        	                                             * de prise de vue (EXIF ou XMP), lue dans le catalogue du répertoire.
+        	                                             */
+        	                                            case "-eqcapt":
+        	                                            case "-gtcapt":
+        	                                            case "-ltcapt":
+        	                                                if (isDirectoryOption) {
+        	                                                    final String comparaison = operationOption;
+        	                                                    i += rechercheCombinee(args, fileOrDirectory, 2,
+        	                                                            (a, debut, dir, Al) -> rechercheCapture(comparaison, a, debut, dir, Al));
+        	                                                } else {
+        	                                                    System.out.println("Erreur : L'option " + operationOption + " est uniquement valable pour un dossier");
+        	                                                }
+        	                                                break;
+
+        	                                            /**
+        	                                             * Options de l'appareil et des réglages de prise de vue : marque, modèle, objectif,
+        	                                             * ISO, focale et durée d'exposition, lus dans les colonnes du catalogue du répertoire.
+        	                                             */
+        	                                            case "-marque":
+        	                                            case "-modele":
+        	                                            case "-objectif":
+        	                                            case "-eqiso":
+        	                                            case "-gtiso":
+        	                                            case "-ltiso":
+        	                                            case "-gtfocale":
+        	                                            case "-ltfocale":
+        	                                            case "-gtexpo":
+        	                                            case "-ltexpo":
+        	                                                if (isDirectoryOption) {
+        	                                                    final String reglage = operationOption;
+        	                                                    i += rechercheCombinee(args, fileOrDirectory, 1,
+        	                                                            (a, debut, dir, Al) -> rechercheAppareil(reglage, a, debut, dir, Al));
+        	                                                } else {
+        	                                                    System.out.println("Erreur : L'option " + operationOption + " est uniquement valable pour un dossier");
+        	                                                }
+        	                                                break;
+
+        	                                            /**
+        	                                             * Options "-motcle", "-motcleun" et "-motcletous" : recherche des images par mots-clés
+        	                                             * IPTC ou XMP, à l'aide de l'index inversé du catalogue du répertoire.
+        	                                             */
+        	                                            case "-motcle":
+        	                                            case "-motcleun":
+        	                                            case "-motcletous":
+        	                                                if (isDirectoryOption) {
+        	                                                    final String motCle = operationOption;
+        	                                                    i += rechercheCombinee(args, fileOrDirectory, 1,
+        	                                                            (a, debut, dir, Al) -> rechercheMotsCles(motCle, a, debut, dir, Al));
+        	                                                } else {
+        	                                                    System.out.println("Erreur : L'option " + operationOption + " est uniquement valable pour un dossier");
+        	                                                }
+        	                                                break;
+
+        	                                            /**
+        	                                             * Option "-texte" : recherche plein texte dans le titre, la description et le créateur XMP,
+        	                                             * à l'aide de l'index des termes du catalogue du répertoire.
+        	                                             */
+        	                                            case "-texte":
+        	                                                if (isDirectoryOption) {
+        	                                                    i += rechercheCombinee(args, fileOrDirectory, 1, CLI::rechercheTexte);
+        	                                                } else {
+        	                                                    System.out.println("Erreur : L'option -texte est uniquement valable pour un dossier");
+        	                                                }
+        	                                                break;
+
                 default:
                     System.out.println("Erreur : Option inconnue \"" + operationOption + "\". Utilisez -h ou --help pour voir les fonctionnalités.");
                     break;
@@ -1610,6 +1810,372 @@ public class CLI {
         
     }
 
+    /**
+     * Extrait en parallèle et affiche les métadonnées de toutes les images d'un répertoire.
+     * Chaque image est affichée dès que son extraction se termine ; les erreurs sont signalées fichier par fichier.
+     *
+     * @param directory le répertoire à parcourir
+     */
+    private static void afficherMetadonneesRepertoire(File directory) {
+        int traitees = 0;
+        int erreurs = 0;
+        try (Stream<Path> chemins = cheminsImages(directory)) {
+            Iterator<ResultatExtraction> resultats = Image.extractAll(chemins.iterator(), ProfilExtraction.METADONNEES);
+            while (resultats.hasNext()) {
+                ResultatExtraction resultat = resultats.next();
+                traitees++;
+                System.out.println("\n======= " + resultat.getChemin() + " =======");
+                if (resultat.estErreur()) {
+                    erreurs++;
+                    System.out.println("Erreur : " + resultat.getErreur().getMessage());
+                } else {
+                    System.out.println(resultat.getImage().ExtractAllMetadata());
+                }
+            }
+        }
+        System.out.println("Images traitées : " + traitees + ", erreurs : " + erreurs);
+    }
+
+    /**
+     * Écrit les métadonnées d'un fichier, ou de toutes les images d'un répertoire, sur la sortie standard
+     * au format demandé. Les images d'un répertoire sont extraites en parallèle et écrites dès qu'elles sont prêtes.
+     *
+     * @param isFile          {@code true} si le chemin désigne un fichier
+     * @param fileOrDirectory le fichier ou le répertoire à exporter
+     * @param format          le format de sortie
+     */
+    private static void exporterMetadonnees(boolean isFile, File fileOrDirectory, EcrivainMetadonnees.Format format) {
+        Writer sortie = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        EcrivainMetadonnees ecrivain = new EcrivainMetadonnees(sortie, format);
+        try {
+            if (isFile) {
+                ecrivain.ecrire(fileOrDirectory.getPath(), new Image(fileOrDirectory, ProfilExtraction.METADONNEES));
+            } else {
+                // Les chemins sont lus au fil du parcours : la mémoire utilisée ne dépend pas du nombre d'images
+                try (Stream<Path> chemins = cheminsImages(fileOrDirectory)) {
+                    Iterator<ResultatExtraction> resultats = Image.extractAll(chemins.iterator(), ProfilExtraction.METADONNEES);
+                    while (resultats.hasNext()) {
+                        ecrivain.ecrire(resultats.next());
+                    }
+                }
+            }
+            ecrivain.vider();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de l'écriture des métadonnées : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Enregistre les aperçus d'une image ou de toutes les images d'un répertoire. Les miniatures EXIF
+     * des images d'un répertoire sont lues en parallèle, les aperçus sont écrits dès qu'elles sont prêtes.
+     *
+     * @param isFile          {@code true} si le chemin désigne un fichier
+     * @param fileOrDirectory le fichier ou le répertoire à traiter
+     * @param sortie          le dossier de sortie
+     * @param cote            le côté maximal des aperçus en pixels
+     */
+    private static void enregistrerMiniatures(boolean isFile, File fileOrDirectory, File sortie, int cote) {
+        int exif = 0;
+        int decodees = 0;
+        int erreurs = 0;
+        Path racine = isFile ? fileOrDirectory.toPath().toAbsolutePath().getParent() : fileOrDirectory.toPath().toAbsolutePath();
+        // Le parcours avance pendant l'écriture des aperçus : le dossier de sortie n'est pas parcouru
+        File destinations = sortie.getAbsoluteFile();
+        Predicate<Fichier> dossiers = Exclusions.pour(fileOrDirectory).parcourus().and(d -> !d.get_File().getAbsoluteFile().equals(destinations));
+        try (Stream<Path> chemins = isFile ? Stream.of(fileOrDirectory.toPath()) : cheminsImages(fileOrDirectory, dossiers)) {
+            Iterator<ResultatExtraction> resultats = Image.extractAll(chemins.iterator(), ProfilExtraction.MINIATURE);
+            while (resultats.hasNext()) {
+                ResultatExtraction resultat = resultats.next();
+                Path chemin = resultat.getChemin().toAbsolutePath();
+                File destination = sortie.toPath().resolve(racine.relativize(chemin).toString() + ".jpg").toFile();
+                try {
+                    if (resultat.estErreur()) {
+                        throw resultat.getErreur();
+                    }
+                    if (Miniature.enregistrer(resultat.getImage(), chemin.toFile(), destination, cote)) {
+                        exif++;
+                    } else {
+                        decodees++;
+                    }
+                } catch (Exception e) {
+                    erreurs++;
+                    System.out.println("Erreur : " + chemin + " : " + e.getMessage());
+                }
+            }
+        }
+        System.out.println("Miniatures enregistrées dans " + sortie.getPath() + " : " + (exif + decodees)
+                + " (EXIF : " + exif + ", décodées : " + decodees + "), erreurs : " + erreurs);
+    }
+
+    /**
+     * @param directory le répertoire à parcourir
+     * @return le flux paresseux des chemins de toutes les images du répertoire et de ses sous-dossiers, à fermer après usage
+     */
+    private static Stream<Path> cheminsImages(File directory) {
+        return cheminsImages(directory, Exclusions.pour(directory).parcourus());
+    }
+
+    /**
+     * @param directory le répertoire à parcourir
+     * @param dossiers  le critère que doivent vérifier les sous-dossiers pour être parcourus
+     * @return le flux paresseux des chemins des images trouvées, à fermer après usage
+     */
+    private static Stream<Path> cheminsImages(File directory, Predicate<Fichier> dossiers) {
+        return Parcours.flux(directory, dossiers, f -> Fichier.aExtensionImage(f.get_Nom())).map(f -> f.get_File().toPath());
+    }
+
+    /**
+     * Critère de recherche dont les valeurs sont lues dans les arguments de la ligne de commande.
+     */
+    private interface Critere {
+        /**
+         * Recherche les fichiers qui satisfont le critère.
+         *
+         * @param args            les arguments passés en ligne de commande
+         * @param debut           l'indice de la première valeur du critère
+         * @param fileOrDirectory le répertoire dans lequel effectuer la recherche
+         * @param Al              la liste où ajouter les fichiers trouvés
+         * @return false si les valeurs sont invalides, un message d'erreur ayant alors été affiché
+         */
+        boolean rechercher(String[] args, int debut, File fileOrDirectory, ArrayList<File> Al);
+    }
+
+    /**
+     * Exécute un critère principal de {@code n} valeurs, éventuellement précédé d'un ou deux choix
+     * (voir {@link #AllChoice(String)}), et affiche les fichiers qui satisfont tous les critères.
+     * Les arguments suivent la même disposition que les autres critères :
+     * {@code <critère> [choix1 [choix2]] <valeurs du critère> <valeurs de choix1> <valeurs de choix2>}.
+     *
+     * @param args            les arguments passés en ligne de commande, le critère principal en args[2]
+     * @param fileOrDirectory le répertoire dans lequel effectuer la recherche
+     * @param n               le nombre de valeurs du critère principal
+     * @param critere         le critère principal
+     * @return le nombre d'arguments lus après le critère principal
+     */
+    private static int rechercheCombinee(String[] args, File fileOrDirectory, int n, Critere critere) {
+        ArrayList<File> trouves = new ArrayList<>();
+        if (args.length >= 7 + n && AllChoice(args[3]) && AllChoice(args[4])) {
+            ArrayList<File> Choix1 = new ArrayList<>();
+            ArrayList<File> Choix2 = new ArrayList<>();
+            int j = activeChoix(args[3], n + 2, args, fileOrDirectory, Choix1);
+            j = activeChoix(args[4], j, args, fileOrDirectory, Choix2);
+            if (critere.rechercher(args, 5, fileOrDirectory, trouves)) {
+                Repertoire.affichage(Repertoire.compare3(Choix1, Choix2, trouves));
+            }
+            return j;
+        } else if (args.length >= 5 + n && AllChoice(args[3])) {
+            ArrayList<File> Choix1 = new ArrayList<>();
+            int j = activeChoix(args[3], n + 1, args, fileOrDirectory, Choix1);
+            if (critere.rechercher(args, 4, fileOrDirectory, trouves)) {
+                Repertoire.affichage(Repertoire.compare2(Choix1, trouves));
+            }
+            return j;
+        } else if (args.length >= 3 + n && !AllChoice(args[3])) {
+            if (critere.rechercher(args, 3, fileOrDirectory, trouves)) {
+                Repertoire.affichage(trouves);
+            }
+        } else {
+            System.out.println("Erreur : Veuillez entrer des arguments valides");
+        }
+        return n;
+    }
+
+    /**
+     * Applique les options d'exclusion des dossiers parcourus (voir {@link Exclusions}), où qu'elles se trouvent,
+     * et les retire des arguments : les recherches lisent leurs valeurs à des positions fixes.
+     * <ul>
+     * <li>{@code --exclure <m1,m2,...>} ajoute des motifs glob ; un motif précédé de "!" retire un motif par défaut.
+     * Les virgules entre accolades ({@code *.{tmp,bak}}) ne séparent pas les motifs.</li>
+     * <li>{@code --ignorer <fichier>} ajoute les motifs d'un fichier, un par ligne.</li>
+     * </ul>
+     *
+     * @param args les arguments passés en ligne de commande
+     * @return les arguments sans les options d'exclusion
+     */
+    private static String[] appliquerExclusions(String[] args) {
+        ArrayList<String> restants = new ArrayList<>();
+        for (int k = 0; k < args.length; k++) {
+            if (args[k].equals("--exclure") || args[k].equals("--ignorer")) {
+                if (k + 1 >= args.length) {
+                    System.out.println("Erreur : veuillez entrer " + (args[k].equals("--exclure") ? "des motifs d'exclusion" : "un fichier de motifs d'exclusion"));
+                } else if (args[k].equals("--exclure")) {
+                    for (String motif : Exclusions.decouper(args[++k])) {
+                        Exclusions.ajouter(motif);
+                    }
+                } else {
+                    Exclusions.charger(new File(args[++k]));
+                }
+            } else {
+                restants.add(args[k]);
+            }
+        }
+        return restants.toArray(new String[0]);
+    }
+
+    /**
+     * Critère "-geobox" : images prises dans un rectangle {@code <latMin> <lonMin> <latMax> <lonMax>}.
+     */
+    private static boolean rechercheGeoBoite(String[] args, int debut, File fileOrDirectory, ArrayList<File> Al) {
+        double latMin = Repertoire.coordonnee(args[debut]);
+        double lonMin = Repertoire.coordonnee(args[debut + 1]);
+        double latMax = Repertoire.coordonnee(args[debut + 2]);
+        double lonMax = Repertoire.coordonnee(args[debut + 3]);
+        if (!(Math.abs(latMin) <= 90 && Math.abs(latMax) <= 90 && latMin <= latMax && Math.abs(lonMin) <= 180 && Math.abs(lonMax) <= 180)) {
+            System.out.println("Erreur : veuillez entrer un rectangle valide (latitudes entre -90 et 90, longitudes entre -180 et 180)");
+            return false;
+        }
+        Repertoire.recherche_fichier_geo_boite(fileOrDirectory, latMin, lonMin, latMax, lonMax, Al);
+        System.out.println("Liste des fichiers pris entre les latitudes " + latMin + " et " + latMax + " et les longitudes " + lonMin + " et " + lonMax + " :");
+        return true;
+    }
+
+    /**
+     * Critère "-georayon" : images prises à moins de {@code <km>} kilomètres du point {@code <lat> <lon>}.
+     */
+    private static boolean rechercheGeoRayon(String[] args, int debut, File fileOrDirectory, ArrayList<File> Al) {
+        double lat = Repertoire.coordonnee(args[debut]);
+        double lon = Repertoire.coordonnee(args[debut + 1]);
+        double km = Repertoire.coordonnee(args[debut + 2]);
+        if (!(Math.abs(lat) <= 90 && Math.abs(lon) <= 180 && km >= 0)) {
+            System.out.println("Erreur : veuillez entrer un point (latitude, longitude) et un rayon en kilomètres valides");
+            return false;
+        }
+        Repertoire.recherche_fichier_geo_rayon(fileOrDirectory, lat, lon, km, Al);
+        System.out.println("Liste des fichiers pris à moins de " + km + " km de (" + lat + ", " + lon + ") :");
+        return true;
+    }
+
+    /**
+     * Critères "-eqcapt", "-gtcapt" et "-ltcapt" : images prises à, après ou avant la date {@code <date> <heure>}.
+     */
+    private static boolean rechercheCapture(String comparaison, String[] args, int debut, File fileOrDirectory, ArrayList<File> Al) {
+        String date = args[debut] + " " + args[debut + 1];
+        if (!Repertoire.IsDate(date)) {
+            System.out.println("Erreur : Veuillez entrer une date valide");
+            return false;
+        }
+        switch (comparaison) {
+            case "-eqcapt":
+                Repertoire.recherche_fichier_capture(fileOrDirectory, date, Al);
+                System.out.println("Liste des images prises le " + date + " :");
+                break;
+            case "-gtcapt":
+                Repertoire.recherche_fichier_capture_sup(fileOrDirectory, date, Al);
+                System.out.println("Liste des images prises après le " + date + " :");
+                break;
+            default:
+                Repertoire.recherche_fichier_capture_inf(fileOrDirectory, date, Al);
+                System.out.println("Liste des images prises avant le " + date + " :");
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} si l'option porte sur l'appareil ou les réglages de prise de vue
+     */
+    private static boolean estOptionAppareil(String option) {
+        return option.equals("-marque") || option.equals("-modele") || option.equals("-objectif") ||
+                option.equals("-eqiso") || option.equals("-gtiso") || option.equals("-ltiso") ||
+                option.equals("-gtfocale") || option.equals("-ltfocale") || option.equals("-gtexpo") || option.equals("-ltexpo");
+    }
+
+    /**
+     * Critères de l'appareil et des réglages : "-marque", "-modele" et "-objectif" (égalité sans tenir compte
+     * de la casse), "-eqiso", "-gtiso", "-ltiso", "-gtfocale", "-ltfocale" (mm), "-gtexpo" et "-ltexpo" (s, ex. 1/250).
+     */
+    private static boolean rechercheAppareil(String option, String[] args, int debut, File fileOrDirectory, ArrayList<File> Al) {
+        String valeur = args[debut];
+        switch (option) {
+            case "-marque":
+                Repertoire.recherche_fichier_appareil(fileOrDirectory, Catalogue.Champ.MARQUE, valeur, Al);
+                System.out.println("Liste des images dont la marque de l'appareil est : " + valeur);
+                return true;
+            case "-modele":
+                Repertoire.recherche_fichier_appareil(fileOrDirectory, Catalogue.Champ.MODELE, valeur, Al);
+                System.out.println("Liste des images dont le modèle de l'appareil est : " + valeur);
+                return true;
+            case "-objectif":
+                Repertoire.recherche_fichier_appareil(fileOrDirectory, Catalogue.Champ.OBJECTIF, valeur, Al);
+                System.out.println("Liste des images dont l'objectif est : " + valeur);
+                return true;
+            default:
+                break;
+        }
+
+        Catalogue.Champ champ;
+        double v;
+        String unite;
+        if (option.endsWith("iso")) {
+            champ = Catalogue.Champ.ISO;
+            v = Repertoire.coordonnee(valeur);
+            unite = " ISO";
+        } else if (option.endsWith("focale")) {
+            champ = Catalogue.Champ.FOCALE;
+            v = Repertoire.coordonnee(valeur);
+            unite = " mm";
+        } else {
+            champ = Catalogue.Champ.EXPOSITION;
+            v = Repertoire.exposition(valeur);
+            unite = " s";
+        }
+        if (!(v >= 0)) {
+            System.out.println("Erreur : veuillez entrer une valeur positive valide");
+            return false;
+        }
+        if (option.startsWith("-eq")) {
+            Repertoire.recherche_fichier_reglage(fileOrDirectory, champ, v, v, Al);
+            System.out.println("Liste des images dont la valeur est égale à : " + valeur + unite);
+        } else if (option.startsWith("-gt")) {
+            Repertoire.recherche_fichier_reglage(fileOrDirectory, champ, Math.nextUp(v), Double.POSITIVE_INFINITY, Al);
+            System.out.println("Liste des images dont la valeur est supérieure à : " + valeur + unite);
+        } else {
+            Repertoire.recherche_fichier_reglage(fileOrDirectory, champ, Double.NEGATIVE_INFINITY, Math.nextDown(v), Al);
+            System.out.println("Liste des images dont la valeur est inférieure à : " + valeur + unite);
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} si l'option porte sur les mots-clés IPTC ou XMP
+     */
+    private static boolean estOptionMotCle(String option) {
+        return option.equals("-motcle") || option.equals("-motcleun") || option.equals("-motcletous");
+    }
+
+    /**
+     * Critères des mots-clés : "-motcle" (un mot-clé), "-motcleun" (au moins un des mots-clés séparés par des virgules)
+     * et "-motcletous" (tous les mots-clés séparés par des virgules), sans tenir compte de la casse ni des accents.
+     */
+    private static boolean rechercheMotsCles(String option, String[] args, int debut, File fileOrDirectory, ArrayList<File> Al) {
+        String valeur = args[debut];
+        String[] mots = option.equals("-motcle") ? new String[] {valeur} : valeur.split(",");
+        boolean tous = !option.equals("-motcleun");
+        Repertoire.recherche_fichier_mots_cles(fileOrDirectory, mots, tous, Al);
+        if (option.equals("-motcle")) {
+            System.out.println("Liste des images portant le mot-clé : " + valeur);
+        } else if (tous) {
+            System.out.println("Liste des images portant tous les mots-clés : " + valeur);
+        } else {
+            System.out.println("Liste des images portant au moins un des mots-clés : " + valeur);
+        }
+        return true;
+    }
+
+    /**
+     * Critère "-texte" : tous les mots de la requête, un mot terminé par "*" étant un préfixe.
+     */
+    private static boolean rechercheTexte(String[] args, int debut, File fileOrDirectory, ArrayList<File> Al) {
+        String requete = args[debut];
+        if (requete.trim().isEmpty()) {
+            System.out.println("Erreur : veuillez entrer un texte à rechercher");
+            return false;
+        }
+        Repertoire.recherche_fichier_texte(fileOrDirectory, requete, Al);
+        System.out.println("Liste des images dont le titre, la description ou le créateur contient : " + requete);
+        return true;
+    }
+
     /**
      * Affiche l'aide ou les instructions d'utilisation pour l'application en console.
      * Cette méthode est destinée à guider l'utilisateur sur les commandes et options disponibles.
@@ -1620,6 +2186,10 @@ public class CLI {
         System.out.println("Options disponibles :");
         System.out.println("  -f <fichier> --info                Affiche les informations détaillées sur le fichier spécifié.");
         System.out.println("  -f <fichier> --metadata            Affiche les métadonnées de l'image spécifiée.");
+        System.out.println("  -d <répertoire> --metadata         Affiche les métadonnées de toutes les images du répertoire, extraites en parallèle.");
+        System.out.println("  -f|-d <chemin> --json              Exporte les métadonnées au format JSON Lines (un objet par image).");
+        System.out.println("  -f|-d <chemin> --csv               Exporte les métadonnées au format CSV.");
+        System.out.println("  -f|-d <chemin> --miniatures <dossier> [côté]  Enregistre un aperçu JPEG des images (miniature EXIF si présente, 160 px par défaut).");
         System.out.println("  -d <répertoire> --stat             Affiche les statistiques sur les fichiers et images dans le répertoire spécifié.");
         System.out.println("  -d <répertoire> --list             Liste tous les fichiers présents dans le répertoire spécifié.");
         System.out.println("  -d <répertoire> -eqdate <date> <heure>  Affiche les fichiers créés à une date et une heure précises.");
@@ -1644,8 +2214,33 @@ public class CLI {
         System.out.println("  -d <répertoire> -nehaut <hauteur>  Affiche les fichiers ayant une hauteur différente de la valeur spécifiée.");
         System.out.println("  -d <répertoire> -eqname <nom>      Affiche les fichiers ayant un nom égal au nom spécifié.");
         System.out.println("  -d <répertoire> -nename <nom>      Affiche les fichiers ayant un nom différent du nom spécifié.");
+        System.out.println("  -d <répertoire> -eqcapt <date> <heure> Affiche les images prises à une date et une heure précises (date EXIF ou XMP).");
+        System.out.println("  -d <répertoire> -gtcapt <date> <heure> Affiche les images prises après une date et une heure précises.");
+        System.out.println("  -d <répertoire> -ltcapt <date> <heure> Affiche les images prises avant une date et une heure précises.");
+        System.out.println("  -d <répertoire> -marque|-modele|-objectif <texte> Affiche les images prises avec cet appareil ou cet objectif (sans tenir compte de la casse).");
+        System.out.println("  -d <répertoire> -eqiso|-gtiso|-ltiso <iso> Affiche les images dont la sensibilité ISO est égale, supérieure ou inférieure à la valeur.");
+        System.out.println("  -d <répertoire> -gtfocale|-ltfocale <mm> Affiche les images dont la focale est supérieure ou inférieure à la valeur.");
+        System.out.println("  -d <répertoire> -gtexpo|-ltexpo <s> Affiche les images dont la durée d'exposition est supérieure ou inférieure à la valeur (ex. 1/250).");
+        System.out.println("  -d <répertoire> -motcle <mot>      Affiche les images portant ce mot-clé IPTC ou XMP (sans tenir compte de la casse ni des accents).");
+        System.out.println("  -d <répertoire> -motcleun <m1,m2,...> Affiche les images portant au moins un de ces mots-clés.");
+        System.out.println("  -d <répertoire> -motcletous <m1,m2,...> Affiche les images portant tous ces mots-clés.");
+        System.out.println("  -d <répertoire> -texte \"<mots>\"   Affiche les images dont le titre, la description ou le créateur XMP contient tous ces mots (\"harb*\" pour un préfixe).");
+        System.out.println("  -d <répertoire> -geobox <latMin> <lonMin> <latMax> <lonMax> Affiche les images prises dans un rectangle de coordonnées GPS.");
+        System.out.println("  -d <répertoire> -georayon <lat> <lon> <km> Affiche les images prises à moins de <km> kilomètres d'un point GPS.");
+        System.out.println("  --plafond <octets>                 Limite le nombre d'octets lus par fichier (0 = sans limite), à placer avant les autres options.");
+        System.out.println("  --projection <octets>              Projette en mémoire les fichiers d'au moins cette taille (-1 = jamais), à placer avant les autres options.");
+        System.out.println("  --parallelisme <fils>              Fixe le nombre de fils du parcours des répertoires (1 = séquentiel), à placer avant les autres options.");
+        System.out.println("  --exclure <m1,m2,...>              Exclut des recherches les dossiers correspondant à ces motifs glob (\"!motif\" retire un motif par défaut).");
+        System.out.println("  --ignorer <fichier>                Exclut les dossiers correspondant aux motifs d'un fichier (un par ligne).");
+        System.out.println("  --sanscache                        N'utilise pas les caches des fichiers non-images ou illisibles et des types MIME, à placer avant les autres options.");
+        System.out.println("  --videcache                        Vide les caches des fichiers non-images ou illisibles et des types MIME.");
+        System.out.println("  -d <répertoire> --bench [tours]    Compare la lecture des métadonnées par flux et par projection, et les allocations par fichier.");
+        System.out.println("  --threads <virtuel|plateforme> [n] Fils de l'extraction parallèle : fils virtuels (n fichiers ouverts au plus) ou n fils système.");
         System.out.println("  -h, --help                         Affiche cette aide.");
         System.out.println("\nFormat de date attendu : JJ/MM/AAAA HH:MM:SS");
+        System.out.println("Coordonnées GPS attendues en degrés décimaux (ex. 48.8566), rayon en kilomètres.");
+        System.out.println("Dossiers exclus des recherches par défaut : " + String.join(", ", Exclusions.MOTIFS_DEFAUT)
+                + ", ainsi que les motifs du fichier " + Exclusions.FICHIER_IGNORE + " du répertoire.");
         System.out.println("\nExemples :");
         System.out.println("  -f /chemin/vers/fichier.txt --info");
         System.out.println("  -f /chemin/vers/image.jpg --metadata");
@@ -1672,6 +2267,15 @@ public class CLI {
         System.out.println("  -d /chemin/vers/repertoire -nehaut 720");
         System.out.println("  -d /chemin/vers/repertoire -eqname fichier.txt");
         System.out.println("  -d /chemin/vers/repertoire -nename exemple.txt");
+        System.out.println("  -d /chemin/vers/repertoire -gtcapt 01/06/2021 00:00:00");
+        System.out.println("  -d /chemin/vers/repertoire -modele -gtiso \"EOS R5\" 3200");
+        System.out.println("  -d /chemin/vers/repertoire -geobox 48.80 2.25 48.90 2.42");
+        System.out.println("  -d /chemin/vers/repertoire -georayon 48.8566 2.3522 5");
+        System.out.println("  -d /chemin/vers/repertoire -georayon -gtlarg 48.8566 2.3522 5 1200");
+        System.out.println("  -d /chemin/vers/repertoire --plafond 1048576 -gtlarg 1200");
+        System.out.println("  -d /chemin/vers/repertoire --bench 5");
+        System.out.println("  -d /chemin/vers/repertoire --threads virtuel 512 --metadata");
+        System.out.println("  -d /chemin/vers/repertoire --json > metadonnees.jsonl");
         System.out.println("  -h ou --help");
         System.out.println("\n===========================================================");
     }
@@ -1694,7 +2298,9 @@ public class CLI {
                 choix.equals("-eqname") || choix.equals("-nename") || choix.equals("-eqdate") || choix.equals("-nedate") || 
                 choix.equals("-ledate") || choix.equals("-ltdate") || choix.equals("-gedate") || choix.equals("-gtdate") || 
                 choix.equals("-lelarg") || choix.equals("-ltlarg") || choix.equals("-gelarg") || choix.equals("-gtlarg") || 
-                choix.equals("-nelarg") || choix.equals("-eqlarg"));
+                choix.equals("-nelarg") || choix.equals("-eqlarg") || choix.equals("-geobox") || choix.equals("-georayon") ||
+                choix.equals("-eqcapt") || choix.equals("-gtcapt") || choix.equals("-ltcapt") || estOptionAppareil(choix) ||
+                estOptionMotCle(choix) || choix.equals("-texte"));
     }
 
     /**
@@ -2143,6 +2749,95 @@ public class CLI {
                         }
                         i++;
                         break;
+
+                    /**
+                     * Option "-geobox" :
+                     * Recherche les images prises dans un rectangle de coordonnées GPS.
+                     *
+                     * @param args[3+i] à args[6+i] latitude minimale, longitude minimale, latitude maximale, longitude maximale.
+                     */
+                    case "-geobox":
+                        if (args.length >= 7 + i) {
+                            rechercheGeoBoite(args, 3 + i, fileOrDirectory, Al);
+                        } else {
+                            System.out.println("Erreur : veuillez entrer un rectangle de coordonnées");
+                        }
+                        i += 4;
+                        break;
+
+                    /**
+                     * Option "-georayon" :
+                     * Recherche les images prises à moins d'une distance donnée d'un point GPS.
+                     *
+                     * @param args[3+i] à args[5+i] latitude, longitude et rayon en kilomètres.
+                     */
+                    case "-georayon":
+                        if (args.length >= 6 + i) {
+                            rechercheGeoRayon(args, 3 + i, fileOrDirectory, Al);
+                        } else {
+                            System.out.println("Erreur : veuillez entrer un point et un rayon");
+                        }
+                        i += 3;
+                        break;
+
+                    /**
+                     * Options "-eqcapt", "-gtcapt" et "-ltcapt" :
+                     * Recherche les images prises à, après ou avant une date donnée.
+                     *
+                     * @param args[3+i] et args[4+i] : Parties de la date (format attendu : "JJ/MM/AAAA HH:mm:ss").
+                     */
+                    case "-eqcapt":
+                    case "-gtcapt":
+                    case "-ltcapt":
+                        if (args.length >= 5 + i) {
+                            rechercheCapture(choix, args, 3 + i, fileOrDirectory, Al);
+                        } else {
+                            System.out.println("Erreur : veuillez entrer une date");
+                        }
+                        i += 2;
+                        break;
+
+                    /**
+                     * Option "-texte" : Recherche plein texte dans les textes XMP.
+                     *
+                     * @param args[3+i] Les mots recherchés.
+                     */
+                    case "-texte":
+                        if (args.length >= 4 + i) {
+                            rechercheTexte(args, 3 + i, fileOrDirectory, Al);
+                        } else {
+                            System.out.println("Erreur : veuillez entrer un texte à rechercher");
+                        }
+                        i++;
+                        break;
+
+                    default:
+                        /**
+                         * Options de l'appareil et des réglages (voir {@link #estOptionAppareil(String)}) :
+                         *
+                         * @param args[3+i] La valeur recherchée.
+                         */
+                        if (estOptionAppareil(choix)) {
+                            if (args.length >= 4 + i) {
+                                rechercheAppareil(choix, args, 3 + i, fileOrDirectory, Al);
+                            } else {
+                                System.out.println("Erreur : veuillez entrer une valeur");
+                            }
+                            i++;
+                        } else if (estOptionMotCle(choix)) {
+                            /**
+                             * Options des mots-clés (voir {@link #estOptionMotCle(String)}) :
+                             *
+                             * @param args[3+i] Le mot-clé ou la liste de mots-clés séparés par des virgules.
+                             */
+                            if (args.length >= 4 + i) {
+                                rechercheMotsCles(choix, args, 3 + i, fileOrDirectory, Al);
+                            } else {
+                                System.out.println("Erreur : veuillez entrer un mot-clé");
+                            }
+                            i++;
+                        }
+                        break;
                 }
                 return i;
     }
@@ -1,10 +1,14 @@
 package Graphique;
 
 import javax.swing.*;
+import fonctionnel.Catalogue;
 import fonctionnel.Fichier;
 import fonctionnel.Repertoire;
 import fonctionnel.Snapshot;
 import fonctionnel.Image;
+import fonctionnel.Miniature;
+import fonctionnel.Inventaire;
+import fonctionnel.ProfilExtraction;
 import java.text.SimpleDateFormat;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -240,6 +244,9 @@ public class GUI extends JFrame {
                 if (returnValue == JFileChooser.APPROVE_OPTION) {
                     selectedDirectory = dirChooser.getSelectedFile();
                     dirPathField.setText(selectedDirectory.getAbsolutePath());
+                    // Les fichiers ont pu changer depuis la dernière recherche : le catalogue sera actualisé
+                    Catalogue.oublier(selectedDirectory);
+                    Inventaire.oublier(selectedDirectory);
                 }
             }
         });
@@ -315,13 +322,13 @@ public class GUI extends JFrame {
     public void afficherImageThumbnail() {
         if (selectedFile != null) {
             try {
-                BufferedImage image = ImageIO.read(selectedFile);
-                int maxWidth = 100, maxHeight = 100;
-                int width = image.getWidth(), height = image.getHeight();
-                double ratio = Math.min((double) maxWidth / width, (double) maxHeight / height);
-                int newWidth = (int) (width * ratio), newHeight = (int) (height * ratio);
-                java.awt.Image scaledImage = image.getScaledInstance(newWidth, newHeight, Image.SCALE_DEFAULT);
-                thumbnailLabel.setIcon(new ImageIcon(scaledImage));
+                // Miniature EXIF si l'image en contient une, sinon décodage sous-échantillonné
+                BufferedImage image = Miniature.lire(selectedFile, 100);
+                if (image == null) {
+                    JOptionPane.showMessageDialog(this, "Erreur lors du chargement de l'image : format non pris en charge");
+                    return;
+                }
+                thumbnailLabel.setIcon(new ImageIcon(image));
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this, "Erreur lors du chargement de l'image : " + e.getMessage());
             }
@@ -367,7 +374,7 @@ public class GUI extends JFrame {
     public void afficherMetadonnees() {
         if (selectedFile != null) {
             leftTextArea.setText("");
-            Image image = new Image(selectedFile);
+            Image image = new Image(selectedFile, ProfilExtraction.METADONNEES);
             leftTextArea.setText(image.ExtractAllMetadata());
         } else {
             JOptionPane.showMessageDialog(this, "Veuillez sélectionner un fichier d'abord.");
@@ -494,7 +501,7 @@ public class GUI extends JFrame {
         if (selectedDirectory != null) {
             // Menu déroulant pour sélectionner le groupe de critères
             JLabel groupLabel = new JLabel("Sélectionnez un groupe de critères :");
-            String[] groups = {"Date", "Hauteur", "Largeur", "Nom", "Dimension"};
+            String[] groups = {"Date", "Hauteur", "Largeur", "Nom", "Dimension", "Prise de vue", "Appareil", "Mots-clés", "Texte", "Géolocalisation"};
             JComboBox<String> groupComboBox = new JComboBox<>(groups);
 
             // Limite des sélections
@@ -548,6 +555,30 @@ public class GUI extends JFrame {
             JCheckBox eqdim = new JCheckBox("Dimension égale");
             JCheckBox nedim = new JCheckBox("Dimension différente");
 
+            JCheckBox eqcapt = new JCheckBox("Prise de vue à la date");
+            JCheckBox gtcapt = new JCheckBox("Prise de vue après la date");
+            JCheckBox ltcapt = new JCheckBox("Prise de vue avant la date");
+
+            JCheckBox eqmarque = new JCheckBox("Marque égale");
+            JCheckBox eqmodele = new JCheckBox("Modèle égal");
+            JCheckBox eqobjectif = new JCheckBox("Objectif égal");
+            JCheckBox eqiso = new JCheckBox("ISO égal");
+            JCheckBox gtiso = new JCheckBox("ISO strictement supérieur");
+            JCheckBox ltiso = new JCheckBox("ISO strictement inférieur");
+            JCheckBox gtfocale = new JCheckBox("Focale strictement supérieure");
+            JCheckBox ltfocale = new JCheckBox("Focale strictement inférieure");
+            JCheckBox gtexpo = new JCheckBox("Exposition strictement plus longue");
+            JCheckBox ltexpo = new JCheckBox("Exposition strictement plus courte");
+
+            JCheckBox motcle = new JCheckBox("Porte le mot-clé");
+            JCheckBox motcleun = new JCheckBox("Porte au moins un des mots-clés");
+            JCheckBox motcletous = new JCheckBox("Porte tous les mots-clés");
+
+            JCheckBox texte = new JCheckBox("Titre, description ou créateur contient");
+
+            JCheckBox geoboite = new JCheckBox("Dans un rectangle");
+            JCheckBox georayon = new JCheckBox("Dans un rayon autour d'un point");
+
             // Ajout du listener aux cases à cocher
             eqdate.addItemListener(listener);
             nedate.addItemListener(listener);
@@ -576,6 +607,30 @@ public class GUI extends JFrame {
             eqdim.addItemListener(listener);
             nedim.addItemListener(listener);
 
+            eqcapt.addItemListener(listener);
+            gtcapt.addItemListener(listener);
+            ltcapt.addItemListener(listener);
+
+            eqmarque.addItemListener(listener);
+            eqmodele.addItemListener(listener);
+            eqobjectif.addItemListener(listener);
+            eqiso.addItemListener(listener);
+            gtiso.addItemListener(listener);
+            ltiso.addItemListener(listener);
+            gtfocale.addItemListener(listener);
+            ltfocale.addItemListener(listener);
+            gtexpo.addItemListener(listener);
+            ltexpo.addItemListener(listener);
+
+            motcle.addItemListener(listener);
+            motcleun.addItemListener(listener);
+            motcletous.addItemListener(listener);
+
+            texte.addItemListener(listener);
+
+            geoboite.addItemListener(listener);
+            georayon.addItemListener(listener);
+
             // Champs pour les valeurs associées
             JDateChooser dateChooser = new JDateChooser();
             dateChooser.setDateFormatString("dd/MM/yyyy");
@@ -587,10 +642,32 @@ public class GUI extends JFrame {
             timeSpinner.setEditor(timeEditor);
             timeSpinner.setValue(new Date()); // Initialiser à l'heure actuelle
 
+            // Date et heure de prise de vue, saisies séparément de la date de création
+            JDateChooser captChooser = new JDateChooser();
+            captChooser.setDateFormatString("dd/MM/yyyy");
+            JSpinner captSpinner = new JSpinner(new SpinnerDateModel());
+            captSpinner.setEditor(new JSpinner.DateEditor(captSpinner, "HH:mm:ss"));
+            captSpinner.setValue(new Date());
+
             JTextField dimField = new JTextField(10); // Pour les dimensions
             JTextField nameField = new JTextField(10); // Pour les noms
             JTextField hautField = new JTextField(10);// Pour les hauteurs
             JTextField largField = new JTextField(10); // Pour les largeurs        
+            JTextField marqueField = new JTextField(10); // Pour l'appareil et les réglages
+            JTextField modeleField = new JTextField(10);
+            JTextField objectifField = new JTextField(10);
+            JTextField isoField = new JTextField(10);
+            JTextField focaleField = new JTextField(10);
+            JTextField expoField = new JTextField(10);
+            JTextField motsClesField = new JTextField(10); // Pour les mots-clés, séparés par des virgules
+            JTextField texteField = new JTextField(10); // Pour la recherche plein texte
+            JTextField latMinField = new JTextField(10); // Pour le rectangle GPS
+            JTextField lonMinField = new JTextField(10);
+            JTextField latMaxField = new JTextField(10);
+            JTextField lonMaxField = new JTextField(10);
+            JTextField latField = new JTextField(10); // Pour le centre et le rayon
+            JTextField lonField = new JTextField(10);
+            JTextField rayonField = new JTextField(10);
 
             // Panneaux pour chaque groupe
             JPanel datePanel = new JPanel();
@@ -642,6 +719,74 @@ public class GUI extends JFrame {
             dimensionPanel.add(new JLabel("Entrez une dimension (format : largeur x hauteur) :"));
             dimensionPanel.add(dimField);
 
+            JPanel capturePanel = new JPanel();
+            capturePanel.setLayout(new BoxLayout(capturePanel, BoxLayout.Y_AXIS));
+            capturePanel.add(eqcapt);
+            capturePanel.add(gtcapt);
+            capturePanel.add(ltcapt);
+            capturePanel.add(new JLabel("Sélectionnez une date de prise de vue :"));
+            capturePanel.add(captChooser);
+            capturePanel.add(new JLabel("Sélectionnez une heure :"));
+            capturePanel.add(captSpinner);
+
+            JPanel appareilPanel = new JPanel();
+            appareilPanel.setLayout(new BoxLayout(appareilPanel, BoxLayout.Y_AXIS));
+            appareilPanel.add(eqmarque);
+            appareilPanel.add(new JLabel("Marque :"));
+            appareilPanel.add(marqueField);
+            appareilPanel.add(eqmodele);
+            appareilPanel.add(new JLabel("Modèle :"));
+            appareilPanel.add(modeleField);
+            appareilPanel.add(eqobjectif);
+            appareilPanel.add(new JLabel("Objectif :"));
+            appareilPanel.add(objectifField);
+            appareilPanel.add(eqiso);
+            appareilPanel.add(gtiso);
+            appareilPanel.add(ltiso);
+            appareilPanel.add(new JLabel("Sensibilité ISO :"));
+            appareilPanel.add(isoField);
+            appareilPanel.add(gtfocale);
+            appareilPanel.add(ltfocale);
+            appareilPanel.add(new JLabel("Focale (mm) :"));
+            appareilPanel.add(focaleField);
+            appareilPanel.add(gtexpo);
+            appareilPanel.add(ltexpo);
+            appareilPanel.add(new JLabel("Exposition (s, ex. 1/250) :"));
+            appareilPanel.add(expoField);
+
+            JPanel motsClesPanel = new JPanel();
+            motsClesPanel.setLayout(new BoxLayout(motsClesPanel, BoxLayout.Y_AXIS));
+            motsClesPanel.add(motcle);
+            motsClesPanel.add(motcleun);
+            motsClesPanel.add(motcletous);
+            motsClesPanel.add(new JLabel("Mots-clés (séparés par des virgules) :"));
+            motsClesPanel.add(motsClesField);
+
+            JPanel textePanel = new JPanel();
+            textePanel.setLayout(new BoxLayout(textePanel, BoxLayout.Y_AXIS));
+            textePanel.add(texte);
+            textePanel.add(new JLabel("Mots recherchés (\"harb*\" pour un préfixe) :"));
+            textePanel.add(texteField);
+
+            JPanel geoPanel = new JPanel();
+            geoPanel.setLayout(new BoxLayout(geoPanel, BoxLayout.Y_AXIS));
+            geoPanel.add(geoboite);
+            geoPanel.add(new JLabel("Latitude minimale :"));
+            geoPanel.add(latMinField);
+            geoPanel.add(new JLabel("Longitude minimale :"));
+            geoPanel.add(lonMinField);
+            geoPanel.add(new JLabel("Latitude maximale :"));
+            geoPanel.add(latMaxField);
+            geoPanel.add(new JLabel("Longitude maximale :"));
+            geoPanel.add(lonMaxField);
+            geoPanel.add(georayon);
+            geoPanel.add(new JLabel("Latitude du centre :"));
+            geoPanel.add(latField);
+            geoPanel.add(new JLabel("Longitude du centre :"));
+            geoPanel.add(lonField);
+            geoPanel.add(new JLabel("Rayon (km) :"));
+            geoPanel.add(rayonField);
+
             // Panneau dynamique
             JPanel dynamicPanel = new JPanel(new BorderLayout());
             dynamicPanel.add(datePanel, BorderLayout.CENTER); // Par défaut, affiche le panneau "Date"
@@ -666,6 +811,21 @@ public class GUI extends JFrame {
                     case "Dimension":
                         dynamicPanel.add(dimensionPanel, BorderLayout.CENTER);
                         break;
+                    case "Prise de vue":
+                        dynamicPanel.add(capturePanel, BorderLayout.CENTER);
+                        break;
+                    case "Appareil":
+                        dynamicPanel.add(appareilPanel, BorderLayout.CENTER);
+                        break;
+                    case "Mots-clés":
+                        dynamicPanel.add(motsClesPanel, BorderLayout.CENTER);
+                        break;
+                    case "Texte":
+                        dynamicPanel.add(textePanel, BorderLayout.CENTER);
+                        break;
+                    case "Géolocalisation":
+                        dynamicPanel.add(geoPanel, BorderLayout.CENTER);
+                        break;
                 }
                 dynamicPanel.revalidate();
                 dynamicPanel.repaint();
@@ -696,6 +856,9 @@ public class GUI extends JFrame {
             	String selectedDateStr = selectedDate != null ? dateFormat.format(selectedDate) : "";
             	String selectedTimeStr = selectedTime != null ? timeFormat.format(selectedTime) : "";
             	String date = selectedDateStr+" "+selectedTimeStr;
+            	Date captDate = captChooser.getDate();
+            	Date captTime = (Date) captSpinner.getValue();
+            	String capture = (captDate != null ? dateFormat.format(captDate) : "") + " " + (captTime != null ? timeFormat.format(captTime) : "");
             	String dimension = dimField.getText();//récupération de la dim en supprimant les espaces
             	String name = nameField.getText().trim(); //récupération du nom en supprimant les espaces
             	String haut = hautField.getText();
@@ -736,8 +899,29 @@ public class GUI extends JFrame {
                 boolean HautV = isNeHaut || isLeHaut || isLtHaut || isGtHaut || isGeHaut || isEqHaut;
                 boolean LargV = isNeLarg || isLeLarg || isLtLarg || isGtLarg || isGeLarg || isEqLarg;
                 boolean NameV = isEqName || isNeName ;
+
+                boolean isEqCapt = eqcapt.isSelected();
+                boolean isGtCapt = gtcapt.isSelected();
+                boolean isLtCapt = ltcapt.isSelected();
+                boolean CaptV = isEqCapt || isGtCapt || isLtCapt;
+
+                boolean isEqMarque = eqmarque.isSelected();
+                boolean isEqModele = eqmodele.isSelected();
+                boolean isEqObjectif = eqobjectif.isSelected();
+                boolean IsoV = eqiso.isSelected() || gtiso.isSelected() || ltiso.isSelected();
+                boolean FocaleV = gtfocale.isSelected() || ltfocale.isSelected();
+                boolean ExpoV = gtexpo.isSelected() || ltexpo.isSelected();
+
+                boolean MotCleV = motcle.isSelected() || motcleun.isSelected() || motcletous.isSelected();
+
+                boolean isGeoBoite = geoboite.isSelected();
+                boolean isGeoRayon = georayon.isSelected();
                 
                 //céation d'un ArrayList pour les résultats
+                // Un seul parcours pour tous les critères de cette recherche, à jour des dernières modifications :
+                // le catalogue est lui aussi actualisé, seules les images modifiées depuis sont relues
+                Inventaire.oublier(selectedDirectory);
+                Catalogue.oublier(selectedDirectory);
                 ArrayList<File> resultat = new ArrayList<>();
                 listerfichier(selectedDirectory,resultat);
                 
@@ -922,6 +1106,179 @@ public class GUI extends JFrame {
                 			}
                 		}
  
+                		if (CaptV) {
+                			if (Repertoire.IsDate(capture)) {
+                				if (isEqCapt) {
+                					ArrayList<File> eqcaptt = new ArrayList<>();
+                					Repertoire.recherche_fichier_capture(selectedDirectory, capture, eqcaptt);
+                					resultat = Repertoire.compare2(resultat, eqcaptt);
+                				}
+                				if (isGtCapt) {
+                					ArrayList<File> gtcaptt = new ArrayList<>();
+                					Repertoire.recherche_fichier_capture_sup(selectedDirectory, capture, gtcaptt);
+                					resultat = Repertoire.compare2(resultat, gtcaptt);
+                				}
+                				if (isLtCapt) {
+                					ArrayList<File> ltcaptt = new ArrayList<>();
+                					Repertoire.recherche_fichier_capture_inf(selectedDirectory, capture, ltcaptt);
+                					resultat = Repertoire.compare2(resultat, ltcaptt);
+                				}
+                			}
+                			else {
+                				dra =1;
+                				// Afficher un panneau d'avertissement si la date de prise de vue est invalide
+                		        JOptionPane.showMessageDialog(null, 
+                		            "Veuillez entrer une date de prise de vue valide.", 
+                		            "Avertissement", 
+                		            JOptionPane.WARNING_MESSAGE);
+                			}
+                		}
+                		if (isEqMarque) {
+                			ArrayList<File> marquet = new ArrayList<>();
+                			Repertoire.recherche_fichier_appareil(selectedDirectory, Catalogue.Champ.MARQUE, marqueField.getText(), marquet);
+                			resultat = Repertoire.compare2(resultat, marquet);
+                		}
+                		if (isEqModele) {
+                			ArrayList<File> modelet = new ArrayList<>();
+                			Repertoire.recherche_fichier_appareil(selectedDirectory, Catalogue.Champ.MODELE, modeleField.getText(), modelet);
+                			resultat = Repertoire.compare2(resultat, modelet);
+                		}
+                		if (isEqObjectif) {
+                			ArrayList<File> objectift = new ArrayList<>();
+                			Repertoire.recherche_fichier_appareil(selectedDirectory, Catalogue.Champ.OBJECTIF, objectifField.getText(), objectift);
+                			resultat = Repertoire.compare2(resultat, objectift);
+                		}
+                		if (IsoV || FocaleV || ExpoV) {
+                			double iso = Repertoire.coordonnee(isoField.getText());
+                			double focale = Repertoire.coordonnee(focaleField.getText());
+                			double expo = Repertoire.exposition(expoField.getText());
+                			if ((!IsoV || iso >= 0) && (!FocaleV || focale >= 0) && (!ExpoV || expo >= 0)) {
+                				ArrayList<File> reglaget = new ArrayList<>();
+                				if (eqiso.isSelected()) {
+                					Repertoire.recherche_fichier_reglage(selectedDirectory, Catalogue.Champ.ISO, iso, iso, reglaget);
+                					resultat = Repertoire.compare2(resultat, reglaget);
+                					reglaget = new ArrayList<>();
+                				}
+                				if (gtiso.isSelected()) {
+                					Repertoire.recherche_fichier_reglage(selectedDirectory, Catalogue.Champ.ISO, Math.nextUp(iso), Double.POSITIVE_INFINITY, reglaget);
+                					resultat = Repertoire.compare2(resultat, reglaget);
+                					reglaget = new ArrayList<>();
+                				}
+                				if (ltiso.isSelected()) {
+                					Repertoire.recherche_fichier_reglage(selectedDirectory, Catalogue.Champ.ISO, Double.NEGATIVE_INFINITY, Math.nextDown(iso), reglaget);
+                					resultat = Repertoire.compare2(resultat, reglaget);
+                					reglaget = new ArrayList<>();
+                				}
+                				if (gtfocale.isSelected()) {
+                					Repertoire.recherche_fichier_reglage(selectedDirectory, Catalogue.Champ.FOCALE, Math.nextUp(focale), Double.POSITIVE_INFINITY, reglaget);
+                					resultat = Repertoire.compare2(resultat, reglaget);
+                					reglaget = new ArrayList<>();
+                				}
+                				if (ltfocale.isSelected()) {
+                					Repertoire.recherche_fichier_reglage(selectedDirectory, Catalogue.Champ.FOCALE, Double.NEGATIVE_INFINITY, Math.nextDown(focale), reglaget);
+                					resultat = Repertoire.compare2(resultat, reglaget);
+                					reglaget = new ArrayList<>();
+                				}
+                				if (gtexpo.isSelected()) {
+                					Repertoire.recherche_fichier_reglage(selectedDirectory, Catalogue.Champ.EXPOSITION, Math.nextUp(expo), Double.POSITIVE_INFINITY, reglaget);
+                					resultat = Repertoire.compare2(resultat, reglaget);
+                					reglaget = new ArrayList<>();
+                				}
+                				if (ltexpo.isSelected()) {
+                					Repertoire.recherche_fichier_reglage(selectedDirectory, Catalogue.Champ.EXPOSITION, Double.NEGATIVE_INFINITY, Math.nextDown(expo), reglaget);
+                					resultat = Repertoire.compare2(resultat, reglaget);
+                				}
+                			}
+                			else {
+                				dra =1;
+                				// Afficher un panneau d'avertissement si un réglage est invalide
+                		        JOptionPane.showMessageDialog(null, 
+                		            "Veuillez entrer des valeurs de réglage valides.", 
+                		            "Avertissement", 
+                		            JOptionPane.WARNING_MESSAGE);
+                			}
+                		}
+                		if (MotCleV) {
+                			String[] mots = motsClesField.getText().split(",");
+                			if (!motsClesField.getText().trim().isEmpty()) {
+                				if (motcle.isSelected()) {
+                					ArrayList<File> motclet = new ArrayList<>();
+                					Repertoire.recherche_fichier_mots_cles(selectedDirectory, new String[] {mots[0]}, true, motclet);
+                					resultat = Repertoire.compare2(resultat, motclet);
+                				}
+                				if (motcleun.isSelected()) {
+                					ArrayList<File> motcleunt = new ArrayList<>();
+                					Repertoire.recherche_fichier_mots_cles(selectedDirectory, mots, false, motcleunt);
+                					resultat = Repertoire.compare2(resultat, motcleunt);
+                				}
+                				if (motcletous.isSelected()) {
+                					ArrayList<File> motcletoust = new ArrayList<>();
+                					Repertoire.recherche_fichier_mots_cles(selectedDirectory, mots, true, motcletoust);
+                					resultat = Repertoire.compare2(resultat, motcletoust);
+                				}
+                			}
+                			else {
+                				dra =1;
+                				// Afficher un panneau d'avertissement si aucun mot-clé n'est saisi
+                		        JOptionPane.showMessageDialog(null, 
+                		            "Veuillez entrer au moins un mot-clé.", 
+                		            "Avertissement", 
+                		            JOptionPane.WARNING_MESSAGE);
+                			}
+                		}
+                		if (texte.isSelected()) {
+                			if (!texteField.getText().trim().isEmpty()) {
+                				ArrayList<File> textet = new ArrayList<>();
+                				Repertoire.recherche_fichier_texte(selectedDirectory, texteField.getText(), textet);
+                				resultat = Repertoire.compare2(resultat, textet);
+                			}
+                			else {
+                				dra =1;
+                				// Afficher un panneau d'avertissement si aucun mot n'est saisi
+                		        JOptionPane.showMessageDialog(null, 
+                		            "Veuillez entrer au moins un mot à rechercher.", 
+                		            "Avertissement", 
+                		            JOptionPane.WARNING_MESSAGE);
+                			}
+                		}
+                		if (isGeoBoite) {
+                			double latMin = Repertoire.coordonnee(latMinField.getText());
+                			double lonMin = Repertoire.coordonnee(lonMinField.getText());
+                			double latMax = Repertoire.coordonnee(latMaxField.getText());
+                			double lonMax = Repertoire.coordonnee(lonMaxField.getText());
+                			if (Math.abs(latMin) <= 90 && Math.abs(latMax) <= 90 && latMin <= latMax && Math.abs(lonMin) <= 180 && Math.abs(lonMax) <= 180) {
+                				ArrayList<File> geoboitet = new ArrayList<>();
+                				Repertoire.recherche_fichier_geo_boite(selectedDirectory, latMin, lonMin, latMax, lonMax, geoboitet);
+                				resultat = Repertoire.compare2(resultat, geoboitet);
+                			}
+                			else {
+                				dra =1;
+                				// Afficher un panneau d'avertissement si le rectangle est invalide
+                		        JOptionPane.showMessageDialog(null, 
+                		            "Veuillez entrer un rectangle de coordonnées valide.", 
+                		            "Avertissement", 
+                		            JOptionPane.WARNING_MESSAGE);
+                			}
+                		}
+                		if (isGeoRayon) {
+                			double lat = Repertoire.coordonnee(latField.getText());
+                			double lon = Repertoire.coordonnee(lonField.getText());
+                			double km = Repertoire.coordonnee(rayonField.getText());
+                			if (Math.abs(lat) <= 90 && Math.abs(lon) <= 180 && km >= 0) {
+                				ArrayList<File> georayont = new ArrayList<>();
+                				Repertoire.recherche_fichier_geo_rayon(selectedDirectory, lat, lon, km, georayont);
+                				resultat = Repertoire.compare2(resultat, georayont);
+                			}
+                			else {
+                				dra =1;
+                				// Afficher un panneau d'avertissement si le point ou le rayon est invalide
+                		        JOptionPane.showMessageDialog(null, 
+                		            "Veuillez entrer un point et un rayon valides.", 
+                		            "Avertissement", 
+                		            JOptionPane.WARNING_MESSAGE);
+                			}
+                		}
+ 
                 		if(dra == 1 || selectedCount[0] == 0) {
                 			System.out.println("Erreur : Veuillez entrer des arguments valides");
                 		}
@@ -1052,26 +1409,14 @@ public static int getHauteur(String dim){
     	
 /**
  * Parcourt récursivement un répertoire pour lister tous les fichiers qu'il contient,
- * en ignorant les répertoires nommés "SnapShot".
+ * en ignorant les répertoires exclus ("SnapShot", ".git"... voir {@link fonctionnel.Exclusions}).
  *
  * @param d Le répertoire de départ pour la recherche.
  * @param fileList La liste qui contiendra les fichiers trouvés.
  */
 public static void listerfichier(File d,ArrayList<File> fileList) {
-	File [] tabd = d.listFiles();
-	int i = 0;
-	while (i<tabd.length) {
-		if(tabd[i].isDirectory()) {
-			if(!(tabd[i].getName().contains("SnapShot"))) {
-				listerfichier(tabd[i],fileList);
-			}
-		}
-		else {
-				fileList.add(tabd[i]);
-			}
-		i = i+1;
-		}
-	}
+	Inventaire.de(d).filtrer(f -> true, fileList);
+}
 
         
         
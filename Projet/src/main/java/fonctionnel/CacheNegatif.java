@@ -0,0 +1,260 @@
+package fonctionnel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache persistant des fichiers qui ne sont pas des images exploitables, identifiés par leur chemin,
+ * leur taille et leur date de modification.
+ * <p>
+ * Un fichier dont l'en-tête n'est celui d'aucun format d'image connu, ou dont l'analyse des métadonnées
+ * a échoué sur un contenu lu en entier, est enregistré ici : les recherches suivantes l'écartent sans l'ouvrir
+ * tant que sa taille et sa date de modification n'ont pas changé. Les erreurs d'entrée/sortie et les lectures
+ * interrompues par le plafond d'octets ne sont pas enregistrées (voir {@link Image#getMetadonnees()}). Pour un fichier absent du cache, la vérification ne coûte
+ * qu'une recherche dans une table en mémoire.
+ * <p>
+ * Le cache est chargé à la première utilisation depuis {@code ~/.extracteur-metadonnees/cache-negatif.bin}
+ * et enregistré à la fin du programme s'il a été modifié.
+ */
+public final class CacheNegatif {
+	/**
+	 * L'en-tête du fichier n'est celui d'aucun format d'image connu de {@link Renifleur}.
+	 */
+	public static final int NON_IMAGE = 1;
+	/**
+	 * L'analyse des métadonnées du fichier a échoué alors que son contenu a été lu en entier.
+	 */
+	public static final int ILLISIBLE = 2;
+
+	/**
+	 * Version du format du fichier de cache : un fichier d'une autre version est ignoré.
+	 */
+	private static final int VERSION = 1;
+
+	private static File fichier = new File(new File(System.getProperty("user.home"), ".extracteur-metadonnees"), "cache-negatif.bin");
+	private static volatile boolean actif = true;
+
+	private static Map<String, Entree> entrees;
+	private static volatile boolean modifie;
+
+	/**
+	 * Longueur maximale conservée pour le message d'erreur d'un fichier illisible.
+	 */
+	private static final int LONGUEUR_MESSAGE = 500;
+
+	/**
+	 * Taille, date de modification, motifs d'exclusion et message d'erreur d'un fichier au moment de son enregistrement.
+	 */
+	private static final class Entree {
+		final long taille;
+		final long modification;
+		final int motifs;
+		final String message;
+
+		Entree(long taille, long modification, int motifs, String message) {
+			this.taille = taille;
+			this.modification = modification;
+			this.motifs = motifs;
+			this.message = message;
+		}
+	}
+
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private CacheNegatif() {
+	}
+
+	/**
+	 * Active ou désactive le cache. Désactivé, il n'est ni consulté ni enrichi.
+	 *
+	 * @param etat {@code true} pour utiliser le cache
+	 */
+	public static void setActif(boolean etat) {
+		actif = etat;
+	}
+
+	/**
+	 * @return {@code true} si le cache est consulté et enrichi
+	 */
+	public static boolean isActif() {
+		return actif;
+	}
+
+	/**
+	 * Change l'emplacement du fichier de cache. À appeler avant la première utilisation.
+	 *
+	 * @param f le fichier de cache
+	 */
+	public static synchronized void setFichier(File f) {
+		fichier = f;
+		entrees = null;
+	}
+
+	/**
+	 * Indique si un fichier est enregistré pour un motif donné avec sa taille et sa date de modification actuelles.
+	 * Une entrée dont le fichier a changé depuis est retirée.
+	 *
+	 * @param f     le fichier
+	 * @param motif {@link #NON_IMAGE} ou {@link #ILLISIBLE}
+	 * @return {@code true} si le fichier peut être écarté sans être lu
+	 */
+	public static boolean contient(File f, int motif) {
+		if (!actif) {
+			return false;
+		}
+		String chemin = f.getAbsolutePath();
+		Entree e = entrees().get(chemin);
+		if (e == null || (e.motifs & motif) == 0) {
+			return false;
+		}
+		if (e.taille == f.length() && e.modification == f.lastModified()) {
+			return true;
+		}
+		// Fichier modifié : il sera de nouveau analysé
+		if (entrees.remove(chemin, e)) {
+			modifie = true;
+		}
+		return false;
+	}
+
+	/**
+	 * Retourne le message d'erreur retenu pour un fichier illisible.
+	 *
+	 * @param f le fichier
+	 * @return le message de l'erreur rencontrée lors de son analyse, ou {@code null}
+	 */
+	public static String message(File f) {
+		if (!actif) {
+			return null;
+		}
+		Entree e = entrees().get(f.getAbsolutePath());
+		return e != null ? e.message : null;
+	}
+
+	/**
+	 * Enregistre un fichier pour un motif donné.
+	 *
+	 * @param f       le fichier
+	 * @param motif   {@link #NON_IMAGE} ou {@link #ILLISIBLE}
+	 * @param message le message de l'erreur rencontrée, ou {@code null}
+	 */
+	public static void ajouter(File f, int motif, String message) {
+		if (!actif) {
+			return;
+		}
+		long taille = f.length();
+		long modification = f.lastModified();
+		if (modification == 0L) {
+			// Fichier disparu ou inaccessible : rien à retenir
+			return;
+		}
+		if (message != null && message.length() > LONGUEUR_MESSAGE) {
+			message = message.substring(0, LONGUEUR_MESSAGE);
+		}
+		entrees().merge(f.getAbsolutePath(), new Entree(taille, modification, motif, message), (ancienne, nouvelle) ->
+				ancienne.taille == nouvelle.taille && ancienne.modification == nouvelle.modification
+						? new Entree(taille, modification, ancienne.motifs | nouvelle.motifs,
+								nouvelle.message != null ? nouvelle.message : ancienne.message)
+						: nouvelle);
+		modifie = true;
+	}
+
+	/**
+	 * Vide le cache, en mémoire et sur le disque.
+	 */
+	public static synchronized void vider() {
+		entrees().clear();
+		modifie = false;
+		if (fichier.exists() && !fichier.delete()) {
+			System.err.println("Erreur : impossible de supprimer le cache " + fichier.getPath());
+		}
+	}
+
+	/**
+	 * @return la table des entrées, chargée depuis le disque au premier appel
+	 */
+	private static synchronized Map<String, Entree> entrees() {
+		if (entrees == null) {
+			entrees = new ConcurrentHashMap<>();
+			charger();
+			Runtime.getRuntime().addShutdownHook(new Thread(CacheNegatif::enregistrer, "cache-negatif"));
+		}
+		return entrees;
+	}
+
+	private static void charger() {
+		if (!fichier.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fichier)))) {
+			if (in.readInt() != VERSION) {
+				return;
+			}
+			int n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				String chemin = in.readUTF();
+				long taille = in.readLong();
+				long modification = in.readLong();
+				int motifs = in.readByte();
+				String message = in.readBoolean() ? in.readUTF() : null;
+				entrees.put(chemin, new Entree(taille, modification, motifs, message));
+			}
+		} catch (EOFException e) {
+			// Fichier tronqué : les entrées lues sont conservées
+		} catch (IOException e) {
+			System.err.println("Erreur d'entrée/sortie : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Enregistre le cache s'il a été modifié depuis son chargement.
+	 */
+	public static synchronized void enregistrer() {
+		if (!modifie || entrees == null) {
+			return;
+		}
+		File dossier = fichier.getParentFile();
+		if (dossier != null && !dossier.isDirectory() && !dossier.mkdirs()) {
+			System.err.println("Erreur : impossible de créer le dossier " + dossier.getPath() + ", le cache n'est pas enregistré.");
+			return;
+		}
+		// Écriture dans un fichier temporaire puis renommage : un arrêt brutal ne laisse pas de cache tronqué
+		File temporaire = new File(fichier.getPath() + ".tmp");
+		// Copie figée : la table peut encore être modifiée par une extraction en cours
+		List<Map.Entry<String, Entree>> copie = new ArrayList<>(entrees.entrySet());
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaire)))) {
+			out.writeInt(VERSION);
+			out.writeInt(copie.size());
+			for (Map.Entry<String, Entree> e : copie) {
+				out.writeUTF(e.getKey());
+				out.writeLong(e.getValue().taille);
+				out.writeLong(e.getValue().modification);
+				out.writeByte(e.getValue().motifs);
+				out.writeBoolean(e.getValue().message != null);
+				if (e.getValue().message != null) {
+					out.writeUTF(e.getValue().message);
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Erreur d'entrée/sortie : " + e.getMessage());
+			return;
+		}
+		if (!temporaire.renameTo(fichier) && !(fichier.delete() && temporaire.renameTo(fichier))) {
+			System.err.println("Erreur : impossible d'enregistrer le cache " + fichier.getPath());
+			return;
+		}
+		modifie = false;
+	}
+}
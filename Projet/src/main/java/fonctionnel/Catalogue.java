@@ -0,0 +1,633 @@
+package fonctionnel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalogue des images d'un répertoire : les métadonnées utilisées par les recherches sont extraites
+ * une seule fois et rangées en colonnes de types primitifs, une ligne par image.
+ * <p>
+ * Le catalogue est enregistré dans le dossier {@code SnapShot} du répertoire, exclu des parcours (voir {@link Exclusions}).
+ * À la première utilisation dans le programme, seules les images nouvelles, dont la taille ou la date
+ * de modification ont changé ou dont l'extraction avait échoué sont relues ; les lignes des images supprimées sont retirées.
+ * Cette comparaison demande un parcours du répertoire, celui de l'{@link Inventaire} : les tailles et dates
+ * sont prises dans les attributs qu'il a lus, et les autres critères de la même invocation réutilisent ce parcours.
+ * Le catalogue actualisé est ensuite conservé jusqu'à {@link #oublier(File)}.
+ * Les recherches portent ensuite uniquement sur les colonnes et les index construits au-dessus.
+ */
+public class Catalogue implements Serializable {
+	/**
+	 * Colonnes de l'appareil et des réglages de prise de vue pouvant être interrogées.
+	 */
+	public enum Champ {
+		/** Marque de l'appareil, colonne codée par dictionnaire. */
+		MARQUE,
+		/** Modèle de l'appareil, colonne codée par dictionnaire. */
+		MODELE,
+		/** Modèle de l'objectif, colonne codée par dictionnaire. */
+		OBJECTIF,
+		/** Sensibilité ISO. */
+		ISO,
+		/** Focale en millimètres. */
+		FOCALE,
+		/** Durée d'exposition en secondes. */
+		EXPOSITION
+	}
+
+	private static final long serialVersionUID = 5L;
+
+	/**
+	 * Nom du fichier du catalogue dans le dossier {@code SnapShot} du répertoire.
+	 */
+	public static final String NOM_FICHIER = "catalogue.ser";
+	/**
+	 * Blocs de métadonnées lus pour remplir les colonnes.
+	 */
+	private static final ProfilExtraction PROFIL = ProfilExtraction.METADONNEES;
+
+	/**
+	 * Date de modification enregistrée pour une image dont l'extraction a échoué : elle ne correspond à aucun fichier,
+	 * si bien que la ligne reste vide jusqu'à la prochaine actualisation, qui relit l'image.
+	 */
+	private static final long MODIFICATION_ECHEC = Long.MIN_VALUE;
+
+	/**
+	 * Catalogues déjà chargés et actualisés dans ce programme, par chemin absolu du répertoire.
+	 */
+	private static final Map<String, Catalogue> CHARGES = new HashMap<>();
+
+	private final String racine;
+	private int taille;
+
+	private String[] chemins = new String[0];
+	private long[] tailles = new long[0];
+	private long[] modifications = new long[0];
+	/**
+	 * Coordonnées GPS en degrés décimaux, {@link Double#NaN} sans position.
+	 */
+	private double[] latitudes = new double[0];
+	private double[] longitudes = new double[0];
+	/**
+	 * Dates de prise de vue (voir {@link DateCapture}), {@link DateCapture#ABSENTE} si inconnues.
+	 */
+	private long[] datesCapture = new long[0];
+	/**
+	 * Codes de la marque, du modèle et de l'objectif dans leur dictionnaire, {@link Dictionnaire#ABSENT} si inconnus.
+	 */
+	private int[] marques = new int[0];
+	private int[] modeles = new int[0];
+	private int[] objectifs = new int[0];
+	private Dictionnaire dictionnaireMarques = new Dictionnaire();
+	private Dictionnaire dictionnaireModeles = new Dictionnaire();
+	private Dictionnaire dictionnaireObjectifs = new Dictionnaire();
+	/**
+	 * Sensibilité ISO, -1 si inconnue.
+	 */
+	private int[] isos = new int[0];
+	/**
+	 * Focale en millimètres et durée d'exposition en secondes, {@link Double#NaN} si inconnues.
+	 */
+	private double[] focales = new double[0];
+	private double[] expositions = new double[0];
+	/**
+	 * Mots-clés IPTC et XMP, colonne multivaluée en lignes compressées : les codes des mots-clés de la ligne
+	 * {@code i} vont de {@code debutsMotsCles[i]} à {@code debutsMotsCles[i + 1]} exclu dans {@code motsCles}.
+	 */
+	private int[] debutsMotsCles = new int[1];
+	private int[] motsCles = new int[0];
+	private Dictionnaire dictionnaireMotsCles = new Dictionnaire();
+	/**
+	 * Termes du titre, de la description et du créateur XMP (voir {@link IndexTexte#termes(String)}),
+	 * colonne multivaluée rangée comme celle des mots-clés.
+	 */
+	private int[] debutsTermes = new int[1];
+	private int[] termes = new int[0];
+	private Dictionnaire dictionnaireTermes = new Dictionnaire();
+	/**
+	 * Codes des mots-clés et des termes de chaque ligne pendant l'actualisation, avant leur mise bout à bout.
+	 */
+	private transient int[][] motsClesLignes;
+	private transient int[][] termesLignes;
+
+	/**
+	 * Index spatial construit à la première recherche géographique.
+	 */
+	private transient IndexGeo indexGeo;
+	/**
+	 * Index des dates de prise de vue construit à la première recherche par date.
+	 */
+	private transient IndexTrie indexDates;
+	/**
+	 * Index inversé des mots-clés construit à la première recherche par mot-clé.
+	 */
+	private transient IndexInverse indexMotsCles;
+	/**
+	 * Index plein texte construit à la première recherche dans les textes XMP.
+	 */
+	private transient IndexTexte indexTexte;
+
+	private Catalogue(String racine) {
+		this.racine = racine;
+	}
+
+	/**
+	 * Retourne le catalogue d'un répertoire, chargé depuis le disque et actualisé lors du premier appel
+	 * pour ce répertoire, puis conservé en mémoire pour les appels suivants.
+	 *
+	 * @param d le répertoire
+	 * @return le catalogue à jour du répertoire
+	 */
+	public static synchronized Catalogue de(File d) {
+		String racine = d.getAbsolutePath();
+		Catalogue catalogue = CHARGES.get(racine);
+		if (catalogue == null) {
+			catalogue = charger(d);
+			if (catalogue == null) {
+				catalogue = new Catalogue(racine);
+			}
+			if (catalogue.actualiser(d)) {
+				catalogue.enregistrer(d);
+			}
+			CHARGES.put(racine, catalogue);
+		}
+		return catalogue;
+	}
+
+	/**
+	 * Oublie le catalogue d'un répertoire conservé en mémoire : le prochain appel à {@link #de(File)}
+	 * le rechargera et prendra en compte les fichiers modifiés entre-temps.
+	 *
+	 * @param d le répertoire
+	 */
+	public static synchronized void oublier(File d) {
+		CHARGES.remove(d.getAbsolutePath());
+	}
+
+	/**
+	 * @return le nombre d'images du catalogue
+	 */
+	public int taille() {
+		return taille;
+	}
+
+	/**
+	 * Recherche les images prises dans un rectangle de coordonnées, bornes incluses.
+	 *
+	 * @param latMin   la latitude minimale
+	 * @param lonMin   la longitude minimale (bord ouest)
+	 * @param latMax   la latitude maximale
+	 * @param lonMax   la longitude maximale (bord est), inférieure à {@code lonMin} si le rectangle traverse l'antiméridien
+	 * @param fileList la liste des fichiers trouvés
+	 */
+	public void rechercherBoite(double latMin, double lonMin, double latMax, double lonMax, ArrayList<File> fileList) {
+		ListeEntiers lignes = new ListeEntiers();
+		indexGeo().boite(latMin, lonMin, latMax, lonMax, lignes);
+		ajouterFichiers(lignes, fileList);
+	}
+
+	/**
+	 * Recherche les images prises à moins d'une distance donnée d'un point.
+	 *
+	 * @param lat      la latitude du centre
+	 * @param lon      la longitude du centre
+	 * @param km       le rayon en kilomètres
+	 * @param fileList la liste des fichiers trouvés
+	 */
+	public void rechercherRayon(double lat, double lon, double km, ArrayList<File> fileList) {
+		ListeEntiers lignes = new ListeEntiers();
+		indexGeo().rayon(lat, lon, km, lignes);
+		ajouterFichiers(lignes, fileList);
+	}
+
+	/**
+	 * Recherche les images dont la date de prise de vue est comprise entre deux bornes incluses.
+	 *
+	 * @param debut    la borne inférieure en millisecondes (voir {@link DateCapture})
+	 * @param fin      la borne supérieure en millisecondes
+	 * @param fileList la liste des fichiers trouvés
+	 */
+	public void rechercherCapture(long debut, long fin, ArrayList<File> fileList) {
+		ListeEntiers lignes = new ListeEntiers();
+		indexDates().plage(debut, fin, lignes);
+		ajouterFichiers(lignes, fileList);
+	}
+
+	/**
+	 * Recherche les images dont la marque, le modèle ou l'objectif est égal à une valeur,
+	 * sans tenir compte de la casse. La valeur est traduite en code une seule fois,
+	 * puis la colonne de codes est parcourue.
+	 *
+	 * @param champ    {@link Champ#MARQUE}, {@link Champ#MODELE} ou {@link Champ#OBJECTIF}
+	 * @param valeur   la valeur recherchée
+	 * @param fileList la liste des fichiers trouvés
+	 */
+	public void rechercherEgal(Champ champ, String valeur, ArrayList<File> fileList) {
+		int[] colonne;
+		Dictionnaire dictionnaire;
+		switch (champ) {
+			case MARQUE:
+				colonne = marques;
+				dictionnaire = dictionnaireMarques;
+				break;
+			case MODELE:
+				colonne = modeles;
+				dictionnaire = dictionnaireModeles;
+				break;
+			case OBJECTIF:
+				colonne = objectifs;
+				dictionnaire = dictionnaireObjectifs;
+				break;
+			default:
+				throw new IllegalArgumentException("Colonne non textuelle : " + champ);
+		}
+		int code = dictionnaire.chercher(valeur);
+		if (code == Dictionnaire.ABSENT) {
+			return;
+		}
+		ListeEntiers lignes = new ListeEntiers();
+		for (int i = 0; i < taille; i++) {
+			if (colonne[i] == code) {
+				lignes.ajouter(i);
+			}
+		}
+		ajouterFichiers(lignes, fileList);
+	}
+
+	/**
+	 * Recherche les images dont la sensibilité ISO, la focale ou la durée d'exposition est comprise
+	 * entre deux bornes incluses, par un parcours de la colonne correspondante.
+	 *
+	 * @param champ    {@link Champ#ISO}, {@link Champ#FOCALE} ou {@link Champ#EXPOSITION}
+	 * @param min      la borne inférieure
+	 * @param max      la borne supérieure
+	 * @param fileList la liste des fichiers trouvés
+	 */
+	public void rechercherPlage(Champ champ, double min, double max, ArrayList<File> fileList) {
+		ListeEntiers lignes = new ListeEntiers();
+		switch (champ) {
+			case ISO:
+				for (int i = 0; i < taille; i++) {
+					int v = isos[i];
+					if (v >= 0 && v >= min && v <= max) {
+						lignes.ajouter(i);
+					}
+				}
+				break;
+			case FOCALE:
+				plage(focales, min, max, lignes);
+				break;
+			case EXPOSITION:
+				plage(expositions, min, max, lignes);
+				break;
+			default:
+				throw new IllegalArgumentException("Colonne non numérique : " + champ);
+		}
+		ajouterFichiers(lignes, fileList);
+	}
+
+	/**
+	 * Recherche les images portant des mots-clés IPTC ou XMP, sans tenir compte de la casse ni des accents.
+	 * Les mots sont traduits en codes, puis les listes de l'index inversé sont intersectées ou réunies.
+	 *
+	 * @param mots     les mots-clés recherchés
+	 * @param tous     {@code true} pour exiger tous les mots-clés, {@code false} pour en exiger au moins un
+	 * @param fileList la liste des fichiers trouvés
+	 */
+	public void rechercherMotsCles(String[] mots, boolean tous, ArrayList<File> fileList) {
+		ListeEntiers codes = new ListeEntiers(mots.length);
+		for (String mot : mots) {
+			int code = dictionnaireMotsCles.chercher(Metadonnees.normaliserMotCle(mot));
+			if (code != Dictionnaire.ABSENT) {
+				codes.ajouter(code);
+			} else if (tous) {
+				// Un mot-clé inconnu : aucune image ne les porte tous
+				return;
+			}
+		}
+		if (codes.taille() == 0) {
+			return;
+		}
+		ListeEntiers lignes = new ListeEntiers();
+		if (tous) {
+			indexMotsCles().tous(codes.versTableau(), lignes);
+		} else {
+			indexMotsCles().un(codes.versTableau(), lignes);
+		}
+		ajouterFichiers(lignes, fileList);
+	}
+
+	/**
+	 * Recherche les images dont le titre, la description ou le créateur XMP contient tous les mots d'une requête,
+	 * sans tenir compte de la casse ni des accents ; un mot terminé par {@code *} est un préfixe.
+	 *
+	 * @param requete  les mots recherchés, séparés par des espaces
+	 * @param fileList la liste des fichiers trouvés
+	 */
+	public void rechercherTexte(String requete, ArrayList<File> fileList) {
+		ListeEntiers lignes = new ListeEntiers();
+		indexTexte().rechercher(requete, lignes);
+		ajouterFichiers(lignes, fileList);
+	}
+
+	/**
+	 * Parcourt une colonne de réels ; les valeurs {@link Double#NaN} ne satisfont aucune comparaison.
+	 */
+	private void plage(double[] colonne, double min, double max, ListeEntiers lignes) {
+		for (int i = 0; i < taille; i++) {
+			double v = colonne[i];
+			if (v >= min && v <= max) {
+				lignes.ajouter(i);
+			}
+		}
+	}
+
+	private synchronized IndexTrie indexDates() {
+		if (indexDates == null) {
+			indexDates = new IndexTrie(datesCapture, taille, DateCapture.ABSENTE);
+		}
+		return indexDates;
+	}
+
+	private synchronized IndexInverse indexMotsCles() {
+		if (indexMotsCles == null) {
+			indexMotsCles = new IndexInverse(debutsMotsCles, motsCles, taille, dictionnaireMotsCles.taille());
+		}
+		return indexMotsCles;
+	}
+
+	private synchronized IndexTexte indexTexte() {
+		if (indexTexte == null) {
+			indexTexte = new IndexTexte(debutsTermes, termes, taille, dictionnaireTermes);
+		}
+		return indexTexte;
+	}
+
+	private synchronized IndexGeo indexGeo() {
+		if (indexGeo == null) {
+			indexGeo = new IndexGeo(latitudes, longitudes, taille);
+		}
+		return indexGeo;
+	}
+
+	/**
+	 * Ajoute les fichiers des lignes trouvées, dans l'ordre du catalogue (celui du parcours du répertoire).
+	 */
+	private void ajouterFichiers(ListeEntiers lignes, ArrayList<File> fileList) {
+		lignes.trier();
+		fileList.ensureCapacity(fileList.size() + lignes.taille());
+		for (int k = 0; k < lignes.taille(); k++) {
+			fileList.add(new File(chemins[lignes.get(k)]));
+		}
+	}
+
+	/**
+	 * Met le catalogue en accord avec le contenu du répertoire.
+	 *
+	 * @param d le répertoire
+	 * @return {@code true} si au moins une ligne a été ajoutée, modifiée ou retirée
+	 */
+	private boolean actualiser(File d) {
+		// Taille et date de modification viennent des attributs lus par le parcours de l'inventaire :
+		// aucun fichier n'est interrogé une seconde fois
+		ArrayList<Fichier> images = new ArrayList<>();
+		for (Fichier f : Inventaire.de(d).fichiers()) {
+			if (f.estFichier() && Fichier.aExtensionImage(f.get_Nom())) {
+				images.add(f);
+			}
+		}
+
+		HashMap<String, Integer> anciennes = new HashMap<>(taille * 2);
+		for (int i = 0; i < taille; i++) {
+			anciennes.put(chemins[i], i);
+		}
+
+		// Nouvelle table dans l'ordre du parcours : les lignes inchangées sont recopiées,
+		// les autres sont réservées puis remplies par l'extraction.
+		// Les dictionnaires sont partagés : un code attribué reste valable.
+		Catalogue nouveau = new Catalogue(racine);
+		nouveau.dictionnaireMarques = dictionnaireMarques;
+		nouveau.dictionnaireModeles = dictionnaireModeles;
+		nouveau.dictionnaireObjectifs = dictionnaireObjectifs;
+		nouveau.dictionnaireMotsCles = dictionnaireMotsCles;
+		nouveau.dictionnaireTermes = dictionnaireTermes;
+		nouveau.reserver(images.size());
+		ArrayList<Path> aLire = new ArrayList<>();
+		HashMap<Path, Integer> lignesALire = new HashMap<>();
+		for (Fichier f : images) {
+			File image = f.get_File();
+			String chemin = image.getPath();
+			long longueur = f.get_taille();
+			long modification = f.get_modif();
+			Integer ancienne = anciennes.get(chemin);
+			int ligne = nouveau.taille++;
+			nouveau.chemins[ligne] = chemin;
+			nouveau.tailles[ligne] = longueur;
+			nouveau.modifications[ligne] = modification;
+			if (ancienne != null && tailles[ancienne] == longueur && modifications[ancienne] == modification) {
+				nouveau.copierLigne(this, ancienne, ligne);
+			} else {
+				nouveau.viderLigne(ligne);
+				aLire.add(image.toPath());
+				lignesALire.put(image.toPath(), ligne);
+			}
+		}
+
+		Iterator<ResultatExtraction> resultats = Image.extractAll(aLire, PROFIL);
+		while (resultats.hasNext()) {
+			ResultatExtraction resultat = resultats.next();
+			int ligne = lignesALire.get(resultat.getChemin());
+			if (resultat.estErreur()) {
+				// Erreur peut-être passagère (fichier verrouillé, partage réseau indisponible) : ligne vide, relue la prochaine fois
+				nouveau.modifications[ligne] = MODIFICATION_ECHEC;
+			} else {
+				nouveau.remplirLigne(ligne, resultat.getMetadonnees());
+			}
+		}
+		nouveau.compacter();
+
+		boolean modifie = !aLire.isEmpty() || nouveau.taille != taille;
+		taille = nouveau.taille;
+		chemins = nouveau.chemins;
+		tailles = nouveau.tailles;
+		modifications = nouveau.modifications;
+		latitudes = nouveau.latitudes;
+		longitudes = nouveau.longitudes;
+		datesCapture = nouveau.datesCapture;
+		marques = nouveau.marques;
+		modeles = nouveau.modeles;
+		objectifs = nouveau.objectifs;
+		isos = nouveau.isos;
+		focales = nouveau.focales;
+		expositions = nouveau.expositions;
+		debutsMotsCles = nouveau.debutsMotsCles;
+		motsCles = nouveau.motsCles;
+		debutsTermes = nouveau.debutsTermes;
+		termes = nouveau.termes;
+		indexGeo = null;
+		indexDates = null;
+		indexMotsCles = null;
+		indexTexte = null;
+		return modifie;
+	}
+
+	private void reserver(int capacite) {
+		chemins = new String[capacite];
+		tailles = new long[capacite];
+		modifications = new long[capacite];
+		latitudes = new double[capacite];
+		longitudes = new double[capacite];
+		datesCapture = new long[capacite];
+		marques = new int[capacite];
+		modeles = new int[capacite];
+		objectifs = new int[capacite];
+		isos = new int[capacite];
+		focales = new double[capacite];
+		expositions = new double[capacite];
+		motsClesLignes = new int[capacite][];
+		termesLignes = new int[capacite][];
+	}
+
+	private void copierLigne(Catalogue source, int depuis, int vers) {
+		latitudes[vers] = source.latitudes[depuis];
+		longitudes[vers] = source.longitudes[depuis];
+		datesCapture[vers] = source.datesCapture[depuis];
+		marques[vers] = source.marques[depuis];
+		modeles[vers] = source.modeles[depuis];
+		objectifs[vers] = source.objectifs[depuis];
+		isos[vers] = source.isos[depuis];
+		focales[vers] = source.focales[depuis];
+		expositions[vers] = source.expositions[depuis];
+		motsClesLignes[vers] = Arrays.copyOfRange(source.motsCles, source.debutsMotsCles[depuis], source.debutsMotsCles[depuis + 1]);
+		termesLignes[vers] = Arrays.copyOfRange(source.termes, source.debutsTermes[depuis], source.debutsTermes[depuis + 1]);
+	}
+
+	private void viderLigne(int ligne) {
+		latitudes[ligne] = Double.NaN;
+		longitudes[ligne] = Double.NaN;
+		datesCapture[ligne] = DateCapture.ABSENTE;
+		marques[ligne] = Dictionnaire.ABSENT;
+		modeles[ligne] = Dictionnaire.ABSENT;
+		objectifs[ligne] = Dictionnaire.ABSENT;
+		isos[ligne] = -1;
+		focales[ligne] = Double.NaN;
+		expositions[ligne] = Double.NaN;
+		motsClesLignes[ligne] = new int[0];
+		termesLignes[ligne] = new int[0];
+	}
+
+	private void remplirLigne(int ligne, Metadonnees m) {
+		latitudes[ligne] = m.getLatitude();
+		longitudes[ligne] = m.getLongitude();
+		datesCapture[ligne] = m.getDateCapture();
+		marques[ligne] = dictionnaireMarques.coder(m.getMarque());
+		modeles[ligne] = dictionnaireModeles.coder(m.getModele());
+		objectifs[ligne] = dictionnaireObjectifs.coder(m.getObjectif());
+		isos[ligne] = m.getIso() != null ? m.getIso() : -1;
+		focales[ligne] = m.getFocale();
+		expositions[ligne] = m.getExposition();
+		motsClesLignes[ligne] = coder(dictionnaireMotsCles, m.getMotsCles());
+		List<String> texte = new ArrayList<>(IndexTexte.termes(m.getTitre()));
+		texte.addAll(IndexTexte.termes(m.getDescription()));
+		texte.addAll(IndexTexte.termes(m.getCreateur()));
+		termesLignes[ligne] = coder(dictionnaireTermes, texte);
+	}
+
+	/**
+	 * @return les codes distincts des valeurs, ajoutées au dictionnaire si elles sont nouvelles
+	 */
+	private static int[] coder(Dictionnaire dictionnaire, List<String> valeurs) {
+		int[] codes = new int[valeurs.size()];
+		int n = 0;
+		for (String valeur : valeurs) {
+			int code = dictionnaire.coder(valeur);
+			boolean nouveau = code != Dictionnaire.ABSENT;
+			for (int k = 0; k < n && nouveau; k++) {
+				nouveau = codes[k] != code;
+			}
+			if (nouveau) {
+				codes[n++] = code;
+			}
+		}
+		return n == codes.length ? codes : Arrays.copyOf(codes, n);
+	}
+
+	/**
+	 * Met bout à bout les codes des mots-clés et des termes de chaque ligne.
+	 */
+	private void compacter() {
+		debutsMotsCles = debuts(motsClesLignes, taille);
+		motsCles = valeurs(motsClesLignes, debutsMotsCles, taille);
+		debutsTermes = debuts(termesLignes, taille);
+		termes = valeurs(termesLignes, debutsTermes, taille);
+		motsClesLignes = null;
+		termesLignes = null;
+	}
+
+	private static int[] debuts(int[][] lignes, int taille) {
+		int[] debuts = new int[taille + 1];
+		for (int i = 0; i < taille; i++) {
+			debuts[i + 1] = debuts[i] + lignes[i].length;
+		}
+		return debuts;
+	}
+
+	private static int[] valeurs(int[][] lignes, int[] debuts, int taille) {
+		int[] valeurs = new int[debuts[taille]];
+		for (int i = 0; i < taille; i++) {
+			System.arraycopy(lignes[i], 0, valeurs, debuts[i], lignes[i].length);
+		}
+		return valeurs;
+	}
+
+	/**
+	 * @return le fichier du catalogue d'un répertoire
+	 */
+	private static File fichier(File d) {
+		return new File(new File(d, "SnapShot"), NOM_FICHIER);
+	}
+
+	/**
+	 * Charge le catalogue enregistré d'un répertoire.
+	 *
+	 * @return le catalogue, ou {@code null} s'il est absent, illisible ou d'une version antérieure
+	 */
+	private static Catalogue charger(File d) {
+		File f = fichier(d);
+		if (!f.isFile()) {
+			return null;
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(f))) {
+			Catalogue catalogue = (Catalogue) ois.readObject();
+			return catalogue.racine.equals(d.getAbsolutePath()) ? catalogue : null;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// Catalogue d'une autre version ou endommagé : il sera reconstruit
+			return null;
+		}
+	}
+
+	private void enregistrer(File d) {
+		File f = fichier(d);
+		File dossier = f.getParentFile();
+		if (!dossier.isDirectory() && !dossier.mkdir()) {
+			System.err.println("Erreur : impossible de créer le dossier " + dossier.getPath() + ", le catalogue n'est pas enregistré.");
+			return;
+		}
+		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(f))) {
+			oos.writeObject(this);
+		} catch (IOException e) {
+			System.err.println("Erreur d'entrée/sortie : " + e.getMessage());
+		}
+	}
+}
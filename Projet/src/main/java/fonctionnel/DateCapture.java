@@ -0,0 +1,130 @@
+package fonctionnel;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Conversion des dates de prise de vue en nombre de millisecondes.
+ * <p>
+ * Les dates EXIF ne précisent généralement pas de fuseau horaire : elles sont conservées telles qu'affichées
+ * par l'appareil, comptées en millisecondes depuis le 01/01/1970 00:00:00 comme si elles étaient en UTC.
+ * Les dates saisies par l'utilisateur sont converties de la même façon, si bien que les comparaisons
+ * ne dépendent pas du fuseau de la machine.
+ */
+public final class DateCapture {
+	/**
+	 * Valeur d'une date de prise de vue absente ou illisible.
+	 */
+	public static final long ABSENTE = Long.MIN_VALUE;
+
+	private static final DateTimeFormatter ISO = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private DateCapture() {
+	}
+
+	/**
+	 * Convertit une date EXIF ({@code AAAA:MM:JJ HH:mm:ss}).
+	 *
+	 * @param exif la date lue dans l'EXIF, éventuellement {@code null}
+	 * @return la date en millisecondes, {@link #ABSENTE} si elle est illisible ou nulle (0000:00:00 ...)
+	 */
+	public static long depuisExif(String exif) {
+		if (exif == null || exif.length() < 19) {
+			return ABSENTE;
+		}
+		return millis(exif, 0, 5, 8, 11, 14, 17);
+	}
+
+	/**
+	 * Convertit une date XMP au format ISO 8601 ({@code AAAA-MM-JJ}, {@code AAAA-MM-JJTHH:mm},
+	 * {@code AAAA-MM-JJTHH:mm:ss}, suivis éventuellement de fractions de seconde et d'un fuseau, ignorés).
+	 *
+	 * @param xmp la date lue dans le XMP, éventuellement {@code null}
+	 * @return la date en millisecondes, {@link #ABSENTE} si elle est illisible
+	 */
+	public static long depuisXmp(String xmp) {
+		if (xmp == null) {
+			return ABSENTE;
+		}
+		xmp = xmp.trim();
+		if (xmp.length() == 10) {
+			return millis(xmp + "T00:00:00", 0, 5, 8, 11, 14, 17);
+		}
+		if (xmp.length() >= 16 && (xmp.length() < 19 || xmp.charAt(16) != ':')) {
+			return millis(xmp.substring(0, 16) + ":00", 0, 5, 8, 11, 14, 17);
+		}
+		if (xmp.length() < 19) {
+			return ABSENTE;
+		}
+		return millis(xmp, 0, 5, 8, 11, 14, 17);
+	}
+
+	/**
+	 * Convertit une date saisie par l'utilisateur ({@code JJ/MM/AAAA HH:mm:ss}, voir {@link Repertoire#IsDate(String)}).
+	 *
+	 * @param saisie la date saisie
+	 * @return la date en millisecondes, {@link #ABSENTE} si elle est invalide
+	 */
+	public static long depuisSaisie(String saisie) {
+		if (saisie == null || !Repertoire.IsDate(saisie)) {
+			return ABSENTE;
+		}
+		return millis(saisie, 6, 3, 0, 11, 14, 17);
+	}
+
+	/**
+	 * Formate une date de prise de vue au format ISO 8601 sans fuseau.
+	 *
+	 * @param millis la date en millisecondes
+	 * @return la date formatée, ou {@code null} si elle est absente
+	 */
+	public static String formater(long millis) {
+		if (millis == ABSENTE) {
+			return null;
+		}
+		return ISO.format(LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), 0, ZoneOffset.UTC));
+	}
+
+	/**
+	 * Lit les champs numériques d'une date aux positions indiquées (année sur 4 chiffres, les autres sur 2).
+	 */
+	private static long millis(String s, int annee, int mois, int jour, int heure, int minute, int seconde) {
+		int a = nombre(s, annee, 4);
+		int mo = nombre(s, mois, 2);
+		int j = nombre(s, jour, 2);
+		int h = nombre(s, heure, 2);
+		int mi = nombre(s, minute, 2);
+		int se = nombre(s, seconde, 2);
+		if (a <= 0 || mo <= 0 || j <= 0 || h < 0 || mi < 0 || se < 0) {
+			return ABSENTE;
+		}
+		try {
+			return LocalDateTime.of(a, mo, j, h, mi, se).toEpochSecond(ZoneOffset.UTC) * 1000L;
+		} catch (DateTimeException e) {
+			return ABSENTE;
+		}
+	}
+
+	/**
+	 * @return l'entier écrit sur {@code n} chiffres à partir de {@code debut}, -1 si un caractère n'est pas un chiffre
+	 */
+	private static int nombre(String s, int debut, int n) {
+		if (debut + n > s.length()) {
+			return -1;
+		}
+		int valeur = 0;
+		for (int i = debut; i < debut + n; i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			valeur = valeur * 10 + (c - '0');
+		}
+		return valeur;
+	}
+}
@@ -0,0 +1,80 @@
+package fonctionnel;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Dictionnaire d'une colonne de texte à faible cardinalité (marque, modèle, objectif) :
+ * chaque valeur distincte reçoit un code entier, et la colonne ne stocke que les codes.
+ * <p>
+ * Les valeurs sont comparées sans tenir compte de la casse ni des espaces de début et de fin ;
+ * la première orthographe rencontrée est conservée pour l'affichage.
+ */
+public class Dictionnaire implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Code d'une valeur absente.
+	 */
+	public static final int ABSENT = -1;
+
+	private final ArrayList<String> valeurs = new ArrayList<>();
+	private final HashMap<String, Integer> codes = new HashMap<>();
+
+	/**
+	 * Retourne le code d'une valeur, en l'ajoutant au dictionnaire si elle est nouvelle.
+	 *
+	 * @param valeur la valeur, éventuellement {@code null}
+	 * @return le code de la valeur, {@link #ABSENT} si elle est nulle ou vide
+	 */
+	public int coder(String valeur) {
+		String cle = normaliser(valeur);
+		if (cle == null) {
+			return ABSENT;
+		}
+		Integer code = codes.get(cle);
+		if (code == null) {
+			code = valeurs.size();
+			valeurs.add(valeur.trim());
+			codes.put(cle, code);
+		}
+		return code;
+	}
+
+	/**
+	 * Retourne le code d'une valeur sans modifier le dictionnaire.
+	 *
+	 * @param valeur la valeur recherchée
+	 * @return le code de la valeur, {@link #ABSENT} si elle n'a jamais été rencontrée
+	 */
+	public int chercher(String valeur) {
+		String cle = normaliser(valeur);
+		Integer code = cle == null ? null : codes.get(cle);
+		return code == null ? ABSENT : code;
+	}
+
+	/**
+	 * @param code un code du dictionnaire
+	 * @return la valeur correspondante, ou {@code null} pour {@link #ABSENT}
+	 */
+	public String valeur(int code) {
+		return code == ABSENT ? null : valeurs.get(code);
+	}
+
+	/**
+	 * @return le nombre de valeurs distinctes
+	 */
+	public int taille() {
+		return valeurs.size();
+	}
+
+	private static String normaliser(String valeur) {
+		if (valeur == null) {
+			return null;
+		}
+		String cle = valeur.trim().toLowerCase(Locale.ROOT);
+		return cle.isEmpty() ? null : cle;
+	}
+}
@@ -0,0 +1,192 @@
+package fonctionnel;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Écriture des métadonnées typées au format JSON Lines (un objet par ligne) ou CSV.
+ * <p>
+ * Chaque image est écrite champ par champ directement dans le flux de sortie, sans construire
+ * de texte intermédiaire : un export de millions d'images se fait en mémoire constante
+ * et peut être redirigé vers d'autres outils.
+ */
+public class EcrivainMetadonnees {
+	/**
+	 * Formats de sortie disponibles.
+	 */
+	public enum Format {
+		/** Un objet JSON par ligne. */
+		JSONL,
+		/** Valeurs séparées par des virgules, précédées d'une ligne d'en-tête. */
+		CSV
+	}
+
+	private static final String[] COLONNES = {"chemin", "erreur", "dpiX", "dpiY", "largeur", "hauteur", "latitude", "longitude", "dateCapture",
+			"marque", "modele", "objectif", "iso", "focale", "exposition", "titre", "description", "createur"};
+
+	private final Writer sortie;
+	private final Format format;
+	private boolean enteteEcrit;
+
+	/**
+	 * Constructeur de l'écrivain.
+	 *
+	 * @param sortie le flux de sortie, de préférence tamponné
+	 * @param format le format des lignes écrites
+	 */
+	public EcrivainMetadonnees(Writer sortie, Format format) {
+		this.sortie = sortie;
+		this.format = format;
+	}
+
+	/**
+	 * Écrit la ligne d'un résultat d'extraction par lots.
+	 *
+	 * @param resultat le résultat à écrire
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void ecrire(ResultatExtraction resultat) throws IOException {
+		Exception erreur = resultat.getErreur();
+		ecrire(resultat.getChemin().toString(), resultat.estErreur() ? null : resultat.getImage(),
+				erreur == null ? null : String.valueOf(erreur.getMessage()));
+	}
+
+	/**
+	 * Écrit la ligne d'une image. Les dimensions sont les dimensions réelles lues dans l'en-tête du fichier
+	 * (voir {@link Image#largeur()}), les autres colonnes viennent des métadonnées.
+	 *
+	 * @param chemin le chemin du fichier
+	 * @param image  l'image, dont les métadonnées peuvent être en échec
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void ecrire(String chemin, Image image) throws IOException {
+		Metadonnees metadonnees = image.getMetadonnees();
+		ecrire(chemin, metadonnees.estEchec() ? null : image, metadonnees.estEchec() ? String.valueOf(metadonnees.getErreur()) : null);
+	}
+
+	/**
+	 * Vide le tampon du flux de sortie.
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void vider() throws IOException {
+		sortie.flush();
+	}
+
+	private void ecrire(String chemin, Image image, String erreur) throws IOException {
+		Metadonnees m = image == null ? null : image.getMetadonnees();
+		if (format == Format.CSV && !enteteEcrit) {
+			for (int i = 0; i < COLONNES.length; i++) {
+				if (i > 0) {
+					sortie.write(',');
+				}
+				sortie.write(COLONNES[i]);
+			}
+			sortie.write('\n');
+			enteteEcrit = true;
+		}
+		if (format == Format.JSONL) {
+			sortie.write('{');
+		}
+		texte(0, chemin);
+		texte(1, erreur);
+		nombre(2, m == null ? null : m.getDpiX());
+		nombre(3, m == null ? null : m.getDpiY());
+		nombre(4, image == null ? null : dimension(image.largeur()));
+		nombre(5, image == null ? null : dimension(image.hauteur()));
+		decimal(6, m == null ? Double.NaN : m.getLatitude());
+		decimal(7, m == null ? Double.NaN : m.getLongitude());
+		texte(8, m == null ? null : DateCapture.formater(m.getDateCapture()));
+		texte(9, m == null ? null : m.getMarque());
+		texte(10, m == null ? null : m.getModele());
+		texte(11, m == null ? null : m.getObjectif());
+		nombre(12, m == null ? null : m.getIso());
+		decimal(13, m == null ? Double.NaN : m.getFocale());
+		decimal(14, m == null ? Double.NaN : m.getExposition());
+		texte(15, m == null ? null : m.getTitre());
+		texte(16, m == null ? null : m.getDescription());
+		texte(17, m == null ? null : m.getCreateur());
+		if (format == Format.JSONL) {
+			sortie.write('}');
+		}
+		sortie.write('\n');
+	}
+
+	/**
+	 * Écrit le séparateur et, en JSON, le nom de la colonne {@code i}.
+	 */
+	private void debutChamp(int i) throws IOException {
+		if (format == Format.JSONL) {
+			if (i > 0) {
+				sortie.write(',');
+			}
+			sortie.write('"');
+			sortie.write(COLONNES[i]);
+			sortie.write("\":");
+		} else if (i > 0) {
+			sortie.write(',');
+		}
+	}
+
+	private void nombre(int i, Integer valeur) throws IOException {
+		debutChamp(i);
+		if (valeur != null) {
+			sortie.write(Integer.toString(valeur));
+		} else if (format == Format.JSONL) {
+			sortie.write("null");
+		}
+	}
+
+	/**
+	 * @return la dimension, ou {@code null} si elle n'a pas pu être lue (-1)
+	 */
+	private static Integer dimension(int pixels) {
+		return pixels > 0 ? Integer.valueOf(pixels) : null;
+	}
+
+	private void decimal(int i, double valeur) throws IOException {
+		debutChamp(i);
+		if (!Double.isNaN(valeur)) {
+			sortie.write(Double.toString(valeur));
+		} else if (format == Format.JSONL) {
+			sortie.write("null");
+		}
+	}
+
+	private void texte(int i, String valeur) throws IOException {
+		debutChamp(i);
+		if (valeur == null) {
+			if (format == Format.JSONL) {
+				sortie.write("null");
+			}
+			return;
+		}
+		sortie.write('"');
+		for (int k = 0; k < valeur.length(); k++) {
+			char c = valeur.charAt(k);
+			if (format == Format.CSV) {
+				// En CSV, seul le guillemet est doublé ; les retours à la ligne restent dans le champ entre guillemets
+				if (c == '"') {
+					sortie.write('"');
+				}
+				sortie.write(c);
+			} else if (c == '"' || c == '\\') {
+				sortie.write('\\');
+				sortie.write(c);
+			} else if (c == '\n') {
+				sortie.write("\\n");
+			} else if (c == '\r') {
+				sortie.write("\\r");
+			} else if (c == '\t') {
+				sortie.write("\\t");
+			} else if (c < 0x20) {
+				sortie.write("\\u00");
+				sortie.write(Character.forDigit(c >> 4, 16));
+				sortie.write(Character.forDigit(c & 0xF, 16));
+			} else {
+				sortie.write(c);
+			}
+		}
+		sortie.write('"');
+	}
+}
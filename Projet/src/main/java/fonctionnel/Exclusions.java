@@ -0,0 +1,289 @@
+package fonctionnel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Règles d'exclusion des dossiers parcourus par les recherches (voir {@link Parcours}).
+ * <p>
+ * Les règles sont des motifs glob : {@code *} et {@code ?} dans un nom, {@code **} sur plusieurs dossiers,
+ * {@code [abc]} et {@code {a,b}}. Un motif sans {@code /} désigne un nom de dossier à toute profondeur ;
+ * un motif avec {@code /} désigne un chemin relatif au dossier de départ du parcours.
+ * Elles proviennent de {@link #MOTIFS_DEFAUT}, des options de la ligne de commande et du fichier
+ * {@value #FICHIER_IGNORE} du dossier de départ, s'il existe.
+ * <p>
+ * Les règles sont compilées une fois par parcours : les noms exacts dans un ensemble de hachage, les autres motifs
+ * en une seule expression régulière. Chaque sous-dossier est testé une fois, au moment où il est rencontré,
+ * si bien qu'un dossier exclu n'est jamais listé.
+ */
+public final class Exclusions {
+	/**
+	 * Motifs exclus par défaut : instantanés et catalogue, dépôts de gestion de versions, dépendances,
+	 * caches et copies de sauvegarde.
+	 */
+	public static final List<String> MOTIFS_DEFAUT = Arrays.asList(
+			"*SnapShot*", ".git", ".svn", ".hg", "node_modules", "__pycache__", ".cache", "*.bak", "*~");
+	/**
+	 * Nom du fichier de motifs lu dans le dossier de départ d'un parcours.
+	 */
+	public static final String FICHIER_IGNORE = ".extracteurignore";
+
+	private static final Set<String> MOTIFS = new LinkedHashSet<>(MOTIFS_DEFAUT);
+
+	/**
+	 * Noms de dossiers exclus tels quels.
+	 */
+	private final Set<String> noms = new HashSet<>();
+	/**
+	 * Motifs de noms, réunis en une seule expression, ou {@code null}.
+	 */
+	private final Pattern motifsNoms;
+	/**
+	 * Motifs de chemins, ancrés au dossier de départ, ou {@code null}.
+	 */
+	private final Pattern motifsChemins;
+
+	private Exclusions(String racine, Iterable<String> motifs) {
+		StringBuilder noms = new StringBuilder();
+		StringBuilder chemins = new StringBuilder();
+		for (String motif : motifs) {
+			if (motif.indexOf('/') >= 0) {
+				ajouterAlternative(chemins, expression(motif.startsWith("/") ? motif.substring(1) : motif));
+			} else if (!estGlob(motif)) {
+				this.noms.add(motif);
+			} else {
+				ajouterAlternative(noms, expression(motif));
+			}
+		}
+		this.motifsNoms = noms.length() == 0 ? null : Pattern.compile(noms.toString());
+		String prefixe = racine.endsWith(File.separator) ? racine : racine + File.separator;
+		this.motifsChemins = chemins.length() == 0 ? null
+				: Pattern.compile(Pattern.quote(prefixe.replace(File.separatorChar, '/')) + "(?:" + chemins + ")");
+	}
+
+	/**
+	 * Ajoute un motif d'exclusion, ou retire un motif déjà présent s'il est précédé de {@code !}
+	 * (par exemple {@code !node_modules} pour parcourir les dépendances).
+	 *
+	 * @param motif le motif glob
+	 */
+	public static synchronized void ajouter(String motif) {
+		appliquer(normaliser(motif), MOTIFS);
+	}
+
+	/**
+	 * Découpe une liste de motifs séparés par des virgules, comme celle de l'option {@code --exclure}.
+	 * Les virgules placées entre accolades ({@code *.{tmp,bak}}) ou précédées de {@code \} font partie du motif.
+	 *
+	 * @param liste les motifs séparés par des virgules
+	 * @return les motifs, dans l'ordre de la liste
+	 */
+	public static List<String> decouper(String liste) {
+		List<String> motifs = new ArrayList<>();
+		int accolades = 0;
+		int debut = 0;
+		for (int i = 0; i < liste.length(); i++) {
+			char c = liste.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '{') {
+				accolades++;
+			} else if (c == '}' && accolades > 0) {
+				accolades--;
+			} else if (c == ',' && accolades == 0) {
+				motifs.add(liste.substring(debut, i));
+				debut = i + 1;
+			}
+		}
+		motifs.add(liste.substring(debut));
+		return motifs;
+	}
+
+	/**
+	 * Ajoute les motifs d'un fichier : un motif par ligne, les lignes vides et celles commençant par {@code #} sont ignorées.
+	 *
+	 * @param f le fichier de motifs
+	 * @return false si le fichier n'a pas pu être lu, un message d'erreur ayant alors été affiché
+	 */
+	public static synchronized boolean charger(File f) {
+		try {
+			lire(f, MOTIFS);
+			return true;
+		} catch (IOException e) {
+			System.out.println("Erreur lors de la lecture du fichier d'exclusions : " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * @return les motifs d'exclusion en vigueur, hors fichiers {@value #FICHIER_IGNORE}
+	 */
+	public static synchronized List<String> motifs() {
+		return new ArrayList<>(MOTIFS);
+	}
+
+	/**
+	 * Compile les règles d'un parcours : les motifs en vigueur et ceux du fichier {@value #FICHIER_IGNORE}
+	 * du dossier de départ.
+	 *
+	 * @param racine le dossier de départ du parcours
+	 * @return les règles compilées
+	 */
+	public static Exclusions pour(File racine) {
+		Set<String> motifs = new LinkedHashSet<>(motifs());
+		File ignore = new File(racine, FICHIER_IGNORE);
+		if (ignore.isFile()) {
+			try {
+				lire(ignore, motifs);
+			} catch (IOException e) {
+				System.out.println("Erreur lors de la lecture de " + ignore.getPath() + " : " + e.getMessage());
+			}
+		}
+		return new Exclusions(racine.toPath().toString(), motifs);
+	}
+
+	/**
+	 * Indique si un dossier est exclu du parcours.
+	 *
+	 * @param dossier le dossier rencontré pendant le parcours
+	 * @return true si son nom ou son chemin correspond à une règle
+	 */
+	public boolean exclut(Fichier dossier) {
+		String nom = dossier.get_Nom();
+		if (noms.contains(nom) || (motifsNoms != null && motifsNoms.matcher(nom).matches())) {
+			return true;
+		}
+		return motifsChemins != null
+				&& motifsChemins.matcher(dossier.get_File().getPath().replace(File.separatorChar, '/')).matches();
+	}
+
+	/**
+	 * @return le critère des dossiers à parcourir, à transmettre à {@link Parcours}
+	 */
+	public Predicate<Fichier> parcourus() {
+		return d -> !exclut(d);
+	}
+
+	private static void lire(File f, Set<String> motifs) throws IOException {
+		for (String ligne : Files.readAllLines(f.toPath(), StandardCharsets.UTF_8)) {
+			String motif = normaliser(ligne);
+			if (!motif.startsWith("#")) {
+				appliquer(motif, motifs);
+			}
+		}
+	}
+
+	private static void appliquer(String motif, Set<String> motifs) {
+		if (motif.startsWith("!")) {
+			motifs.remove(normaliser(motif.substring(1)));
+		} else if (!motif.isEmpty()) {
+			motifs.add(motif);
+		}
+	}
+
+	/**
+	 * Retire les espaces autour d'un motif et la barre finale qui désigne un dossier.
+	 */
+	private static String normaliser(String motif) {
+		String m = motif.trim();
+		while (m.length() > 1 && m.endsWith("/")) {
+			m = m.substring(0, m.length() - 1);
+		}
+		return m;
+	}
+
+	private static boolean estGlob(String motif) {
+		for (int i = 0; i < motif.length(); i++) {
+			if ("*?[{\\".indexOf(motif.charAt(i)) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void ajouterAlternative(StringBuilder alternatives, String expression) {
+		if (alternatives.length() > 0) {
+			alternatives.append('|');
+		}
+		alternatives.append("(?:").append(expression).append(')');
+	}
+
+	/**
+	 * Traduit un motif glob en expression régulière.
+	 */
+	static String expression(String glob) {
+		StringBuilder regex = new StringBuilder();
+		boolean dansAccolades = false;
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+			switch (c) {
+				case '*':
+					if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+						// "**/" désigne zéro, un ou plusieurs dossiers
+						boolean dossiers = i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+						regex.append(dossiers ? "(?:.*/)?" : ".*");
+						i += dossiers ? 2 : 1;
+					} else {
+						regex.append("[^/]*");
+					}
+					break;
+				case '?':
+					regex.append("[^/]");
+					break;
+				case '[':
+					int fin = glob.indexOf(']', i + 2);
+					if (fin < 0) {
+						regex.append("\\[");
+					} else {
+						String classe = glob.substring(i + 1, fin);
+						if (classe.startsWith("!")) {
+							classe = "^" + classe.substring(1);
+						}
+						regex.append('[').append(classe.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+						i = fin;
+					}
+					break;
+				case '{':
+					dansAccolades = true;
+					regex.append("(?:");
+					break;
+				case '}':
+					if (dansAccolades) {
+						dansAccolades = false;
+						regex.append(')');
+					} else {
+						regex.append("\\}");
+					}
+					break;
+				case ',':
+					regex.append(dansAccolades ? "|" : ",");
+					break;
+				case '\\':
+					if (i + 1 < glob.length()) {
+						i++;
+						regex.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+					}
+					break;
+				default:
+					if ("().+^$|".indexOf(c) >= 0) {
+						regex.append('\\');
+					}
+					regex.append(c);
+			}
+		}
+		if (dansAccolades) {
+			regex.append(')');
+		}
+		return regex.toString();
+	}
+}
@@ -0,0 +1,228 @@
+package fonctionnel;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Extraction des métadonnées d'un grand nombre d'images sur un exécuteur.
+ * <p>
+ * Au plus {@code fenetre} fichiers sont en cours de traitement à la fois : une nouvelle tâche n'est soumise
+ * que lorsqu'un résultat est récupéré, ce qui borne la mémoire et le nombre de fichiers ouverts.
+ * Les résultats sont rendus dans l'ordre où les extractions se terminent.
+ */
+public class ExtractionParLots {
+	private static ExtractionParLots parDefaut;
+
+	private final ExecutorService executeur;
+	private final int fenetre;
+	/**
+	 * Jetons de fichiers ouverts propres à ce traitement, {@code null} pour les jetons partagés de {@link Image}.
+	 */
+	private final Semaphore jetons;
+
+	/**
+	 * Constructeur d'un traitement par lots.
+	 *
+	 * @param executeur l'exécuteur sur lequel lancer les extractions
+	 * @param fenetre   le nombre maximal d'extractions en cours à la fois
+	 */
+	public ExtractionParLots(ExecutorService executeur, int fenetre) {
+		this(executeur, fenetre, null);
+	}
+
+	private ExtractionParLots(ExecutorService executeur, int fenetre, Semaphore jetons) {
+		if (fenetre < 1) {
+			throw new IllegalArgumentException("La fenêtre doit contenir au moins une extraction");
+		}
+		this.executeur = executeur;
+		this.fenetre = fenetre;
+		this.jetons = jetons;
+	}
+
+	/**
+	 * Retourne le traitement par défaut : un fil système par processeur, sauf s'il a été remplacé
+	 * par {@link #setParDefaut(ExtractionParLots)}.
+	 *
+	 * @return le traitement par lots partagé
+	 */
+	public static synchronized ExtractionParLots parDefaut() {
+		if (parDefaut == null) {
+			parDefaut = plateforme(Runtime.getRuntime().availableProcessors());
+		}
+		return parDefaut;
+	}
+
+	/**
+	 * Construit un traitement sur un groupe fixe de fils système, avec une fenêtre de quatre extractions par fil.
+	 * Les fils sont des démons pour ne pas retenir la fin du programme.
+	 *
+	 * @param fils le nombre de fils
+	 * @return le traitement par lots
+	 */
+	public static ExtractionParLots plateforme(int fils) {
+		fils = Math.max(1, fils);
+		ExecutorService executeur = Executors.newFixedThreadPool(fils, r -> {
+			Thread t = new Thread(r, "extraction-metadonnees");
+			t.setDaemon(true);
+			return t;
+		});
+		return new ExtractionParLots(executeur, 4 * fils);
+	}
+
+	/**
+	 * Construit un traitement qui lance chaque extraction sur un fil virtuel (Java 21 et suivants).
+	 * Le nombre de fichiers ouverts simultanément est borné par des jetons propres à ce traitement
+	 * plutôt que par le nombre de fils ; la limite partagée de {@link Image#setMaxFichiersOuverts(int)}
+	 * n'est pas modifiée. Sur une JVM sans fils virtuels, un groupe de fils système est utilisé.
+	 * <p>
+	 * Seules les extractions passent sur des fils virtuels : le parcours des dossiers qui fournit les chemins
+	 * reste sur le groupe fork/join de {@link Parcours}. Ce parcours découpe l'arborescence en tâches
+	 * qui se partagent le travail, et les fils virtuels s'exécutent eux-mêmes sur un groupe fork/join
+	 * d'un fil par processeur : ils n'y ajouteraient pas de parallélisme. L'exécuteur à fils virtuels est obtenu
+	 * par réflexion pour que les sources restent compilables avec {@code --release 8}.
+	 *
+	 * @param simultanes le nombre maximal de lectures simultanées
+	 * @return le traitement par lots
+	 */
+	public static ExtractionParLots virtuel(int simultanes) {
+		simultanes = Math.max(1, simultanes);
+		ExecutorService executeur = executeurVirtuel();
+		if (executeur == null) {
+			System.err.println("Avertissement : fils virtuels indisponibles sur cette JVM, utilisation de fils système.");
+			return plateforme(Runtime.getRuntime().availableProcessors());
+		}
+		// Fenêtre plus large que la limite : les tâches en attente de jeton ne coûtent qu'un fil virtuel
+		return new ExtractionParLots(executeur, 4 * simultanes, new Semaphore(simultanes));
+	}
+
+	/**
+	 * Recherche par réflexion {@code Executors.newVirtualThreadPerTaskExecutor()}, absent avant Java 21.
+	 *
+	 * @return l'exécuteur à fils virtuels, ou {@code null} s'il n'existe pas
+	 */
+	private static ExecutorService executeurVirtuel() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Remplace le traitement par lots utilisé par {@link #parDefaut()}.
+	 * L'exécuteur de l'ancien traitement est arrêté : les extractions déjà soumises se terminent,
+	 * puis ses fils sont libérés.
+	 *
+	 * @param lots le nouveau traitement par défaut
+	 */
+	public static synchronized void setParDefaut(ExtractionParLots lots) {
+		if (parDefaut != null && (lots == null || parDefaut.executeur != lots.executeur)) {
+			parDefaut.executeur.shutdown();
+		}
+		parDefaut = lots;
+	}
+
+	/**
+	 * Lance l'extraction des métadonnées de chaque fichier.
+	 * Les extractions sont soumises au fur et à mesure du parcours du résultat.
+	 *
+	 * @param chemins les fichiers à traiter
+	 * @param profil  les blocs de métadonnées à extraire
+	 * @return un itérateur des résultats, dans l'ordre de fin des extractions
+	 */
+	public Iterator<ResultatExtraction> extraire(Collection<Path> chemins, ProfilExtraction profil) {
+		return new Resultats(chemins.iterator(), profil);
+	}
+
+	/**
+	 * Lance l'extraction des métadonnées de chaque fichier rendu par un itérateur, par exemple celui
+	 * d'un parcours paresseux ({@link Parcours#flux(java.io.File, java.util.function.Predicate)}) : l'itérateur n'est avancé que
+	 * lorsqu'une place se libère dans la fenêtre, si bien que la liste des fichiers n'est jamais construite.
+	 *
+	 * @param chemins les fichiers à traiter
+	 * @param profil  les blocs de métadonnées à extraire
+	 * @return un itérateur des résultats, dans l'ordre de fin des extractions
+	 */
+	public Iterator<ResultatExtraction> extraire(Iterator<Path> chemins, ProfilExtraction profil) {
+		return new Resultats(chemins, profil);
+	}
+
+	/**
+	 * Extraction d'un seul fichier : toute erreur est rattachée au résultat du fichier.
+	 * Avec le bloc EXIF, les dimensions réelles sont aussi lues dans l'en-tête sur ce fil,
+	 * pour que l'appelant n'ait plus à ouvrir le fichier.
+	 */
+	private ResultatExtraction traiter(Path chemin, ProfilExtraction profil) {
+		try {
+			Image image = new Image(chemin.toFile(), profil, jetons);
+			if (profil.contient(ProfilExtraction.Bloc.EXIF)) {
+				image.aDimensions();
+			}
+			Metadonnees metadonnees = image.getMetadonnees();
+			return new ResultatExtraction(chemin, image, metadonnees.estEchec() ? metadonnees.getCause() : null);
+		} catch (RuntimeException e) {
+			return new ResultatExtraction(chemin, null, e);
+		}
+	}
+
+	/**
+	 * Itérateur qui maintient au plus {@code fenetre} extractions soumises et non récupérées.
+	 */
+	private class Resultats implements Iterator<ResultatExtraction> {
+		private final Iterator<Path> restants;
+		private final ProfilExtraction profil;
+		private final CompletionService<ResultatExtraction> termines = new ExecutorCompletionService<>(executeur);
+		private int enCours;
+
+		Resultats(Iterator<Path> chemins, ProfilExtraction profil) {
+			this.restants = chemins;
+			this.profil = profil;
+			while (enCours < fenetre && soumettre()) {
+				// Remplissage initial de la fenêtre
+			}
+		}
+
+		private boolean soumettre() {
+			if (!restants.hasNext()) {
+				return false;
+			}
+			Path chemin = restants.next();
+			termines.submit(() -> traiter(chemin, profil));
+			enCours++;
+			return true;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return enCours > 0;
+		}
+
+		@Override
+		public ResultatExtraction next() {
+			if (enCours == 0) {
+				throw new NoSuchElementException();
+			}
+			try {
+				Future<ResultatExtraction> termine = termines.take();
+				enCours--;
+				soumettre();
+				return termine.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Extraction par lots interrompue", e);
+			} catch (ExecutionException e) {
+				// traiter() rattache déjà les exceptions au résultat : seules des erreurs graves arrivent ici
+				throw new IllegalStateException("Échec de l'extraction par lots", e.getCause());
+			}
+		}
+	}
+}
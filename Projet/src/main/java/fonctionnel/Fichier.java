@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -15,6 +16,11 @@ import java.io.Serializable;
  */
 public class Fichier implements Serializable{
 	/**
+	 * Valeur calculée sur la version d'origine de la classe : les instantanés déjà enregistrés restent lisibles
+	 * malgré les champs ajoutés depuis.
+	 */
+	private static final long serialVersionUID = -8172387579279759499L;
+	/**
      * Le chemin absolu du fichier.
      */
 	private String chemin;
@@ -22,21 +28,79 @@ public class Fichier implements Serializable{
      * La date de dernière modification du fichier en millisecondes depuis l'époque Unix (01/01/1970).
      */
 	private long modif;
+	/**
+     * La date de création du fichier en millisecondes depuis l'époque Unix.
+     */
+	private long creation;
+	/**
+     * La taille du fichier en octets.
+     */
+	private long taille;
+	/**
+     * Type de l'entrée, lu avec les autres attributs.
+     */
+	private boolean dossier;
+	private boolean regulier;
+	/**
+     * Identifiant du fichier dans son système de fichiers (inode), {@code null} s'il n'est pas disponible.
+     * Il n'est pas conservé dans les instantanés.
+     */
+	private transient Object cle;
+	private File fich;
+	/**
+     * Dimensions de l'image, lues à la première demande par {@link #aDimensions()} puis réutilisées
+     * par tous les critères qui évaluent ce fichier ; -1 si elles sont inconnues.
+     */
+	private transient int largeur;
+	private transient int hauteur;
+	private transient volatile boolean dimensionsLues;
+
+	/**
+	 * Format des dates de création manipulées par les recherches.
+	 */
+	private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss").withZone(ZoneId.systemDefault());
+
 	/**
      * Constructeur de la classe Fichier.
-     * Initialise le chemin et la date de dernière modification si le fichier existe.
+     * Initialise le chemin et les attributs du fichier s'il existe, en une seule lecture des attributs.
      * 
      * @param path chemin du fichier à représenter
      */
-	private File fich;
 	public Fichier (String path) {
 		File f = new File (path);
-		if (f.exists() && f.isFile()) {
-			this.chemin = path;
-			this.modif = f.lastModified();
-			this.fich=f;
+		try {
+			BasicFileAttributes attrs = Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+			if (attrs.isRegularFile()) {
+				this.chemin = path;
+				this.fich = f;
+				attributs(attrs);
+			}
+		} catch (IOException e) {
+			// Fichier absent : le chemin reste vide, comme pour un dossier
 		}
 	}
+
+	/**
+	 * Construit un fichier à partir des attributs lus pendant le parcours de son dossier (voir {@link Parcours}),
+	 * sans nouvel appel système.
+	 *
+	 * @param f     le fichier
+	 * @param attrs ses attributs
+	 */
+	public Fichier (File f, BasicFileAttributes attrs) {
+		this.chemin = f.getPath();
+		this.fich = f;
+		attributs(attrs);
+	}
+
+	private void attributs(BasicFileAttributes attrs) {
+		this.modif = attrs.lastModifiedTime().toMillis();
+		this.creation = attrs.creationTime().toMillis();
+		this.taille = attrs.size();
+		this.dossier = attrs.isDirectory();
+		this.regulier = attrs.isRegularFile();
+		this.cle = attrs.fileKey();
+	}
 	  /**
      * Affiche les informations détaillées d'un fichier.
      * Vérifie la validité du fichier, son type MIME, et avertit des incohérences éventuelles.
@@ -54,11 +118,11 @@ public class Fichier implements Serializable{
         try {
             Path path = file.toPath(); //creation d'un chemin type path
             BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
-            String mimeType = Files.probeContentType(path);
+            String mimeType = TypeMime.detecter(path, attrs);
             String extension = getExtension(file);
 
             // Avertissement pour les incompatibilités MIME/extension
-            if (isImageMimeType(mimeType) && !isImageExtension(extension)) {
+            if (isImageMimeType(mimeType) && !TypeMime.correspond(mimeType, extension)) {
                 System.out.println("Avertissement : Le fichier a un type MIME d'image (" + mimeType + ") mais son extension (" + extension + ") ne correspond pas.");
             } else if (!isImageMimeType(mimeType) && isImageExtension(extension)) {
                 System.out.println("Erreur : Le fichier a une extension d'image (" + extension + ") mais son type MIME (" + mimeType + ") indique que ce n'est pas une image.");
@@ -100,7 +164,8 @@ public class Fichier implements Serializable{
         return name.substring(lastIndex + 1).toLowerCase();
     }
     /**
-     * Vérifie si le type MIME correspond à une image.
+     * Vérifie si le type MIME correspond à une image, que son format soit enregistré dans {@link Formats}
+     * ou non (GIF, BMP, PSD, SVG, icônes...).
      * 
      * @param mimeType le type MIME à vérifier
      * @return true si le type MIME correspond à une image, sinon false
@@ -109,14 +174,24 @@ public class Fichier implements Serializable{
         return mimeType != null && mimeType.startsWith("image/");
     }
     /**
-     * Vérifie si l'extension correspond à un format d'image courant.
+     * Vérifie si l'extension correspond à un format d'image enregistré dans {@link Formats}.
      * 
      * @param extension l'extension à vérifier
      * @return true si l'extension correspond à un format d'image, sinon false
      */
 
     public static boolean isImageExtension(String extension) {
-        return extension.equals("jpg") || extension.equals("jpeg") || extension.equals("png") || extension.equals("webp");
+        return Formats.parExtension(extension) != null;
+    }
+    /**
+     * Vérifie si un chemin se termine par l'extension d'un format d'image enregistré dans {@link Formats},
+     * sans créer de chaîne intermédiaire.
+     *
+     * @param chemin le chemin ou le nom du fichier
+     * @return true si l'extension correspond à un format d'image, sinon false
+     */
+    public static boolean aExtensionImage(String chemin) {
+        return Formats.parChemin(chemin) != null;
     }
     /**
      * Récupère la date de création d'un fichier sous forme de chaîne.
@@ -128,16 +203,22 @@ public class Fichier implements Serializable{
     	Path path = f.toPath();
     	try {
     	BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);//récupération des attributs du fichier
-    	ZonedDateTime creationTime = attrs.creationTime().toInstant().atZone(ZoneId.systemDefault()); //récupération de la date de création
-    	String date = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss").withZone(java.time.ZoneId.systemDefault()).format(creationTime);//convertissage en string
-    	
-    	return date;
+    	return FORMAT_DATE.format(attrs.creationTime().toInstant());//convertissage en string
     	} catch (IOException e) {
             System.out.println("Erreur lors de la lecture des métadonnées du fichier : " + e.getMessage());
             return "00/00/0000";
        }
 		//retourne une date arbitraire en cas d'exception controlée
     }
+    /**
+     * Récupère la date de création d'un fichier parcouru, à partir des attributs déjà lus.
+     * 
+     * @param f le fichier dont on veut récupérer la date de création
+     * @return la date de création au format "dd/MM/yyyy HH:mm:ss"
+     */
+    public static String DateDeCreation(Fichier f) {
+    	return FORMAT_DATE.format(Instant.ofEpochMilli(f.creation));
+    }
     /**
      * Récupère l'année à partir d'une date formatée.
      *
@@ -263,6 +344,96 @@ public class Fichier implements Serializable{
     public long get_modif() {
         return modif;
     }
+
+    /**
+     * Retourne le fichier représenté.
+     *
+     * @return le fichier, avec le chemin sous lequel il a été trouvé
+     */
+    public File get_File() {
+        return fich;
+    }
+
+    /**
+     * Retourne le nom du fichier.
+     *
+     * @return le nom du fichier, sans son dossier
+     */
+    public String get_Nom() {
+        return fich.getName();
+    }
+
+    /**
+     * Retourne la date de création du fichier.
+     *
+     * @return la date de création sous forme de timestamp (long)
+     */
+    public long get_creation() {
+        return creation;
+    }
+
+    /**
+     * Retourne la taille du fichier.
+     *
+     * @return la taille en octets
+     */
+    public long get_taille() {
+        return taille;
+    }
+
+    /**
+     * Retourne l'identifiant du fichier dans son système de fichiers.
+     *
+     * @return l'identifiant (inode), ou {@code null} s'il n'est pas disponible
+     */
+    public Object get_cle() {
+        return cle;
+    }
+
+    /**
+     * Indique si les dimensions de l'image sont connues. Elles sont lues une seule fois, dans l'en-tête
+     * du fichier ou à défaut dans le bloc EXIF (voir {@link Image#aDimensions()}).
+     *
+     * @return true si la largeur et la hauteur sont connues
+     */
+    public boolean aDimensions() {
+        if (!dimensionsLues) {
+            Image im = new Image(fich, ProfilExtraction.DIMENSIONS);
+            boolean connues = im.aDimensions();
+            largeur = connues ? im.largeur() : -1;
+            hauteur = connues ? im.hauteur() : -1;
+            dimensionsLues = true;
+        }
+        return largeur != -1;
+    }
+
+    /**
+     * @return la largeur de l'image en pixels, ou -1 si elle est inconnue
+     */
+    public int get_largeur() {
+        return aDimensions() ? largeur : -1;
+    }
+
+    /**
+     * @return la hauteur de l'image en pixels, ou -1 si elle est inconnue
+     */
+    public int get_hauteur() {
+        return aDimensions() ? hauteur : -1;
+    }
+
+    /**
+     * @return true si l'entrée est un dossier
+     */
+    public boolean estDossier() {
+        return dossier;
+    }
+
+    /**
+     * @return true si l'entrée est un fichier ordinaire
+     */
+    public boolean estFichier() {
+        return regulier;
+    }
     
     
 
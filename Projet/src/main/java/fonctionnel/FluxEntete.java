@@ -0,0 +1,325 @@
+package fonctionnel;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Flux de lecture limité à l'en-tête d'une image.
+ * <p>
+ * Le flux s'arrête dès que la zone de métadonnées est terminée :
+ * au marqueur SOS d'un JPEG (début des données compressées) ou au premier bloc IDAT d'un PNG,
+ * remplacé par un bloc IEND pour que le lecteur PNG termine normalement.
+ * Pour les autres formats, seul le plafond d'octets s'applique.
+ * Le nombre d'octets réellement lus dans le fichier est comptabilisé, et une lecture ou un saut
+ * refusé par le plafond est signalé par {@link #estTronque()}.
+ */
+public class FluxEntete extends FilterInputStream {
+	/**
+	 * Plafond par défaut : 16 Mo, largement au-delà de la taille des segments de métadonnées.
+	 */
+	public static final long PLAFOND_DEFAUT = 16L * 1024 * 1024;
+
+	private static final byte[] SIGNATURE_PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+	/**
+	 * Bloc IEND complet (longueur nulle, type, CRC) rendu à la place du premier IDAT.
+	 */
+	private static final byte[] BLOC_IEND = {0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82};
+
+	private static final int FORMAT_INDETERMINE = -1;
+	private static final int FORMAT_AUTRE = 0;
+	private static final int FORMAT_JPEG = 1;
+	private static final int FORMAT_PNG = 2;
+
+	private final long plafond;
+	private long position;
+	private long octetsLus;
+	private int format = FORMAT_INDETERMINE;
+	private boolean fin;
+	private boolean tronque;
+
+	/**
+	 * Octets à rendre à l'appelant avant toute nouvelle lecture (en-têtes de segments analysés).
+	 */
+	private final byte[] attente = new byte[BLOC_IEND.length];
+	private int attentePos;
+	private int attenteLen;
+
+	/**
+	 * Octets lus dans le fichier en avance lors de la détection du format, relus en priorité.
+	 */
+	private final byte[] retour = new byte[SIGNATURE_PNG.length];
+	private int retourPos;
+	private int retourLen;
+
+	/**
+	 * Nombre d'octets à transmettre sans analyse avant la prochaine frontière de segment.
+	 */
+	private long resteSegment;
+
+	/**
+	 * Tampons réutilisés par {@link #read()}, {@link #lireOctet()} et {@link #skip(long)}.
+	 */
+	private final byte[] octet = new byte[1];
+	private byte[] saut;
+
+	/**
+	 * Constructeur du flux limité.
+	 *
+	 * @param in      le flux du fichier image
+	 * @param plafond le nombre maximal d'octets à consommer, 0 ou moins pour ne pas limiter
+	 */
+	public FluxEntete(InputStream in, long plafond) {
+		super(in);
+		this.plafond = plafond > 0 ? plafond : Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return le nombre d'octets effectivement lus dans le fichier (hors octets sautés)
+	 */
+	public long getOctetsLus() {
+		return octetsLus;
+	}
+
+	/**
+	 * Indique si le plafond a interrompu la lecture : des octets ont encore été demandés une fois le plafond atteint,
+	 * si bien qu'un échec de l'analyse peut tenir au plafond plutôt qu'au contenu du fichier.
+	 *
+	 * @return {@code true} si une lecture ou un saut a été refusé à cause du plafond
+	 */
+	public boolean estTronque() {
+		return tronque;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return read(octet, 0, 1) == -1 ? -1 : octet[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		while (true) {
+			if (attentePos < attenteLen) {
+				int n = Math.min(len, attenteLen - attentePos);
+				System.arraycopy(attente, attentePos, b, off, n);
+				attentePos += n;
+				return n;
+			}
+			if (fin) {
+				return -1;
+			}
+			if (format == FORMAT_INDETERMINE) {
+				detecterFormat();
+			} else if (format == FORMAT_AUTRE || resteSegment > 0) {
+				int demande = format == FORMAT_AUTRE ? len : (int) Math.min(len, resteSegment);
+				int n = lireSource(b, off, demande);
+				if (n == -1) {
+					fin = true;
+					return -1;
+				}
+				if (format != FORMAT_AUTRE) {
+					resteSegment -= n;
+				}
+				return n;
+			} else if (format == FORMAT_JPEG) {
+				segmentJpeg();
+			} else {
+				blocPng();
+			}
+		}
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		boolean frontiere = format != FORMAT_AUTRE && resteSegment == 0;
+		if (n <= 0 || fin) {
+			return 0;
+		}
+		if (attentePos < attenteLen || retourPos < retourLen || format == FORMAT_INDETERMINE || frontiere) {
+			// Octets en attente ou frontière de segment à analyser : on saute en lisant
+			if (saut == null) {
+				saut = new byte[512];
+			}
+			int lu = read(saut, 0, (int) Math.min(n, saut.length));
+			return lu == -1 ? 0 : lu;
+		}
+		if (position >= plafond) {
+			tronque = true;
+			fin = true;
+			return 0;
+		}
+		long demande = Math.min(n, plafond - position);
+		if (format != FORMAT_AUTRE) {
+			demande = Math.min(demande, resteSegment);
+		}
+		if (demande <= 0) {
+			fin = true;
+			return 0;
+		}
+		long saute = in.skip(demande);
+		position += saute;
+		if (format != FORMAT_AUTRE) {
+			resteSegment -= saute;
+		}
+		return saute;
+	}
+
+	@Override
+	public int available() {
+		return attenteLen - attentePos;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void mark(int readlimit) {
+		// Non supporté : les lecteurs encapsulent ce flux dans un BufferedInputStream
+	}
+
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("mark/reset non supporté");
+	}
+
+	/**
+	 * Lit la signature du fichier pour savoir s'il s'agit d'un JPEG ou d'un PNG.
+	 * Les octets lus sont rendus à l'appelant ou remis en tête de lecture.
+	 */
+	private void detecterFormat() throws IOException {
+		retourLen = lireComplet(retour, 0, SIGNATURE_PNG.length);
+		retourPos = 0;
+		format = FORMAT_AUTRE;
+		if (retourLen >= 2 && (retour[0] & 0xFF) == 0xFF && (retour[1] & 0xFF) == 0xD8) {
+			format = FORMAT_JPEG;
+			// Le marqueur SOI est rendu tel quel, la suite est analysée segment par segment
+			attente[0] = retour[0];
+			attente[1] = retour[1];
+			attentePos = 0;
+			attenteLen = 2;
+			retourPos = 2;
+		} else if (retourLen == SIGNATURE_PNG.length && commencePar(retour, SIGNATURE_PNG)) {
+			format = FORMAT_PNG;
+			System.arraycopy(retour, 0, attente, 0, retourLen);
+			attentePos = 0;
+			attenteLen = retourLen;
+			retourPos = retourLen;
+		}
+	}
+
+	/**
+	 * Analyse l'en-tête du segment JPEG suivant. Le flux se termine après le marqueur SOS ou EOI.
+	 */
+	private void segmentJpeg() throws IOException {
+		attentePos = 0;
+		attenteLen = 0;
+		if (lireOctet() != 0xFF) {
+			fin = true;
+			return;
+		}
+		int marqueur = lireOctet();
+		while (marqueur == 0xFF) {
+			// Octets de remplissage autorisés avant un marqueur
+			marqueur = lireOctet();
+		}
+		if (marqueur == -1) {
+			fin = true;
+			return;
+		}
+		attente[attenteLen++] = (byte) 0xFF;
+		attente[attenteLen++] = (byte) marqueur;
+		if (marqueur == 0xDA || marqueur == 0xD9) {
+			// SOS ou EOI : plus aucune métadonnée au-delà
+			fin = true;
+			return;
+		}
+		if (marqueur == 0x01 || (marqueur >= 0xD0 && marqueur <= 0xD8)) {
+			// Marqueurs autonomes, sans longueur
+			return;
+		}
+		int fort = lireOctet();
+		int faible = lireOctet();
+		if (faible == -1) {
+			fin = true;
+			return;
+		}
+		attente[attenteLen++] = (byte) fort;
+		attente[attenteLen++] = (byte) faible;
+		resteSegment = Math.max(0, ((fort << 8) | faible) - 2);
+	}
+
+	/**
+	 * Analyse l'en-tête du bloc PNG suivant. Le premier bloc IDAT est remplacé par un bloc IEND.
+	 */
+	private void blocPng() throws IOException {
+		attentePos = 0;
+		attenteLen = lireComplet(attente, 0, 8);
+		if (attenteLen < 8) {
+			fin = true;
+			return;
+		}
+		if (attente[4] == 'I' && attente[5] == 'D' && attente[6] == 'A' && attente[7] == 'T') {
+			System.arraycopy(BLOC_IEND, 0, attente, 0, BLOC_IEND.length);
+			attenteLen = BLOC_IEND.length;
+			fin = true;
+			return;
+		}
+		long longueur = ((attente[0] & 0xFFL) << 24) | ((attente[1] & 0xFF) << 16) | ((attente[2] & 0xFF) << 8) | (attente[3] & 0xFF);
+		// Données du bloc suivies de son CRC
+		resteSegment = longueur + 4;
+	}
+
+	private int lireOctet() throws IOException {
+		return lireSource(octet, 0, 1) == -1 ? -1 : octet[0] & 0xFF;
+	}
+
+	private int lireComplet(byte[] b, int off, int len) throws IOException {
+		int total = 0;
+		while (total < len) {
+			int n = lireSource(b, off + total, len - total);
+			if (n == -1) {
+				break;
+			}
+			total += n;
+		}
+		return total;
+	}
+
+	/**
+	 * Lecture dans le fichier en respectant le plafond et en comptant les octets lus.
+	 */
+	private int lireSource(byte[] b, int off, int len) throws IOException {
+		if (retourPos < retourLen) {
+			int n = Math.min(len, retourLen - retourPos);
+			System.arraycopy(retour, retourPos, b, off, n);
+			retourPos += n;
+			return n;
+		}
+		long restant = plafond - position;
+		if (restant <= 0) {
+			// Des octets sont encore demandés alors que le plafond est atteint
+			tronque = true;
+			return -1;
+		}
+		int n = in.read(b, off, (int) Math.min(len, restant));
+		if (n > 0) {
+			position += n;
+			octetsLus += n;
+		}
+		return n;
+	}
+
+	private static boolean commencePar(byte[] donnees, byte[] prefixe) {
+		for (int i = 0; i < prefixe.length; i++) {
+			if (donnees[i] != prefixe[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
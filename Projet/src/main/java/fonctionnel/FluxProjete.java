@@ -0,0 +1,90 @@
+package fonctionnel;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Flux de lecture au-dessus d'une zone de fichier projetée en mémoire.
+ * <p>
+ * Les lectures copient directement depuis le tampon, sans appel système ;
+ * les sauts avancent simplement la position, si bien que les pages sautées ne sont jamais chargées.
+ * Une lecture ou un saut demandé une fois la fin de la zone atteinte est signalé par {@link #finAtteinte()} :
+ * quand seul le début du fichier est projeté, le lecteur n'a alors pas reçu tout ce qu'il demandait.
+ */
+public class FluxProjete extends InputStream {
+	private final ByteBuffer tampon;
+	private int marque = -1;
+	private boolean finAtteinte;
+
+	/**
+	 * Constructeur du flux.
+	 *
+	 * @param tampon la zone projetée, lue de sa position courante jusqu'à sa limite
+	 */
+	public FluxProjete(ByteBuffer tampon) {
+		this.tampon = tampon;
+	}
+
+	/**
+	 * @return {@code true} si une lecture ou un saut a été demandé une fois la fin de la zone projetée atteinte
+	 */
+	public boolean finAtteinte() {
+		return finAtteinte;
+	}
+
+	@Override
+	public int read() {
+		if (!tampon.hasRemaining()) {
+			finAtteinte = true;
+			return -1;
+		}
+		return tampon.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		if (!tampon.hasRemaining()) {
+			finAtteinte = true;
+			return -1;
+		}
+		int n = Math.min(len, tampon.remaining());
+		tampon.get(b, off, n);
+		return n;
+	}
+
+	@Override
+	public long skip(long n) {
+		if (n <= 0) {
+			return 0;
+		}
+		if (!tampon.hasRemaining()) {
+			finAtteinte = true;
+		}
+		int saute = (int) Math.min(n, tampon.remaining());
+		tampon.position(tampon.position() + saute);
+		return saute;
+	}
+
+	@Override
+	public int available() {
+		return tampon.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public void mark(int readlimit) {
+		marque = tampon.position();
+	}
+
+	@Override
+	public void reset() {
+		tampon.position(marque < 0 ? 0 : marque);
+	}
+}
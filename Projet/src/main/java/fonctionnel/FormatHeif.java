@@ -0,0 +1,27 @@
+package fonctionnel;
+
+/**
+ * Formats HEIF (HEIC des téléphones, AVIF) : conteneurs ISO à boîte {@code ftyp}.
+ * Déclaré comme extension du registre {@link Formats} ; les dimensions sont lues dans l'EXIF.
+ */
+public class FormatHeif implements FormatImage {
+	@Override
+	public String getNom() {
+		return "HEIF";
+	}
+
+	@Override
+	public String[] getExtensions() {
+		return new String[] {"heic", "heif", "avif"};
+	}
+
+	@Override
+	public String[] getTypesMime() {
+		return new String[] {"image/heic", "image/heif", "image/avif"};
+	}
+
+	@Override
+	public int getSignature() {
+		return Renifleur.HEIF;
+	}
+}
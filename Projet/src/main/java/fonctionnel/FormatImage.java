@@ -0,0 +1,71 @@
+package fonctionnel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Format d'image pris en charge par l'application, enregistré dans {@link Formats}.
+ * <p>
+ * Chaque format déclare ses extensions, ses types MIME et sa signature, sait lire les dimensions
+ * dans l'en-tête de ses fichiers et indique le profil d'extraction adapté à ses métadonnées.
+ * De nouveaux formats peuvent être ajoutés sans modifier le code existant : il suffit de déclarer
+ * leur implémentation dans un fichier {@code META-INF/services/fonctionnel.FormatImage}
+ * (voir {@link java.util.ServiceLoader}).
+ */
+public interface FormatImage {
+	/**
+	 * @return le nom du format, par exemple {@code JPEG}
+	 */
+	String getNom();
+
+	/**
+	 * @return les extensions des fichiers de ce format, en minuscules et sans le point
+	 */
+	String[] getExtensions();
+
+	/**
+	 * @return les types MIME de ce format, le principal en premier
+	 */
+	String[] getTypesMime();
+
+	/**
+	 * Retourne la signature du format, telle qu'identifiée par {@link Renifleur#classer(ByteBuffer)}.
+	 * Un format dont la signature n'est pas connue de {@link Renifleur} rend {@link Renifleur#AUTRE}
+	 * et doit alors redéfinir {@link #reconnait(ByteBuffer)}.
+	 *
+	 * @return une des constantes de format de {@link Renifleur}
+	 */
+	int getSignature();
+
+	/**
+	 * Indique si le début d'un fichier correspond à ce format.
+	 *
+	 * @param entete le début du fichier, lu de la position 0 à la limite du tampon
+	 * @return {@code true} si le fichier est de ce format
+	 */
+	default boolean reconnait(ByteBuffer entete) {
+		return Renifleur.classer(entete) == getSignature();
+	}
+
+	/**
+	 * Lit les dimensions de l'image dans l'en-tête de son fichier.
+	 *
+	 * @param in         le flux du fichier, positionné au début
+	 * @param entete     le début du fichier déjà lu par {@link Renifleur}
+	 * @param dimensions tableau recevant {largeur, hauteur}
+	 * @return {@code true} si les dimensions ont été lues, {@code false} si l'en-tête ne permet pas de conclure
+	 *         (les dimensions EXIF servent alors de repli)
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	default boolean lireDimensions(InputStream in, ByteBuffer entete, int[] dimensions) throws IOException {
+		return false;
+	}
+
+	/**
+	 * @return le profil d'extraction utilisé par défaut pour les images de ce format
+	 */
+	default ProfilExtraction getProfil() {
+		return ProfilExtraction.METADONNEES;
+	}
+}
@@ -0,0 +1,73 @@
+package fonctionnel;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Formats d'image intégrés à l'application, dont les dimensions sont lues par {@link SondeDimensions}.
+ */
+public enum FormatStandard implements FormatImage {
+	JPEG("JPEG", Renifleur.JPEG, new String[] {"jpg", "jpeg"}, new String[] {"image/jpeg"}) {
+		@Override
+		public boolean lireDimensions(InputStream in, ByteBuffer entete, int[] dimensions) throws IOException {
+			int[] trame = SondeDimensions.jpeg(new BufferedInputStream(new FluxEntete(in, Image.getPlafondOctets()), TAILLE_TAMPON));
+			if (trame == null) {
+				return false;
+			}
+			dimensions[0] = trame[0];
+			dimensions[1] = trame[1];
+			return true;
+		}
+	},
+	PNG("PNG", Renifleur.PNG, new String[] {"png"}, new String[] {"image/png"}) {
+		@Override
+		public boolean lireDimensions(InputStream in, ByteBuffer entete, int[] dimensions) {
+			return SondeDimensions.png(entete, dimensions);
+		}
+	},
+	WEBP("WebP", Renifleur.WEBP, new String[] {"webp"}, new String[] {"image/webp"}) {
+		@Override
+		public boolean lireDimensions(InputStream in, ByteBuffer entete, int[] dimensions) {
+			return SondeDimensions.webp(entete, dimensions);
+		}
+	};
+
+	/**
+	 * Taille du tampon de lecture d'un JPEG : suffisante pour les petits segments, les gros segments APPn sont sautés.
+	 */
+	private static final int TAILLE_TAMPON = 4096;
+
+	private final String nom;
+	private final int signature;
+	private final String[] extensions;
+	private final String[] typesMime;
+
+	FormatStandard(String nom, int signature, String[] extensions, String[] typesMime) {
+		this.nom = nom;
+		this.signature = signature;
+		this.extensions = extensions;
+		this.typesMime = typesMime;
+	}
+
+	@Override
+	public String getNom() {
+		return nom;
+	}
+
+	@Override
+	public String[] getExtensions() {
+		return extensions.clone();
+	}
+
+	@Override
+	public String[] getTypesMime() {
+		return typesMime.clone();
+	}
+
+	@Override
+	public int getSignature() {
+		return signature;
+	}
+}
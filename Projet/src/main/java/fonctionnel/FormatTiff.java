@@ -0,0 +1,27 @@
+package fonctionnel;
+
+/**
+ * Format TIFF et formats bruts d'appareils construits sur TIFF (CR2, NEF, ARW, DNG, ORF, RW2).
+ * Déclaré comme extension du registre {@link Formats} ; les dimensions sont lues dans l'EXIF.
+ */
+public class FormatTiff implements FormatImage {
+	@Override
+	public String getNom() {
+		return "TIFF";
+	}
+
+	@Override
+	public String[] getExtensions() {
+		return new String[] {"tif", "tiff", "cr2", "nef", "nrw", "arw", "dng", "orf", "rw2", "pef", "srw"};
+	}
+
+	@Override
+	public String[] getTypesMime() {
+		return new String[] {"image/tiff"};
+	}
+
+	@Override
+	public int getSignature() {
+		return Renifleur.TIFF;
+	}
+}
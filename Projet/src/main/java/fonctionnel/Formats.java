@@ -0,0 +1,213 @@
+package fonctionnel;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Registre des formats d'image pris en charge : les formats intégrés ({@link FormatStandard})
+ * puis ceux déclarés par {@link ServiceLoader} (voir {@link FormatImage}).
+ * <p>
+ * Les formats sont indexés par extension, par type MIME et par signature : chaque recherche est
+ * un accès direct à une table. La recherche par chemin lit l'extension en place, sans créer de chaîne,
+ * pour pouvoir être appelée sur chaque fichier d'un parcours.
+ */
+public final class Formats {
+	/**
+	 * Longueur maximale d'une extension enregistrée.
+	 */
+	private static final int LONGUEUR_MAX = 8;
+
+	private static final List<FormatImage> FORMATS;
+	/**
+	 * Table à adressage ouvert des extensions (en minuscules) et des formats correspondants.
+	 */
+	private static final String[] EXTENSIONS;
+	private static final FormatImage[] PAR_EXTENSION;
+	private static final Map<String, FormatImage> PAR_TYPE_MIME = new HashMap<>();
+	/**
+	 * Formats indexés par signature {@link Renifleur}.
+	 */
+	private static final FormatImage[] PAR_SIGNATURE = new FormatImage[Renifleur.AUTRE + 1];
+	/**
+	 * Formats dont la signature n'est pas connue de {@link Renifleur}.
+	 */
+	private static final List<FormatImage> AUTRES = new ArrayList<>();
+
+	static {
+		List<FormatImage> formats = new ArrayList<>();
+		Collections.addAll(formats, FormatStandard.values());
+		try {
+			for (FormatImage format : ServiceLoader.load(FormatImage.class, Formats.class.getClassLoader())) {
+				formats.add(format);
+			}
+		} catch (ServiceConfigurationError e) {
+			System.err.println("Erreur lors du chargement des formats d'image : " + e.getMessage());
+		}
+		FORMATS = Collections.unmodifiableList(formats);
+
+		int nbExtensions = 0;
+		for (FormatImage format : formats) {
+			nbExtensions += format.getExtensions().length;
+		}
+		int capacite = Integer.highestOneBit(Math.max(4, nbExtensions * 4) - 1) << 1;
+		EXTENSIONS = new String[capacite];
+		PAR_EXTENSION = new FormatImage[capacite];
+		for (FormatImage format : formats) {
+			for (String extension : format.getExtensions()) {
+				ajouterExtension(extension.toLowerCase(Locale.ROOT), format);
+			}
+			for (String type : format.getTypesMime()) {
+				PAR_TYPE_MIME.putIfAbsent(type.toLowerCase(Locale.ROOT), format);
+			}
+			int signature = format.getSignature();
+			if (signature == Renifleur.AUTRE) {
+				AUTRES.add(format);
+			} else if (signature > Renifleur.INCONNU && signature < Renifleur.AUTRE && PAR_SIGNATURE[signature] == null) {
+				PAR_SIGNATURE[signature] = format;
+			}
+		}
+	}
+
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private Formats() {
+	}
+
+	/**
+	 * @return tous les formats enregistrés, les formats intégrés en premier
+	 */
+	public static List<FormatImage> tous() {
+		return FORMATS;
+	}
+
+	/**
+	 * Recherche le format correspondant à l'extension d'un chemin ou d'un nom de fichier, sans tenir compte de la casse.
+	 *
+	 * @param chemin le chemin ou le nom du fichier
+	 * @return le format, ou {@code null} si l'extension n'est pas celle d'un format enregistré
+	 */
+	public static FormatImage parChemin(String chemin) {
+		int n = chemin.length();
+		for (int i = n - 1; i >= 0 && n - i <= LONGUEUR_MAX + 1; i--) {
+			char c = chemin.charAt(i);
+			if (c == '.') {
+				return chercher(chemin, i + 1);
+			}
+			if (c == '/' || c == File.separatorChar) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Recherche le format correspondant à une extension, sans tenir compte de la casse.
+	 *
+	 * @param extension l'extension sans le point
+	 * @return le format, ou {@code null} si l'extension n'est pas celle d'un format enregistré
+	 */
+	public static FormatImage parExtension(String extension) {
+		if (extension.length() > LONGUEUR_MAX) {
+			return null;
+		}
+		return chercher(extension, 0);
+	}
+
+	/**
+	 * Recherche le format correspondant à un type MIME.
+	 *
+	 * @param typeMime le type MIME
+	 * @return le format, ou {@code null} si le type n'est pas celui d'un format enregistré
+	 */
+	public static FormatImage parTypeMime(String typeMime) {
+		return typeMime == null ? null : PAR_TYPE_MIME.get(typeMime.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Recherche le format correspondant au début d'un fichier.
+	 *
+	 * @param signature la signature identifiée par {@link Renifleur#classer(ByteBuffer)}
+	 * @param entete    le début du fichier
+	 * @return le format, ou {@code null} si le fichier n'est pas d'un format enregistré
+	 */
+	public static FormatImage parEntete(int signature, ByteBuffer entete) {
+		if (signature > Renifleur.INCONNU && signature < Renifleur.AUTRE) {
+			FormatImage format = PAR_SIGNATURE[signature];
+			return format != null && format.reconnait(entete) ? format : null;
+		}
+		return autre(entete);
+	}
+
+	/**
+	 * Recherche parmi les formats dont la signature n'est pas connue de {@link Renifleur}.
+	 *
+	 * @param entete le début du fichier
+	 * @return le format, ou {@code null} si aucun ne reconnaît l'en-tête
+	 */
+	static FormatImage autre(ByteBuffer entete) {
+		for (int i = 0; i < AUTRES.size(); i++) {
+			if (AUTRES.get(i).reconnait(entete)) {
+				return AUTRES.get(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param f un fichier
+	 * @return le profil d'extraction du format du fichier d'après son extension, {@link ProfilExtraction#METADONNEES} par défaut
+	 */
+	public static ProfilExtraction profil(File f) {
+		FormatImage format = parChemin(f.getName());
+		return format != null ? format.getProfil() : ProfilExtraction.METADONNEES;
+	}
+
+	/**
+	 * Cherche dans la table l'extension commençant à {@code debut} et allant jusqu'à la fin de la chaîne.
+	 */
+	private static FormatImage chercher(String s, int debut) {
+		int longueur = s.length() - debut;
+		if (longueur == 0) {
+			return null;
+		}
+		int h = 0;
+		for (int i = debut; i < s.length(); i++) {
+			h = 31 * h + Character.toLowerCase(s.charAt(i));
+		}
+		int masque = EXTENSIONS.length - 1;
+		for (int k = melanger(h) & masque; EXTENSIONS[k] != null; k = (k + 1) & masque) {
+			String cle = EXTENSIONS[k];
+			if (cle.length() == longueur && cle.regionMatches(true, 0, s, debut, longueur)) {
+				return PAR_EXTENSION[k];
+			}
+		}
+		return null;
+	}
+
+	private static void ajouterExtension(String extension, FormatImage format) {
+		if (extension.isEmpty() || extension.length() > LONGUEUR_MAX || chercher(extension, 0) != null) {
+			// Extension invalide ou déjà attribuée à un format enregistré avant celui-ci
+			return;
+		}
+		int masque = EXTENSIONS.length - 1;
+		int k = melanger(extension.hashCode()) & masque;
+		while (EXTENSIONS[k] != null) {
+			k = (k + 1) & masque;
+		}
+		EXTENSIONS[k] = extension;
+		PAR_EXTENSION[k] = format;
+	}
+
+	private static int melanger(int h) {
+		return h ^ (h >>> 16);
+	}
+}
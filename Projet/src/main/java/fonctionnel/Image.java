@@ -1,12 +1,24 @@
 package fonctionnel;
 
+import java.io.BufferedInputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
 import com.drew.imaging.*;
-import com.drew.metadata.*;
-import com.drew.metadata.exif.ExifIFD0Directory;
-import com.drew.metadata.exif.ExifSubIFDDirectory;
-import com.drew.metadata.exif.GpsDirectory;
-import com.drew.metadata.xmp.XmpDirectory;
 
 /**
  * Classe représentant une image et permettant l'extraction de métadonnées EXIF et XMP.
@@ -17,15 +29,110 @@ public class Image {
 	 * Cette valeur est généralement utilisée comme paramètre dans les méthodes de redimensionnement.
 	 */
     public static final int SCALE_DEFAULT = 0; // Échelle par défaut
+    /**
+     * Indique si la lecture se limite à l'en-tête des fichiers (voir {@link FluxEntete}).
+     */
+    private static volatile boolean lectureEntete = true;
+    /**
+     * Nombre maximal d'octets lus par fichier en mode en-tête.
+     */
+    private static volatile long plafondOctets = FluxEntete.PLAFOND_DEFAUT;
+    /**
+     * Taille par défaut à partir de laquelle un fichier est projeté en mémoire plutôt que lu par flux : 64 Ko.
+     * Mesuré avec {@link Mesures#comparerLectures(String, int)} sur des JPEG de 8 Ko à 40 Mo (cache chaud),
+     * la projection lit les métadonnées en 170 à 300 µs contre 330 à 480 µs par flux, quelle que soit la taille ;
+     * les plus petits fichiers restent lus par flux pour limiter le nombre de projections vivantes,
+     * qui ne sont libérées qu'au passage du ramasse-miettes.
+     */
+    public static final long SEUIL_PROJECTION_DEFAUT = 64L * 1024;
+    /**
+     * Taille de fichier à partir de laquelle la lecture passe par {@link FileChannel#map}, négative pour ne jamais projeter.
+     */
+    private static volatile long seuilProjection = SEUIL_PROJECTION_DEFAUT;
+    /**
+     * Nombre maximal par défaut de fichiers ouverts simultanément par les lectures de métadonnées.
+     */
+    public static final int MAX_FICHIERS_OUVERTS_DEFAUT = 256;
+    /**
+     * Jetons de fichiers ouverts : borne le nombre de lectures simultanées quel que soit le nombre de fils.
+     */
+    private static volatile Semaphore fichiersOuverts = new Semaphore(MAX_FICHIERS_OUVERTS_DEFAUT);
+    /**
+     * Extensions des images que metadata-extractor sait analyser, formats bruts compris (RAF, CR3, CRW...),
+     * et celles du registre {@link Formats} : un tel fichier dont l'en-tête n'est pas reconnu par {@link Renifleur}
+     * est tout de même analysé, et n'est pas enregistré comme non-image dans {@link CacheNegatif}.
+     */
+    private static final Set<String> EXTENSIONS_ANALYSABLES = extensionsAnalysables();
     private File file;
+    /**
+     * Blocs de métadonnées à extraire du fichier.
+     */
+    private final ProfilExtraction profil;
+    /**
+     * Métadonnées typées de l'image, lues une seule fois à la première demande.
+     */
+    private Metadonnees metadonnees;
+    /**
+     * Nombre d'octets lus dans le fichier pour obtenir les métadonnées, -1 si inconnu.
+     */
+    private long octetsLus = -1;
+    /**
+     * Indique si la lecture des métadonnées a été écourtée par le plafond d'octets ou par la fin de la zone projetée.
+     */
+    private boolean tronque;
+    /**
+     * Dimensions lues dans l'en-tête du fichier, {largeur, hauteur}, à 0 si l'en-tête ne permet pas de conclure.
+     */
+    private final int[] dimensionsEntete = new int[2];
+    /**
+     * Format identifié par {@link Renifleur} lors de la sonde de l'en-tête, -1 tant que le fichier n'a pas été sondé.
+     */
+    private int format = -1;
+    /**
+     * Métadonnées lues avec le profil {@link ProfilExtraction#MINIATURE} quand le profil de l'image ne contient pas la miniature.
+     */
+    private Metadonnees metadonneesMiniature;
+    /**
+     * Position de la miniature EXIF dans le fichier, -1 si elle est absente, -2 tant qu'elle n'a pas été calculée.
+     */
+    private long positionMiniature = -2;
+    /**
+     * Jetons de fichiers ouverts propres au traitement par lots qui a créé l'image, {@code null} pour les jetons partagés.
+     */
+    private final Semaphore jetons;
 
     /**
-     * Constructeur pour initialiser une instance avec un fichier image.
+     * Constructeur pour initialiser une instance avec un fichier image,
+     * lue avec le profil d'extraction de son format (voir {@link Formats#profil(File)}).
      *
      * @param file le fichier image à traiter
      */
     public Image(File file) {
+        this(file, Formats.profil(file));
+    }
+
+    /**
+     * Constructeur pour initialiser une instance avec un fichier image et les blocs de métadonnées nécessaires.
+     *
+     * @param file   le fichier image à traiter
+     * @param profil les blocs de métadonnées à extraire, les autres ne sont pas décodés
+     */
+    public Image(File file, ProfilExtraction profil) {
+        this(file, profil, null);
+    }
+
+    /**
+     * Constructeur utilisé par un traitement par lots qui borne lui-même le nombre de fichiers ouverts
+     * (voir {@link ExtractionParLots#virtuel(int)}).
+     *
+     * @param file   le fichier image à traiter
+     * @param profil les blocs de métadonnées à extraire
+     * @param jetons les jetons de fichiers ouverts à utiliser, {@code null} pour ceux de {@link #setMaxFichiersOuverts(int)}
+     */
+    Image(File file, ProfilExtraction profil, Semaphore jetons) {
         this.file = file;
+        this.profil = profil;
+        this.jetons = jetons;
     }
 
     /**
@@ -39,6 +146,30 @@ public class Image {
         return "EXIF Metadata:\n" + exifMetadata + "\nXMP Metadata:\n" + xmpMetadata;
     }
 
+    /**
+     * Extrait en parallèle les métadonnées de plusieurs images avec le traitement par lots par défaut
+     * (voir {@link ExtractionParLots#parDefaut()}).
+     *
+     * @param chemins les fichiers à traiter
+     * @param profil  les blocs de métadonnées à extraire
+     * @return un itérateur des résultats dans l'ordre de fin des extractions, chaque erreur étant rattachée à son fichier
+     */
+    public static Iterator<ResultatExtraction> extractAll(Collection<Path> chemins, ProfilExtraction profil) {
+        return ExtractionParLots.parDefaut().extraire(chemins, profil);
+    }
+
+    /**
+     * Extrait en parallèle les métadonnées des images rendues par un itérateur, avancé au rythme des extractions
+     * (voir {@link ExtractionParLots#extraire(Iterator, ProfilExtraction)}).
+     *
+     * @param chemins les fichiers à traiter
+     * @param profil  les blocs de métadonnées à extraire
+     * @return un itérateur des résultats dans l'ordre de fin des extractions, chaque erreur étant rattachée à son fichier
+     */
+    public static Iterator<ResultatExtraction> extractAll(Iterator<Path> chemins, ProfilExtraction profil) {
+        return ExtractionParLots.parDefaut().extraire(chemins, profil);
+    }
+
     /**
      * Méthode pour extraire les métadonnées EXIF de l'image.
      *
@@ -46,41 +177,66 @@ public class Image {
      */
     public String ExtractExifMetadata() {
         StringBuilder exifInfo = new StringBuilder();
+        Metadonnees metadonnees = getMetadonnees();
 
-        try {
-            Metadata metadata = ImageMetadataReader.readMetadata(file);
-
-            // Extraction de la résolution (DPI)
-            ExifIFD0Directory ifd0Directory = metadata.getFirstDirectoryOfType(ExifIFD0Directory.class);
-            if (ifd0Directory != null) {
-                exifInfo.append("DPI: ")
-                        .append(ifd0Directory.getInteger(ExifIFD0Directory.TAG_X_RESOLUTION))
-                        .append(" x ")
-                        .append(ifd0Directory.getInteger(ExifIFD0Directory.TAG_Y_RESOLUTION))
-                        .append("\n");
-            }
+        if (metadonnees.estEchec()) {
+            exifInfo.append("Error extracting EXIF metadata: ").append(metadonnees.getErreur()).append("\n");
+            return exifInfo.toString();
+        }
 
-            // Extraction des dimensions (largeur et hauteur)
-            ExifSubIFDDirectory dir = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
-            if (dir != null) {
-                Integer width = dir.getInteger(ExifSubIFDDirectory.TAG_EXIF_IMAGE_WIDTH);
-                Integer height = dir.getInteger(ExifSubIFDDirectory.TAG_EXIF_IMAGE_HEIGHT);
+        // Extraction de la résolution (DPI)
+        if (metadonnees.aExifIFD0()) {
+            exifInfo.append("DPI: ")
+                    .append(metadonnees.getDpiX())
+                    .append(" x ")
+                    .append(metadonnees.getDpiY())
+                    .append("\n");
+        }
 
-                if (width != null && height != null) {
-                    exifInfo.append("Dimensions: ").append(width).append(" x ").append(height).append("\n");
-                } else {
-                    exifInfo.append("Dimensions: Non disponibles.\n");
-                }
-            }
+        // Extraction des dimensions (largeur et hauteur)
+        if (metadonnees.aExifSubIFD()) {
+            Integer width = metadonnees.getLargeurExif();
+            Integer height = metadonnees.getHauteurExif();
 
-            // Extraction des informations GPS
-            GpsDirectory gpsDirectory = metadata.getFirstDirectoryOfType(GpsDirectory.class);
-            if (gpsDirectory != null) {
-                exifInfo.append("GPS Location: ").append(gpsDirectory.getGeoLocation()).append("\n");
+            if (width != null && height != null) {
+                exifInfo.append("Dimensions: ").append(width).append(" x ").append(height).append("\n");
+            } else {
+                exifInfo.append("Dimensions: Non disponibles.\n");
             }
+        }
 
-        } catch (Exception e) {
-            exifInfo.append("Error extracting EXIF metadata: ").append(e.getMessage()).append("\n");
+        // Appareil, objectif et réglages de prise de vue
+        if (metadonnees.getMarque() != null || metadonnees.getModele() != null) {
+            exifInfo.append("Appareil: ")
+                    .append(metadonnees.getMarque() != null ? metadonnees.getMarque() : "")
+                    .append(metadonnees.getMarque() != null && metadonnees.getModele() != null ? " " : "")
+                    .append(metadonnees.getModele() != null ? metadonnees.getModele() : "")
+                    .append("\n");
+        }
+        if (metadonnees.getObjectif() != null) {
+            exifInfo.append("Objectif: ").append(metadonnees.getObjectif()).append("\n");
+        }
+        if (metadonnees.getIso() != null) {
+            exifInfo.append("ISO: ").append(metadonnees.getIso()).append("\n");
+        }
+        if (!Double.isNaN(metadonnees.getFocale())) {
+            exifInfo.append("Focale: ").append(metadonnees.getFocale()).append(" mm\n");
+        }
+        if (!Double.isNaN(metadonnees.getExposition())) {
+            double exposition = metadonnees.getExposition();
+            exifInfo.append("Exposition: ")
+                    .append(exposition > 0 && exposition < 1 ? "1/" + Math.round(1 / exposition) : String.valueOf(exposition))
+                    .append(" s\n");
+        }
+
+        // Date de prise de vue
+        if (metadonnees.getDateCapture() != DateCapture.ABSENTE) {
+            exifInfo.append("Date de prise de vue: ").append(DateCapture.formater(metadonnees.getDateCapture())).append("\n");
+        }
+
+        // Extraction des informations GPS
+        if (metadonnees.aGps()) {
+            exifInfo.append("GPS Location: ").append(metadonnees.getGpsTexte()).append("\n");
         }
 
         return exifInfo.toString();
@@ -93,31 +249,22 @@ public class Image {
      */
     public String ExtractXmpMetadata() {
         StringBuilder xmpInfo = new StringBuilder();
+        Metadonnees metadonnees = getMetadonnees();
 
-        try {
-            Metadata metadata = ImageMetadataReader.readMetadata(file);
-            XmpDirectory xmpDirectory = metadata.getFirstDirectoryOfType(XmpDirectory.class);
-
-            if (xmpDirectory != null) {
-                String title = xmpDirectory.getXmpProperties().get("dc:title[1]");
-                String description = xmpDirectory.getXmpProperties().get("dc:description[1]");
-                String creator = xmpDirectory.getXmpProperties().get("dc:creator[1]");
-
-                if (title != null) {
-                    xmpInfo.append("Titre : ").append(title).append("\n");
-                }
-                if (description != null) {
-                    xmpInfo.append("Description : ").append(description).append("\n");
-                }
-                if (creator != null) {
-                    xmpInfo.append("Createur : ").append(creator).append("\n");
-                }
-            } else {
-                xmpInfo.append("Il n'y a pas de métadonnées XMP.\n");
+        if (metadonnees.estEchec()) {
+            xmpInfo.append("Erreur de l'extraction des métadonnées XMP: ").append(metadonnees.getErreur()).append("\n");
+        } else if (metadonnees.aXmp()) {
+            if (metadonnees.getTitre() != null) {
+                xmpInfo.append("Titre : ").append(metadonnees.getTitre()).append("\n");
             }
-
-        } catch (Exception e) {
-            xmpInfo.append("Erreur de l'extraction des métadonnées XMP: ").append(e.getMessage()).append("\n");
+            if (metadonnees.getDescription() != null) {
+                xmpInfo.append("Description : ").append(metadonnees.getDescription()).append("\n");
+            }
+            if (metadonnees.getCreateur() != null) {
+                xmpInfo.append("Createur : ").append(metadonnees.getCreateur()).append("\n");
+            }
+        } else {
+            xmpInfo.append("Il n'y a pas de métadonnées XMP.\n");
         }
 
         return xmpInfo.toString();
@@ -129,49 +276,397 @@ public class Image {
      * @return {@code true} si des métadonnées EXIF sont présentes, sinon {@code false}
      */
     public boolean estExif() {
-        try {
-            Metadata metadata = ImageMetadataReader.readMetadata(file);
-            ExifIFD0Directory ifd0Directory = metadata.getFirstDirectoryOfType(ExifIFD0Directory.class);
-            ExifSubIFDDirectory dir = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
-            return dir != null && ifd0Directory != null;
-        } catch (Exception e) {
+        Metadonnees metadonnees = getMetadonnees();
+        if (metadonnees.estEchec()) {
             System.err.println("Erreur lors de l'extraction");
             return false;
         }
+        return metadonnees.aExifSubIFD() && metadonnees.aExifIFD0();
     }
 
     /**
-     * Récupère la hauteur de l'image à partir des métadonnées EXIF.
+     * Récupère la hauteur de l'image.
+     * La hauteur réelle est lue dans l'en-tête du fichier ; les métadonnées EXIF ne sont
+     * consultées que si l'en-tête ne permet pas de conclure (format sans sonde, fichier tronqué,
+     * en-tête illisible ou non reconnu d'une image que metadata-extractor sait analyser).
      *
      * @return la hauteur en pixels ou -1 en cas d'erreur
      */
     public int hauteur() {
-        try {
-            Metadata metadata = ImageMetadataReader.readMetadata(file);
-            ExifSubIFDDirectory dir = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
-            Integer hauteur = dir.getInteger(ExifSubIFDDirectory.TAG_EXIF_IMAGE_HEIGHT);
-            return hauteur;
-        } catch (Exception e) {
+        sonderEntete();
+        if (dimensionsEntete[1] > 0) {
+            return dimensionsEntete[1];
+        }
+        if (estNonImage()) {
+            // Pas une image : inutile de lancer l'analyse des métadonnées
             return -1;
         }
+        Integer hauteur = getMetadonnees().getHauteurExif();
+        return hauteur != null ? hauteur : -1;
     }
 
     /**
-     * Récupère la largeur de l'image à partir des métadonnées EXIF.
+     * Récupère la largeur de l'image.
+     * La largeur réelle est lue dans l'en-tête du fichier ; les métadonnées EXIF ne sont
+     * consultées que si l'en-tête ne permet pas de conclure (voir {@link #hauteur()}).
      *
      * @return la largeur en pixels ou -1 en cas d'erreur
      */
     public int largeur() {
-        try {
-            Metadata metadata = ImageMetadataReader.readMetadata(file);
-            ExifSubIFDDirectory dir = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
-            Integer largeur = dir.getInteger(ExifSubIFDDirectory.TAG_EXIF_IMAGE_WIDTH);
-            return largeur;
-        } catch (Exception e) {
+        sonderEntete();
+        if (dimensionsEntete[0] > 0) {
+            return dimensionsEntete[0];
+        }
+        if (estNonImage()) {
             return -1;
         }
+        Integer largeur = getMetadonnees().getLargeurExif();
+        return largeur != null ? largeur : -1;
+    }
+
+    /**
+     * Indique si les dimensions de l'image sont connues, qu'elles proviennent de l'en-tête
+     * du fichier (JPEG, PNG, WebP) ou des métadonnées EXIF.
+     *
+     * @return {@code true} si la largeur et la hauteur sont disponibles
+     */
+    public boolean aDimensions() {
+        return largeur() != -1 && hauteur() != -1;
+    }
+
+    /**
+     * Retourne le format du fichier identifié d'après ses premiers octets.
+     *
+     * @return une des constantes de format de {@link Renifleur}, {@link Renifleur#ILLISIBLE} si le début du fichier n'a pas pu être lu
+     */
+    public int getFormat() {
+        sonderEntete();
+        return format;
+    }
+
+    /**
+     * Retourne la miniature JPEG incorporée au bloc EXIF de l'image (répertoire IFD1), sans décoder l'image.
+     * Pour un JPEG, la miniature est copiée du segment EXIF lu avec les métadonnées ; pour un TIFF
+     * ou un format brut construit sur TIFF, elle est lue à sa position dans le fichier.
+     *
+     * @return les octets de la miniature (un JPEG complet), ou {@code null} si l'image n'en contient pas
+     */
+    public byte[] getMiniatureExif() {
+        Metadonnees m = metadonneesMiniature();
+        if (m.getMiniature() != null) {
+            return m.getMiniature();
+        }
+        long position = getPositionMiniature();
+        if (position < 0) {
+            return null;
+        }
+        byte[] octets = new byte[m.getLongueurMiniature()];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(position);
+            in.readFully(octets);
+        } catch (IOException e) {
+            return null;
+        }
+        // Miniature non compressée en JPEG : ignorée
+        return octets.length >= 2 && (octets[0] & 0xFF) == 0xFF && (octets[1] & 0xFF) == 0xD8 ? octets : null;
+    }
+
+    /**
+     * Retourne la position de la miniature EXIF dans le fichier, pour les JPEG et les fichiers construits sur TIFF.
+     *
+     * @return la position en octets depuis le début du fichier, -1 si la miniature est absente ou ne peut pas être située
+     */
+    public long getPositionMiniature() {
+        if (positionMiniature == -2) {
+            long position = -1;
+            Metadonnees m = metadonneesMiniature();
+            if (m.getPositionMiniature() >= 0) {
+                long tiff = positionTiff();
+                if (tiff >= 0) {
+                    position = tiff + m.getPositionMiniature();
+                }
+            }
+            positionMiniature = position;
+        }
+        return positionMiniature;
+    }
+
+    /**
+     * @return les métadonnées contenant la miniature : celles de l'image si son profil la demande,
+     *         sinon une lecture dédiée limitée au répertoire IFD1
+     */
+    private Metadonnees metadonneesMiniature() {
+        if (profil.contient(ProfilExtraction.Bloc.MINIATURE) || profil.estComplet()) {
+            return getMetadonnees();
+        }
+        if (metadonneesMiniature == null) {
+            metadonneesMiniature = new Image(file, ProfilExtraction.MINIATURE).getMetadonnees();
+        }
+        return metadonneesMiniature;
+    }
+
+    /**
+     * @return la position de l'en-tête TIFF à partir duquel sont comptés les décalages EXIF, -1 si elle est inconnue
+     */
+    private long positionTiff() {
+        switch (getFormat()) {
+            case Renifleur.TIFF:
+                return 0;
+            case Renifleur.JPEG:
+                try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                    return SondeDimensions.positionExif(in);
+                } catch (IOException e) {
+                    return -1;
+                }
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * @return les jetons de fichiers ouverts à prendre avant d'ouvrir le fichier
+     */
+    private Semaphore jetons() {
+        return jetons != null ? jetons : fichiersOuverts;
+    }
+
+    /**
+     * Identifie le format du fichier et lit ses dimensions dans l'en-tête avec {@link SondeDimensions}.
+     * La sonde n'est exécutée qu'une seule fois ; un fichier déjà reconnu comme n'étant pas une image
+     * par {@link CacheNegatif} n'est pas ouvert. Une erreur de lecture (droits, disparition, disque) laisse
+     * le format à {@link Renifleur#ILLISIBLE} sans être retenue : elle peut être passagère.
+     */
+    private void sonderEntete() {
+        if (format == -1) {
+            if (CacheNegatif.contient(file, CacheNegatif.NON_IMAGE)) {
+                format = Renifleur.INCONNU;
+                return;
+            }
+            Semaphore ouverts = jetons();
+            ouverts.acquireUninterruptibly();
+            try {
+                format = SondeDimensions.lire(file, dimensionsEntete);
+            } finally {
+                ouverts.release();
+            }
+            if (estNonImage()) {
+                CacheNegatif.ajouter(file, CacheNegatif.NON_IMAGE, null);
+            }
+        }
     }
-}
 
+    /**
+     * Indique si le fichier sondé n'est pas une image : son en-tête a été lu sans correspondre à aucun format
+     * connu de {@link Renifleur}, et son extension n'est pas celle d'une image que metadata-extractor sait analyser.
+     */
+    private boolean estNonImage() {
+        if (format != Renifleur.INCONNU) {
+            return false;
+        }
+        String nom = file.getName();
+        int point = nom.lastIndexOf('.');
+        return point < 0 || !EXTENSIONS_ANALYSABLES.contains(nom.substring(point + 1).toLowerCase(Locale.ROOT));
+    }
 
+    /**
+     * @return les extensions des types d'image de metadata-extractor ({@link FileType}) et des formats du registre
+     */
+    private static Set<String> extensionsAnalysables() {
+        Set<String> extensions = new HashSet<>();
+        EnumSet<FileType> bruts = EnumSet.of(FileType.Arw, FileType.Crw, FileType.Cr2, FileType.Crx,
+                FileType.Nef, FileType.Orf, FileType.Raf, FileType.Rw2);
+        for (FileType type : FileType.values()) {
+            String mime = type.getMimeType();
+            if (type.getAllExtensions() != null && (bruts.contains(type) || (mime != null && mime.startsWith("image/")))) {
+                for (String extension : type.getAllExtensions()) {
+                    extensions.add(extension.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        for (FormatImage format : Formats.tous()) {
+            for (String extension : format.getExtensions()) {
+                extensions.add(extension.toLowerCase(Locale.ROOT));
+            }
+        }
+        return extensions;
+    }
 
+    /**
+     * Retourne les métadonnées typées de l'image, limitées aux blocs de son profil d'extraction.
+     * Le fichier n'est lu et analysé qu'au premier appel, les appels suivants réutilisent le résultat.
+     *
+     * @return les métadonnées de l'image, marquées en échec si le fichier est illisible
+     */
+    public Metadonnees getMetadonnees() {
+        if (metadonnees == null) {
+            if (CacheNegatif.contient(file, CacheNegatif.ILLISIBLE)) {
+                String message = CacheNegatif.message(file);
+                metadonnees = Metadonnees.echec(new ImageProcessingException(message != null ? message : "Fichier illisible lors d'une analyse précédente"));
+                return metadonnees;
+            }
+            Semaphore ouverts = jetons();
+            ouverts.acquireUninterruptibly();
+            try {
+                long taille = file.length();
+                if (seuilProjection >= 0 && taille >= seuilProjection && (lectureEntete || taille <= Integer.MAX_VALUE)) {
+                    metadonnees = lireProjete(taille);
+                } else if (lectureEntete) {
+                    FluxEntete flux = new FluxEntete(new FileInputStream(file), plafondOctets);
+                    try {
+                        metadonnees = Metadonnees.depuis(profil.lire(new BufferedInputStream(flux)));
+                    } finally {
+                        octetsLus = flux.getOctetsLus();
+                        tronque = flux.estTronque();
+                        flux.close();
+                    }
+                } else if (profil.estComplet()) {
+                    metadonnees = Metadonnees.depuis(ImageMetadataReader.readMetadata(file));
+                } else {
+                    try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                        metadonnees = Metadonnees.depuis(profil.lire(in));
+                    }
+                }
+            } catch (Exception e) {
+                metadonnees = Metadonnees.echec(e);
+                if (estDefinitif(e)) {
+                    CacheNegatif.ajouter(file, CacheNegatif.ILLISIBLE, e.getMessage());
+                }
+            } finally {
+                ouverts.release();
+            }
+        }
+        return metadonnees;
+    }
+
+    /**
+     * Indique si l'échec d'une analyse tient au contenu du fichier et se reproduira à l'identique :
+     * seul un échec de l'analyse sur un contenu lu en entier, fin de fichier prématurée comprise, est retenu
+     * dans {@link CacheNegatif}.
+     * Une lecture écourtée par le plafond d'octets n'est pas retenue, pour que le fichier soit de nouveau analysé
+     * si le plafond est relevé ; une erreur d'entrée/sortie (fichier verrouillé, partage réseau indisponible,
+     * lecture interrompue) non plus, car elle peut être passagère.
+     *
+     * @param e l'exception levée par l'analyse
+     * @return {@code true} si le fichier peut être écarté tant qu'il n'est pas modifié
+     */
+    private boolean estDefinitif(Exception e) {
+        if (tronque) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            // Une fin de fichier atteinte sans plafond tient au contenu : le fichier est tronqué
+            if (cause instanceof IOException && !(cause instanceof EOFException)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lit les métadonnées depuis une projection en mémoire du début du fichier.
+     * Les segments d'un JPEG sont lus directement dans le tampon projeté par {@link LecteurProjete} ;
+     * les autres formats sont lus par {@link FluxProjete}. En mode en-tête, seule la zone couverte
+     * par le plafond est projetée et la lecture s'arrête à la fin des métadonnées.
+     *
+     * @param taille la taille du fichier en octets
+     * @return les métadonnées typées
+     * @throws Exception si le fichier ne peut pas être projeté ou analysé
+     */
+    private Metadonnees lireProjete(long taille) throws Exception {
+        long longueur = taille;
+        if (lectureEntete) {
+            longueur = Math.min(longueur, plafondOctets > 0 ? plafondOctets : Integer.MAX_VALUE);
+            longueur = Math.min(longueur, Integer.MAX_VALUE);
+        }
+        MappedByteBuffer tampon;
+        // Le canal peut être fermé dès la projection faite, la zone reste valide
+        try (FileChannel canal = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, longueur);
+        }
+        if (!profil.estComplet() && tampon.limit() >= 2 && (tampon.getShort(0) & 0xFFFF) == 0xFFD8) {
+            // JPEG : les segments retenus sont copiés directement de la projection vers les lecteurs,
+            // la zone projetée étant déjà bornée par le plafond
+            LecteurProjete lecteur = new LecteurProjete(tampon);
+            try {
+                return Metadonnees.depuis(profil.lireJpeg(lecteur));
+            } finally {
+                if (lectureEntete) {
+                    octetsLus = lecteur.getOctetsLus();
+                }
+                tronque = longueur < taille && lecteur.finAtteinte();
+            }
+        }
+        FluxProjete flux = new FluxProjete(tampon);
+        if (!lectureEntete) {
+            // Fichier projeté en entier : rien n'est écourté
+            return Metadonnees.depuis(profil.lire(flux));
+        }
+        FluxEntete entete = new FluxEntete(flux, plafondOctets);
+        try {
+            return Metadonnees.depuis(profil.lire(new BufferedInputStream(entete)));
+        } finally {
+            octetsLus = entete.getOctetsLus();
+            tronque = entete.estTronque() || (longueur < taille && flux.finAtteinte());
+        }
+    }
+
+    /**
+     * Retourne le nombre d'octets lus dans le fichier pour extraire les métadonnées.
+     *
+     * @return le nombre d'octets lus, ou -1 si le fichier n'a pas été lu en mode en-tête
+     */
+    public long getOctetsLus() {
+        return octetsLus;
+    }
+
+    /**
+     * Active ou désactive la lecture limitée à l'en-tête des fichiers.
+     *
+     * @param actif {@code true} pour s'arrêter à la fin des métadonnées, {@code false} pour lire le fichier entier
+     */
+    public static void setLectureEntete(boolean actif) {
+        lectureEntete = actif;
+    }
+
+    /**
+     * Définit le nombre maximal d'octets lus par fichier en mode en-tête.
+     *
+     * @param plafond le plafond en octets, 0 pour ne pas limiter
+     */
+    public static void setPlafondOctets(long plafond) {
+        plafondOctets = plafond;
+    }
+
+    /**
+     * @return le nombre maximal d'octets lus par fichier en mode en-tête
+     */
+    public static long getPlafondOctets() {
+        return plafondOctets;
+    }
+
+    /**
+     * Définit la taille de fichier à partir de laquelle les métadonnées sont lues par projection en mémoire.
+     *
+     * @param seuil la taille en octets, 0 pour projeter tous les fichiers, négative pour toujours lire par flux
+     */
+    public static void setSeuilProjection(long seuil) {
+        seuilProjection = seuil;
+    }
+
+    /**
+     * @return la taille de fichier à partir de laquelle la lecture passe par une projection en mémoire
+     */
+    public static long getSeuilProjection() {
+        return seuilProjection;
+    }
+
+    /**
+     * Définit le nombre maximal de fichiers ouverts simultanément pour lire des métadonnées.
+     * Les lectures au-delà attendent qu'un fichier soit refermé.
+     *
+     * @param max le nombre maximal de fichiers ouverts, au moins 1
+     */
+    public static void setMaxFichiersOuverts(int max) {
+        fichiersOuverts = new Semaphore(Math.max(1, max));
+    }
+}
@@ -0,0 +1,200 @@
+package fonctionnel;
+
+import java.util.Arrays;
+
+/**
+ * Index spatial en grille au-dessus des colonnes de coordonnées d'un {@link Catalogue}.
+ * <p>
+ * La surface du globe est découpée en cellules de {@link #PAS} degrés. Les numéros de ligne du catalogue
+ * sont triés par cellule dans un seul tableau d'entiers, et seules les cellules non vides sont conservées
+ * (triées par clé) : une recherche ne parcourt que les cellules qui recouvrent la zone demandée,
+ * puis vérifie les coordonnées exactes des lignes qu'elles contiennent.
+ */
+public final class IndexGeo {
+	/**
+	 * Côté d'une cellule en degrés (environ 5,5 km en latitude).
+	 */
+	public static final double PAS = 0.05;
+	/**
+	 * Rayon moyen de la Terre en kilomètres.
+	 */
+	public static final double RAYON_TERRE_KM = 6371.0088;
+
+	private static final int NB_LIGNES = (int) Math.round(180 / PAS);
+	private static final int NB_COLONNES = (int) Math.round(360 / PAS);
+
+	private final double[] latitudes;
+	private final double[] longitudes;
+	/**
+	 * Clés des cellules non vides, triées : {@code ligne * NB_COLONNES + colonne}.
+	 */
+	private final int[] cles;
+	/**
+	 * Début dans {@link #lignes} des entrées de chaque cellule ; {@code debuts[cles.length]} vaut le nombre d'entrées.
+	 */
+	private final int[] debuts;
+	/**
+	 * Numéros de ligne du catalogue regroupés par cellule.
+	 */
+	private final int[] lignes;
+
+	/**
+	 * Construit l'index des lignes géolocalisées. Les tableaux ne sont pas copiés
+	 * et ne doivent plus être modifiés tant que l'index est utilisé.
+	 *
+	 * @param latitudes  la colonne des latitudes, {@link Double#NaN} pour une ligne sans position
+	 * @param longitudes la colonne des longitudes
+	 * @param taille     le nombre de lignes utilisées dans les colonnes
+	 */
+	public IndexGeo(double[] latitudes, double[] longitudes, int taille) {
+		this.latitudes = latitudes;
+		this.longitudes = longitudes;
+
+		// Clé de cellule dans les 32 bits de poids fort, numéro de ligne dans les 32 bits de poids faible
+		long[] paires = new long[taille];
+		int n = 0;
+		for (int i = 0; i < taille; i++) {
+			// Les positions hors limites (EXIF corrompu) sont écartées, comme les lignes sans position
+			if (Math.abs(latitudes[i]) <= 90 && Math.abs(longitudes[i]) <= 180) {
+				paires[n++] = ((long) cle(ligneCellule(latitudes[i]), colonneCellule(longitudes[i])) << 32) | i;
+			}
+		}
+		Arrays.sort(paires, 0, n);
+
+		lignes = new int[n];
+		int[] c = new int[n];
+		int[] d = new int[n + 1];
+		int nbCellules = 0;
+		for (int k = 0; k < n; k++) {
+			int cle = (int) (paires[k] >>> 32);
+			lignes[k] = (int) paires[k];
+			if (nbCellules == 0 || c[nbCellules - 1] != cle) {
+				c[nbCellules] = cle;
+				d[nbCellules] = k;
+				nbCellules++;
+			}
+		}
+		d[nbCellules] = n;
+		cles = Arrays.copyOf(c, nbCellules);
+		debuts = Arrays.copyOf(d, nbCellules + 1);
+	}
+
+	/**
+	 * @return le nombre de lignes géolocalisées dans l'index
+	 */
+	public int taille() {
+		return lignes.length;
+	}
+
+	/**
+	 * Recherche les lignes situées dans un rectangle de coordonnées, bornes incluses.
+	 * Si {@code lonMin > lonMax}, le rectangle traverse l'antiméridien.
+	 *
+	 * @param latMin    la latitude minimale
+	 * @param lonMin    la longitude minimale (bord ouest)
+	 * @param latMax    la latitude maximale
+	 * @param lonMax    la longitude maximale (bord est)
+	 * @param resultats les numéros de ligne trouvés, ajoutés dans l'ordre des cellules
+	 */
+	public void boite(double latMin, double lonMin, double latMax, double lonMax, ListeEntiers resultats) {
+		if (lonMin > lonMax) {
+			boite(latMin, lonMin, latMax, 180, resultats);
+			boite(latMin, -180, latMax, lonMax, resultats);
+			return;
+		}
+		int l0 = ligneCellule(Math.max(-90, latMin));
+		int l1 = ligneCellule(Math.min(90, latMax));
+		int c0 = colonneCellule(Math.max(-180, lonMin));
+		int c1 = colonneCellule(Math.min(180, lonMax));
+		for (int l = l0; l <= l1; l++) {
+			int fin = cle(l, c1);
+			int k = Arrays.binarySearch(cles, cle(l, c0));
+			if (k < 0) {
+				k = -k - 1;
+			}
+			for (; k < cles.length && cles[k] <= fin; k++) {
+				for (int e = debuts[k]; e < debuts[k + 1]; e++) {
+					int i = lignes[e];
+					double lat = latitudes[i];
+					double lon = longitudes[i];
+					if (lat >= latMin && lat <= latMax && lon >= lonMin && lon <= lonMax) {
+						resultats.ajouter(i);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Recherche les lignes situées à moins d'une distance donnée d'un point (distance orthodromique).
+	 * Les cellules parcourues sont celles du rectangle qui englobe le cercle.
+	 *
+	 * @param lat       la latitude du centre
+	 * @param lon       la longitude du centre
+	 * @param km        le rayon en kilomètres
+	 * @param resultats les numéros de ligne trouvés
+	 */
+	public void rayon(double lat, double lon, double km, ListeEntiers resultats) {
+		double dLat = Math.toDegrees(km / RAYON_TERRE_KM);
+		double latMin = lat - dLat;
+		double latMax = lat + dLat;
+		ListeEntiers candidats = new ListeEntiers();
+		if (latMin <= -90 || latMax >= 90 || dLat >= 90) {
+			// Le cercle contient un pôle : toutes les longitudes sont concernées
+			boite(Math.max(-90, latMin), -180, Math.min(90, latMax), 180, candidats);
+		} else {
+			// Écart de longitude maximal atteint à la latitude la plus éloignée de l'équateur
+			double dLon = Math.toDegrees(Math.asin(Math.min(1, Math.sin(km / RAYON_TERRE_KM) / Math.cos(Math.toRadians(lat)))));
+			if (dLon >= 180 || Double.isNaN(dLon)) {
+				boite(latMin, -180, latMax, 180, candidats);
+			} else {
+				boite(latMin, normaliser(lon - dLon), latMax, normaliser(lon + dLon), candidats);
+			}
+		}
+		for (int k = 0; k < candidats.taille(); k++) {
+			int i = candidats.get(k);
+			if (distanceKm(lat, lon, latitudes[i], longitudes[i]) <= km) {
+				resultats.ajouter(i);
+			}
+		}
+	}
+
+	/**
+	 * Calcule la distance orthodromique entre deux points (formule de haversine).
+	 *
+	 * @param lat1 la latitude du premier point
+	 * @param lon1 la longitude du premier point
+	 * @param lat2 la latitude du second point
+	 * @param lon2 la longitude du second point
+	 * @return la distance en kilomètres
+	 */
+	public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+		double dLat = Math.toRadians(lat2 - lat1);
+		double dLon = Math.toRadians(lon2 - lon1);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+				+ Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+		return 2 * RAYON_TERRE_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	private static double normaliser(double lon) {
+		if (lon > 180) {
+			return lon - 360;
+		}
+		if (lon < -180) {
+			return lon + 360;
+		}
+		return lon;
+	}
+
+	private static int ligneCellule(double lat) {
+		return Math.min(NB_LIGNES - 1, (int) ((lat + 90) / PAS));
+	}
+
+	private static int colonneCellule(double lon) {
+		return Math.min(NB_COLONNES - 1, (int) ((lon + 180) / PAS));
+	}
+
+	private static int cle(int ligne, int colonne) {
+		return ligne * NB_COLONNES + colonne;
+	}
+}
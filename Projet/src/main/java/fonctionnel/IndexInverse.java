@@ -0,0 +1,144 @@
+package fonctionnel;
+
+import java.util.Arrays;
+
+/**
+ * Index inversé d'une colonne multivaluée d'un {@link Catalogue} (les mots-clés) : pour chaque code
+ * du dictionnaire, la liste triée des lignes qui le portent.
+ * <p>
+ * L'index est construit en deux passages sur la colonne, par un tri par dénombrement : le premier compte
+ * les lignes de chaque code, le second range les lignes, qui arrivent déjà dans l'ordre croissant.
+ * Toutes les listes sont stockées bout à bout dans un même tableau. Une recherche sur plusieurs codes
+ * combine les listes par intersection ou par union, sans parcourir la colonne.
+ */
+public final class IndexInverse {
+	/**
+	 * Début de la liste de chaque code dans {@link #lignes} ; la liste du code {@code c} va de
+	 * {@code debuts[c]} à {@code debuts[c + 1]} exclu.
+	 */
+	private final int[] debuts;
+	private final int[] lignes;
+
+	/**
+	 * Construit l'index d'une colonne multivaluée stockée en lignes compressées.
+	 *
+	 * @param debutsValeurs début des valeurs de chaque ligne dans {@code valeurs}, {@code taille + 1} cases
+	 * @param valeurs       les codes de toutes les lignes, bout à bout
+	 * @param taille        le nombre de lignes
+	 * @param nbCodes       le nombre de codes du dictionnaire
+	 */
+	public IndexInverse(int[] debutsValeurs, int[] valeurs, int taille, int nbCodes) {
+		debuts = new int[nbCodes + 1];
+		int fin = debutsValeurs[taille];
+		for (int k = 0; k < fin; k++) {
+			debuts[valeurs[k] + 1]++;
+		}
+		for (int c = 0; c < nbCodes; c++) {
+			debuts[c + 1] += debuts[c];
+		}
+		lignes = new int[fin];
+		int[] positions = Arrays.copyOf(debuts, nbCodes);
+		for (int i = 0; i < taille; i++) {
+			for (int k = debutsValeurs[i]; k < debutsValeurs[i + 1]; k++) {
+				lignes[positions[valeurs[k]]++] = i;
+			}
+		}
+	}
+
+	/**
+	 * @param code un code du dictionnaire
+	 * @return le nombre de lignes portant ce code
+	 */
+	public int frequence(int code) {
+		return debuts[code + 1] - debuts[code];
+	}
+
+	/**
+	 * Ajoute les lignes portant un code.
+	 *
+	 * @param code   le code recherché
+	 * @param trouve la liste des lignes trouvées
+	 */
+	public void contient(int code, ListeEntiers trouve) {
+		for (int k = debuts[code]; k < debuts[code + 1]; k++) {
+			trouve.ajouter(lignes[k]);
+		}
+	}
+
+	/**
+	 * Ajoute les lignes portant tous les codes. Les listes sont intersectées de la plus courte à la plus longue :
+	 * chaque ligne candidate est cherchée par dichotomie dans la liste suivante, à partir de la dernière position trouvée.
+	 *
+	 * @param codes  les codes recherchés
+	 * @param trouve la liste des lignes trouvées
+	 */
+	public void tous(int[] codes, ListeEntiers trouve) {
+		if (codes.length == 0) {
+			return;
+		}
+		Integer[] ordre = new Integer[codes.length];
+		for (int j = 0; j < codes.length; j++) {
+			ordre[j] = codes[j];
+		}
+		Arrays.sort(ordre, (a, b) -> Integer.compare(frequence(a), frequence(b)));
+
+		int[] candidats = Arrays.copyOfRange(lignes, debuts[ordre[0]], debuts[ordre[0] + 1]);
+		int n = candidats.length;
+		for (int j = 1; j < ordre.length && n > 0; j++) {
+			int position = debuts[ordre[j]];
+			int fin = debuts[ordre[j] + 1];
+			int retenus = 0;
+			for (int k = 0; k < n && position < fin; k++) {
+				int p = Arrays.binarySearch(lignes, position, fin, candidats[k]);
+				if (p >= 0) {
+					candidats[retenus++] = candidats[k];
+					position = p + 1;
+				} else {
+					position = -p - 1;
+				}
+			}
+			n = retenus;
+		}
+		for (int k = 0; k < n; k++) {
+			trouve.ajouter(candidats[k]);
+		}
+	}
+
+	/**
+	 * Ajoute les lignes portant au moins un des codes, chacune une seule fois et dans l'ordre croissant,
+	 * par fusions successives des listes triées.
+	 *
+	 * @param codes  les codes recherchés
+	 * @param trouve la liste des lignes trouvées
+	 */
+	public void un(int[] codes, ListeEntiers trouve) {
+		int[] union = new int[0];
+		for (int code : codes) {
+			int[] fusion = new int[union.length + frequence(code)];
+			int a = 0;
+			int b = debuts[code];
+			int fin = debuts[code + 1];
+			int n = 0;
+			while (a < union.length && b < fin) {
+				if (union[a] < lignes[b]) {
+					fusion[n++] = union[a++];
+				} else if (union[a] > lignes[b]) {
+					fusion[n++] = lignes[b++];
+				} else {
+					fusion[n++] = union[a++];
+					b++;
+				}
+			}
+			while (a < union.length) {
+				fusion[n++] = union[a++];
+			}
+			while (b < fin) {
+				fusion[n++] = lignes[b++];
+			}
+			union = n == fusion.length ? fusion : Arrays.copyOf(fusion, n);
+		}
+		for (int ligne : union) {
+			trouve.ajouter(ligne);
+		}
+	}
+}
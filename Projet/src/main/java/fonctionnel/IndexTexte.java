@@ -0,0 +1,138 @@
+package fonctionnel;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index plein texte des champs XMP d'un {@link Catalogue} (titre, description et créateur).
+ * <p>
+ * Les textes sont découpés en termes par {@link #termes(String)} ; chaque terme reçoit un code de dictionnaire
+ * et l'{@link IndexInverse} associe à chaque code la liste triée des lignes qui le contiennent.
+ * Les termes sont aussi rangés par ordre alphabétique, si bien qu'un préfixe ({@code harb*}) désigne
+ * un intervalle de termes dont les listes sont réunies.
+ */
+public final class IndexTexte {
+	private final IndexInverse index;
+	/**
+	 * Termes du dictionnaire par ordre alphabétique, avec leur code.
+	 */
+	private final NavigableMap<String, Integer> termes = new TreeMap<>();
+
+	/**
+	 * Construit l'index d'une colonne de termes stockée en lignes compressées.
+	 *
+	 * @param debuts       début des termes de chaque ligne dans {@code codes}, {@code taille + 1} cases
+	 * @param codes        les codes des termes de toutes les lignes, bout à bout
+	 * @param taille       le nombre de lignes
+	 * @param dictionnaire le dictionnaire des termes
+	 */
+	public IndexTexte(int[] debuts, int[] codes, int taille, Dictionnaire dictionnaire) {
+		index = new IndexInverse(debuts, codes, taille, dictionnaire.taille());
+		for (int code = 0; code < dictionnaire.taille(); code++) {
+			termes.put(dictionnaire.valeur(code), code);
+		}
+	}
+
+	/**
+	 * Découpe un texte en termes : suites de lettres et de chiffres, en minuscules et sans accents.
+	 *
+	 * @param texte le texte, éventuellement {@code null}
+	 * @return les termes dans l'ordre du texte, doublons compris
+	 */
+	public static List<String> termes(String texte) {
+		List<String> resultat = new ArrayList<>();
+		if (texte == null) {
+			return resultat;
+		}
+		String decompose = Normalizer.normalize(texte, Normalizer.Form.NFD);
+		StringBuilder terme = new StringBuilder();
+		for (int i = 0; i <= decompose.length(); i++) {
+			char c = i < decompose.length() ? decompose.charAt(i) : ' ';
+			if (Character.getType(c) == Character.NON_SPACING_MARK) {
+				continue;
+			}
+			if (Character.isLetterOrDigit(c)) {
+				terme.append(c);
+			} else if (terme.length() > 0) {
+				resultat.add(terme.toString().toLowerCase(Locale.ROOT));
+				terme.setLength(0);
+			}
+		}
+		return resultat;
+	}
+
+	/**
+	 * Recherche les lignes contenant tous les mots d'une requête. Un mot terminé par {@code *} désigne
+	 * tous les termes commençant par ce préfixe.
+	 *
+	 * @param requete les mots recherchés, séparés par des espaces
+	 * @param trouve  la liste des lignes trouvées, dans l'ordre croissant
+	 */
+	public void rechercher(String requete, ListeEntiers trouve) {
+		int[] resultat = null;
+		for (String mot : requete.trim().split("\\s+")) {
+			boolean prefixe = mot.endsWith("*");
+			List<String> morceaux = termes(mot);
+			for (int k = 0; k < morceaux.size(); k++) {
+				// Seul le dernier morceau d'un mot comme "port-de-b*" est un préfixe
+				int[] lignes = lignes(morceaux.get(k), prefixe && k == morceaux.size() - 1);
+				resultat = resultat == null ? lignes : intersection(resultat, lignes);
+				if (resultat.length == 0) {
+					return;
+				}
+			}
+		}
+		if (resultat != null) {
+			for (int ligne : resultat) {
+				trouve.ajouter(ligne);
+			}
+		}
+	}
+
+	/**
+	 * @return les lignes contenant un terme, ou un des termes commençant par un préfixe
+	 */
+	private int[] lignes(String terme, boolean prefixe) {
+		ListeEntiers codes = new ListeEntiers();
+		if (prefixe) {
+			for (Integer code : termes.subMap(terme, true, terme + Character.MAX_VALUE, false).values()) {
+				codes.ajouter(code);
+			}
+		} else {
+			Integer code = termes.get(terme);
+			if (code != null) {
+				codes.ajouter(code);
+			}
+		}
+		ListeEntiers lignes = new ListeEntiers();
+		index.un(codes.versTableau(), lignes);
+		return lignes.versTableau();
+	}
+
+	/**
+	 * Intersection de deux listes triées sans doublon.
+	 */
+	private static int[] intersection(int[] a, int[] b) {
+		int[] resultat = new int[Math.min(a.length, b.length)];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				resultat[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(resultat, n);
+	}
+}
@@ -0,0 +1,93 @@
+package fonctionnel;
+
+import java.util.Arrays;
+
+/**
+ * Index trié au-dessus d'une colonne de valeurs {@code long} d'un {@link Catalogue}.
+ * <p>
+ * Les numéros de ligne sont rangés par valeur croissante à côté d'une copie triée des valeurs :
+ * une recherche par intervalle se résout par deux recherches dichotomiques, puis la lecture
+ * des lignes comprises entre les deux bornes.
+ */
+public final class IndexTrie {
+	private final long[] valeurs;
+	private final int[] lignes;
+
+	/**
+	 * Construit l'index d'une colonne.
+	 *
+	 * @param colonne la colonne de valeurs
+	 * @param taille  le nombre de lignes utilisées dans la colonne
+	 * @param absente la valeur marquant une ligne sans valeur, exclue de l'index
+	 */
+	public IndexTrie(long[] colonne, int taille, long absente) {
+		int n = 0;
+		int[] l = new int[taille];
+		for (int i = 0; i < taille; i++) {
+			if (colonne[i] != absente) {
+				l[n++] = i;
+			}
+		}
+		lignes = trier(Arrays.copyOf(l, n), colonne);
+		valeurs = new long[n];
+		for (int k = 0; k < n; k++) {
+			valeurs[k] = colonne[lignes[k]];
+		}
+	}
+
+	/**
+	 * Recherche les lignes dont la valeur est comprise entre deux bornes incluses.
+	 *
+	 * @param min       la borne inférieure
+	 * @param max       la borne supérieure
+	 * @param resultats les numéros de ligne trouvés, par valeur croissante
+	 */
+	public void plage(long min, long max, ListeEntiers resultats) {
+		for (int k = premier(min); k < valeurs.length && valeurs[k] <= max; k++) {
+			resultats.ajouter(lignes[k]);
+		}
+	}
+
+	/**
+	 * @return la position de la première valeur supérieure ou égale à {@code min}
+	 */
+	private int premier(long min) {
+		int bas = 0;
+		int haut = valeurs.length;
+		while (bas < haut) {
+			int milieu = (bas + haut) >>> 1;
+			if (valeurs[milieu] < min) {
+				bas = milieu + 1;
+			} else {
+				haut = milieu;
+			}
+		}
+		return bas;
+	}
+
+	/**
+	 * Tri fusion stable des numéros de ligne selon leur valeur dans la colonne, sans objet intermédiaire.
+	 */
+	private static int[] trier(int[] l, long[] cles) {
+		int[] tampon = new int[l.length];
+		for (int largeur = 1; largeur < l.length; largeur *= 2) {
+			for (int debut = 0; debut < l.length; debut += 2 * largeur) {
+				int milieu = Math.min(debut + largeur, l.length);
+				int fin = Math.min(debut + 2 * largeur, l.length);
+				int a = debut;
+				int b = milieu;
+				for (int k = debut; k < fin; k++) {
+					if (a < milieu && (b >= fin || cles[l[a]] <= cles[l[b]])) {
+						tampon[k] = l[a++];
+					} else {
+						tampon[k] = l[b++];
+					}
+				}
+			}
+			int[] echange = l;
+			l = tampon;
+			tampon = echange;
+		}
+		return l;
+	}
+}
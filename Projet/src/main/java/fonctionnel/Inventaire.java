@@ -0,0 +1,79 @@
+package fonctionnel;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Inventaire d'un répertoire : les fichiers de son arborescence (hors dossiers exclus, voir {@link Exclusions}) avec les attributs
+ * lus pendant le parcours, gardés en mémoire pour que tous les critères d'une même recherche soient évalués
+ * sur un seul parcours.
+ * <p>
+ * Une recherche combinée de la ligne de commande ({@code -eqdate} précédé de deux choix, par exemple) évalue
+ * ainsi trois critères sur la même liste au lieu de parcourir trois fois le répertoire. Les dimensions des images
+ * sont lues à la première demande et conservées dans chaque {@link Fichier}, si bien qu'un critère de largeur
+ * suivi d'un critère de hauteur ne lit chaque en-tête qu'une fois.
+ * <p>
+ * Comme le {@link Catalogue}, l'inventaire est conservé jusqu'à {@link #oublier(File)} : la ligne de commande
+ * le garde le temps d'une invocation, l'interface graphique les oublie tous deux avant chaque recherche.
+ */
+public final class Inventaire {
+	/**
+	 * Inventaires déjà dressés, par chemin absolu du répertoire.
+	 */
+	private static final Map<String, Inventaire> DRESSES = new HashMap<>();
+
+	private final List<Fichier> fichiers;
+
+	private Inventaire(List<Fichier> fichiers) {
+		this.fichiers = fichiers;
+	}
+
+	/**
+	 * Retourne l'inventaire d'un répertoire, dressé par un parcours lors du premier appel pour ce répertoire,
+	 * puis conservé en mémoire pour les appels suivants.
+	 *
+	 * @param d le répertoire
+	 * @return l'inventaire du répertoire
+	 */
+	public static synchronized Inventaire de(File d) {
+		String racine = d.getAbsolutePath();
+		Inventaire inventaire = DRESSES.get(racine);
+		if (inventaire == null) {
+			inventaire = new Inventaire(Collections.unmodifiableList(Parcours.entrees(d, Exclusions.pour(d).parcourus(), f -> true)));
+			DRESSES.put(racine, inventaire);
+		}
+		return inventaire;
+	}
+
+	/**
+	 * Oublie l'inventaire d'un répertoire : le prochain appel à {@link #de(File)} parcourra de nouveau
+	 * le répertoire et prendra en compte les fichiers ajoutés, supprimés ou modifiés entre-temps.
+	 *
+	 * @param d le répertoire
+	 */
+	public static synchronized void oublier(File d) {
+		DRESSES.remove(d.getAbsolutePath());
+	}
+
+	/**
+	 * @return les fichiers de l'inventaire, dans l'ordre du parcours
+	 */
+	public List<Fichier> fichiers() {
+		return fichiers;
+	}
+
+	/**
+	 * Ajoute à une liste les fichiers de l'inventaire qui vérifient un critère, sans parcourir le répertoire.
+	 *
+	 * @param critere le critère, par exemple {@link Repertoire#critere_date(String)}
+	 * @param trouves la liste des fichiers trouvés, dans l'ordre du parcours
+	 */
+	public void filtrer(Predicate<Fichier> critere, ArrayList<File> trouves) {
+		trouves.addAll(Parcours.filtrer(fichiers, critere));
+	}
+}
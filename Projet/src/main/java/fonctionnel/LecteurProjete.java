@@ -0,0 +1,104 @@
+package fonctionnel;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.drew.lang.SequentialReader;
+
+/**
+ * Lecteur séquentiel de metadata-extractor au-dessus d'une zone de fichier projetée en mémoire.
+ * <p>
+ * Le lecteur de segments JPEG copie chaque segment retenu directement depuis la projection dans le tableau
+ * transmis aux lecteurs de métadonnées, sans passer par un flux ni par un tampon intermédiaire ;
+ * les segments sautés avancent seulement la position, si bien que leurs pages ne sont jamais chargées.
+ * Comme pour {@link FluxProjete}, une demande qui dépasse la fin de la zone est signalée par {@link #finAtteinte()}.
+ */
+public class LecteurProjete extends SequentialReader {
+	private final ByteBuffer tampon;
+	private final int debut;
+	private long octetsLus;
+	private boolean finAtteinte;
+
+	/**
+	 * Constructeur du lecteur.
+	 *
+	 * @param tampon la zone projetée, lue de sa position courante jusqu'à sa limite
+	 */
+	public LecteurProjete(ByteBuffer tampon) {
+		this.tampon = tampon;
+		this.debut = tampon.position();
+	}
+
+	/**
+	 * @return le nombre d'octets copiés depuis la projection (hors octets sautés)
+	 */
+	public long getOctetsLus() {
+		return octetsLus;
+	}
+
+	/**
+	 * @return {@code true} si une lecture ou un saut a demandé des octets au-delà de la fin de la zone projetée
+	 */
+	public boolean finAtteinte() {
+		return finAtteinte;
+	}
+
+	@Override
+	public long getPosition() {
+		return tampon.position() - debut;
+	}
+
+	@Override
+	public byte getByte() throws IOException {
+		if (!tampon.hasRemaining()) {
+			finAtteinte = true;
+			throw new EOFException("Fin de la zone projetée");
+		}
+		octetsLus++;
+		return tampon.get();
+	}
+
+	@Override
+	public byte[] getBytes(int count) throws IOException {
+		byte[] octets = new byte[count];
+		getBytes(octets, 0, count);
+		return octets;
+	}
+
+	@Override
+	public void getBytes(byte[] buffer, int offset, int count) throws IOException {
+		if (count > tampon.remaining()) {
+			finAtteinte = true;
+			throw new EOFException("Fin de la zone projetée");
+		}
+		tampon.get(buffer, offset, count);
+		octetsLus += count;
+	}
+
+	@Override
+	public void skip(long n) throws IOException {
+		if (!trySkip(n)) {
+			throw new EOFException("Fin de la zone projetée");
+		}
+	}
+
+	@Override
+	public boolean trySkip(long n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("Le nombre d'octets à sauter doit être positif ou nul");
+		}
+		int saute = (int) Math.min(n, tampon.remaining());
+		tampon.position(tampon.position() + saute);
+		if (saute != n) {
+			finAtteinte = true;
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int available() {
+		return tampon.remaining();
+	}
+}
@@ -0,0 +1,226 @@
+package fonctionnel;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Lecture en un seul passage (StAX) des propriétés XMP courantes : titre, description, créateur,
+ * mots-clés et date de prise de vue.
+ * <p>
+ * Le paquet est parcouru comme un flux d'événements XML sans construire d'arbre, si bien que son coût
+ * ne dépend pas de la taille de l'historique de modifications qu'il contient.
+ * Pour une propriété tableau (rdf:Alt, rdf:Seq, rdf:Bag), seul le premier élément est retenu,
+ * comme {@code dc:title[1]} dans le modèle XMP complet ; seuls les mots-clés (dc:subject) sont tous retenus.
+ */
+public final class LecteurXmp {
+	private static final String NS_DC = "http://purl.org/dc/elements/1.1/";
+	private static final String NS_RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+	private static final String NS_XMP = "http://ns.adobe.com/xap/1.0/";
+	private static final String NS_EXIF = "http://ns.adobe.com/exif/1.0/";
+	private static final String NS_PHOTOSHOP = "http://ns.adobe.com/photoshop/1.0/";
+
+	/**
+	 * Propriétés retenues ; les dates sont rangées par ordre de priorité décroissante.
+	 */
+	private static final int AUCUNE = -1;
+	private static final int TITRE = 0;
+	private static final int DESCRIPTION = 1;
+	private static final int CREATEUR = 2;
+	private static final int DATE_ORIGINALE = 3;
+	private static final int DATE_CREEE = 4;
+	private static final int DATE_CREATION = 5;
+	private static final int SUJET = 6;
+
+	private static final XMLInputFactory FABRIQUE = creerFabrique();
+
+	private String titre;
+	private String description;
+	private String createur;
+	private final List<String> sujets = new ArrayList<>();
+	/**
+	 * Dates de prise de vue trouvées, indexées par priorité : exif:DateTimeOriginal,
+	 * photoshop:DateCreated puis xmp:CreateDate.
+	 */
+	private final String[] dates = new String[3];
+
+	private LecteurXmp() {
+	}
+
+	/**
+	 * Analyse un paquet XMP.
+	 *
+	 * @param paquet les octets du paquet
+	 * @return les propriétés trouvées
+	 * @throws XMLStreamException si le paquet n'est pas du XML valide
+	 */
+	public static LecteurXmp lire(byte[] paquet) throws XMLStreamException {
+		LecteurXmp lecteur = new LecteurXmp();
+		XMLStreamReader xml = FABRIQUE.createXMLStreamReader(new ByteArrayInputStream(paquet));
+		try {
+			lecteur.parcourir(xml);
+		} finally {
+			xml.close();
+		}
+		return lecteur;
+	}
+
+	/**
+	 * @return le titre (dc:title) ou {@code null}
+	 */
+	public String getTitre() {
+		return titre;
+	}
+
+	/**
+	 * @return la description (dc:description) ou {@code null}
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return le créateur (dc:creator) ou {@code null}
+	 */
+	public String getCreateur() {
+		return createur;
+	}
+
+	/**
+	 * @return les mots-clés (éléments de dc:subject) dans l'ordre du paquet, vide s'il n'y en a pas
+	 */
+	public List<String> getSujets() {
+		return sujets;
+	}
+
+	/**
+	 * @return la date de prise de vue (exif:DateTimeOriginal, à défaut photoshop:DateCreated ou xmp:CreateDate)
+	 *         au format ISO 8601, ou {@code null}
+	 */
+	public String getDateCapture() {
+		for (String date : dates) {
+			if (date != null) {
+				return date;
+			}
+		}
+		return null;
+	}
+
+	private void parcourir(XMLStreamReader xml) throws XMLStreamException {
+		// Propriété retenue en cours, profondeur de son élément et texte accumulé
+		int propriete = AUCUNE;
+		int profondeurPropriete = 0;
+		int profondeur = 0;
+		StringBuilder texte = new StringBuilder();
+		boolean valeurTrouvee = false;
+
+		while (xml.hasNext()) {
+			switch (xml.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					profondeur++;
+					if (propriete == AUCUNE) {
+						int retenue = propriete(xml.getNamespaceURI(), xml.getLocalName());
+						if (retenue != AUCUNE) {
+							propriete = retenue;
+							profondeurPropriete = profondeur;
+							texte.setLength(0);
+							valeurTrouvee = false;
+						} else if (NS_RDF.equals(xml.getNamespaceURI()) && "Description".equals(xml.getLocalName())) {
+							// Forme abrégée : propriétés simples en attributs de rdf:Description
+							for (int i = 0; i < xml.getAttributeCount(); i++) {
+								affecter(propriete(xml.getAttributeNamespace(i), xml.getAttributeLocalName(i)), xml.getAttributeValue(i));
+							}
+						}
+					} else if (!valeurTrouvee && NS_RDF.equals(xml.getNamespaceURI()) && "li".equals(xml.getLocalName())) {
+						texte.setLength(0);
+					}
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+					if (propriete != AUCUNE && !valeurTrouvee) {
+						texte.append(xml.getText());
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (propriete != AUCUNE) {
+						if (profondeur == profondeurPropriete) {
+							if (!valeurTrouvee) {
+								// Valeur simple sans conteneur RDF
+								affecter(propriete, texte.toString().trim());
+							}
+							propriete = AUCUNE;
+						} else if (!valeurTrouvee && NS_RDF.equals(xml.getNamespaceURI()) && "li".equals(xml.getLocalName())) {
+							affecter(propriete, texte.toString());
+							// Les mots-clés forment un sac : tous les éléments sont lus
+							valeurTrouvee = propriete != SUJET;
+						}
+					}
+					profondeur--;
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * @return le code de la propriété retenue portant ce nom, ou {@link #AUCUNE}
+	 */
+	private static int propriete(String espace, String nom) {
+		if (NS_DC.equals(espace)) {
+			if ("title".equals(nom)) {
+				return TITRE;
+			}
+			if ("description".equals(nom)) {
+				return DESCRIPTION;
+			}
+			if ("creator".equals(nom)) {
+				return CREATEUR;
+			}
+			if ("subject".equals(nom)) {
+				return SUJET;
+			}
+		} else if (NS_EXIF.equals(espace) && "DateTimeOriginal".equals(nom)) {
+			return DATE_ORIGINALE;
+		} else if (NS_PHOTOSHOP.equals(espace) && "DateCreated".equals(nom)) {
+			return DATE_CREEE;
+		} else if (NS_XMP.equals(espace) && "CreateDate".equals(nom)) {
+			return DATE_CREATION;
+		}
+		return AUCUNE;
+	}
+
+	/**
+	 * Retient la première valeur non vide rencontrée pour une propriété, ou chaque mot-clé.
+	 */
+	private void affecter(int propriete, String valeur) {
+		if (propriete == AUCUNE || valeur == null || valeur.isEmpty()) {
+			return;
+		}
+		if (propriete == SUJET) {
+			sujets.add(valeur);
+		} else if (propriete == TITRE && titre == null) {
+			titre = valeur;
+		} else if (propriete == DESCRIPTION && description == null) {
+			description = valeur;
+		} else if (propriete == CREATEUR && createur == null) {
+			createur = valeur;
+		} else if (propriete >= DATE_ORIGINALE && propriete <= DATE_CREATION && dates[propriete - DATE_ORIGINALE] == null) {
+			dates[propriete - DATE_ORIGINALE] = valeur.trim();
+		}
+	}
+
+	private static XMLInputFactory creerFabrique() {
+		XMLInputFactory fabrique = XMLInputFactory.newInstance();
+		// Un paquet XMP n'a ni DTD ni entité externe : on les refuse
+		fabrique.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		fabrique.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		fabrique.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return fabrique;
+	}
+}
@@ -0,0 +1,72 @@
+package fonctionnel;
+
+import java.util.Arrays;
+
+/**
+ * Liste d'entiers primitifs à capacité croissante, utilisée pour les numéros de ligne d'un {@link Catalogue}
+ * sans passer par des objets {@link Integer}.
+ */
+public final class ListeEntiers {
+	private int[] valeurs;
+	private int taille;
+
+	/**
+	 * Construit une liste vide.
+	 */
+	public ListeEntiers() {
+		this(16);
+	}
+
+	/**
+	 * Construit une liste vide d'une capacité initiale donnée.
+	 *
+	 * @param capacite le nombre d'entiers pouvant être ajoutés sans réallocation
+	 */
+	public ListeEntiers(int capacite) {
+		valeurs = new int[Math.max(1, capacite)];
+	}
+
+	/**
+	 * Ajoute un entier en fin de liste.
+	 *
+	 * @param valeur l'entier à ajouter
+	 */
+	public void ajouter(int valeur) {
+		if (taille == valeurs.length) {
+			valeurs = Arrays.copyOf(valeurs, taille * 2);
+		}
+		valeurs[taille++] = valeur;
+	}
+
+	/**
+	 * @param i la position, entre 0 et {@link #taille()} exclu
+	 * @return l'entier à cette position
+	 */
+	public int get(int i) {
+		if (i >= taille) {
+			throw new IndexOutOfBoundsException("Position " + i + ", taille " + taille);
+		}
+		return valeurs[i];
+	}
+
+	/**
+	 * @return le nombre d'entiers de la liste
+	 */
+	public int taille() {
+		return taille;
+	}
+
+	/**
+	 * Trie la liste par ordre croissant.
+	 */
+	public void trier() {
+		Arrays.sort(valeurs, 0, taille);
+	}
+
+	/**
+	 * @return une copie des entiers de la liste, ajustée à sa taille
+	 */
+	public int[] versTableau() {
+		return Arrays.copyOf(valeurs, taille);
+	}
+}
@@ -0,0 +1,170 @@
+package fonctionnel;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * Mesures de performance de l'extraction des métadonnées sur un répertoire réel.
+ */
+public class Mesures {
+	/**
+	 * Bornes supérieures (exclues) des classes de taille de fichier utilisées pour ventiler les mesures.
+	 */
+	private static final long[] BORNES = {16L * 1024, 64L * 1024, 256L * 1024, 1024L * 1024, 8L * 1024 * 1024, 64L * 1024 * 1024, Long.MAX_VALUE};
+	private static final String[] LIBELLES = {"< 16 Ko", "16 Ko - 64 Ko", "64 Ko - 256 Ko", "256 Ko - 1 Mo", "1 Mo - 8 Mo", "8 Mo - 64 Mo", ">= 64 Mo"};
+
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private Mesures() {
+	}
+
+	/**
+	 * Compare la lecture par flux et la lecture par projection en mémoire sur toutes les images d'un répertoire.
+	 * Chaque mode est exécuté {@code tours} fois après un tour de chauffe ; le temps moyen par fichier
+	 * est affiché pour chaque classe de taille, ce qui situe le seuil de projection adapté à la machine.
+	 * Le cache négatif est désactivé pendant la mesure pour que chaque tour lise réellement les fichiers.
+	 *
+	 * @param directoryPath le chemin du répertoire contenant les images
+	 * @param tours         le nombre de tours mesurés par mode
+	 */
+	public static void comparerLectures(String directoryPath, int tours) {
+		File directory = new File(directoryPath);
+		if (!directory.exists() || !directory.isDirectory()) {
+			System.out.println("Erreur : Le chemin spécifié n'est pas un répertoire valide.");
+			return;
+		}
+
+		ArrayList<File> images = new ArrayList<>();
+		Repertoire.listerImages(directory, images);
+		if (images.isEmpty()) {
+			System.out.println("Aucune image à mesurer.");
+			return;
+		}
+
+		long seuil = Image.getSeuilProjection();
+		boolean cache = CacheNegatif.isActif();
+		try {
+			CacheNegatif.setActif(false);
+			Image.setSeuilProjection(-1);
+			long[] flux = mesurer(images, tours);
+			Image.setSeuilProjection(0);
+			long[] projection = mesurer(images, tours);
+
+			int[] effectifs = new int[BORNES.length];
+			for (File f : images) {
+				effectifs[classe(f.length())]++;
+			}
+
+			System.out.println("\n======= Lecture des métadonnées : flux / projection =======");
+			System.out.println("Images : " + images.size() + ", tours : " + tours);
+			System.out.println(String.format("%-16s %8s %14s %14s", "Taille", "Fichiers", "Flux (µs)", "Projection (µs)"));
+			for (int c = 0; c < BORNES.length; c++) {
+				if (effectifs[c] == 0) {
+					continue;
+				}
+				long n = (long) effectifs[c] * tours;
+				System.out.println(String.format("%-16s %8d %14d %14d", LIBELLES[c], effectifs[c], flux[c] / n / 1000, projection[c] / n / 1000));
+			}
+		} finally {
+			Image.setSeuilProjection(seuil);
+			CacheNegatif.setActif(cache);
+		}
+	}
+
+	/**
+	 * Mesure la mémoire allouée par fichier pour décider si un fichier est une image exploitable,
+	 * sur tous les fichiers d'un répertoire : avant, par une lecture des métadonnées ; après, par le renifleur
+	 * d'en-tête seul puis par la sonde des dimensions.
+	 * Les octets alloués sont lus dans les compteurs par fil de la JVM (HotSpot). Le cache négatif est désactivé
+	 * pendant la mesure : sans cela, le tour de chauffe l'alimenterait et le tour mesuré n'ouvrirait plus les fichiers.
+	 *
+	 * @param directoryPath le chemin du répertoire à parcourir
+	 */
+	public static void comparerAllocations(String directoryPath) {
+		java.lang.management.ThreadMXBean jmx = ManagementFactory.getThreadMXBean();
+		if (!(jmx instanceof com.sun.management.ThreadMXBean)) {
+			System.out.println("Mesure des allocations indisponible sur cette JVM.");
+			return;
+		}
+		com.sun.management.ThreadMXBean compteurs = (com.sun.management.ThreadMXBean) jmx;
+		ArrayList<File> fichiers = new ArrayList<>();
+		collecterFichiers(new File(directoryPath), fichiers);
+		if (fichiers.isEmpty()) {
+			System.out.println("Aucun fichier à mesurer.");
+			return;
+		}
+
+		String[] libelles = {"Avant : lecture des métadonnées", "Après : renifleur d'en-tête", "Après : sonde des dimensions"};
+		System.out.println("\n======= Allocations par fichier =======");
+		System.out.println("Fichiers : " + fichiers.size());
+		System.out.println(String.format("%-34s %14s %12s", "Vérification", "Octets/fichier", "Durée (µs)"));
+		long fil = Thread.currentThread().getId();
+		boolean cache = CacheNegatif.isActif();
+		try {
+			CacheNegatif.setActif(false);
+			for (int mode = 0; mode < libelles.length; mode++) {
+				// Tour de chauffe pour que le compilateur à la volée ait optimisé le chemin mesuré
+				verifier(fichiers, mode);
+				long octets = compteurs.getThreadAllocatedBytes(fil);
+				long debut = System.nanoTime();
+				verifier(fichiers, mode);
+				long duree = System.nanoTime() - debut;
+				octets = compteurs.getThreadAllocatedBytes(fil) - octets;
+				System.out.println(String.format("%-34s %14d %12d", libelles[mode], octets / fichiers.size(), duree / fichiers.size() / 1000));
+			}
+		} finally {
+			CacheNegatif.setActif(cache);
+		}
+	}
+
+	private static void verifier(ArrayList<File> fichiers, int mode) {
+		for (File f : fichiers) {
+			switch (mode) {
+				case 0:
+					new Image(f, ProfilExtraction.DIMENSIONS).getMetadonnees();
+					break;
+				case 1:
+					Renifleur.format(f);
+					break;
+				default:
+					new Image(f, ProfilExtraction.DIMENSIONS).aDimensions();
+					break;
+			}
+		}
+	}
+
+	private static void collecterFichiers(File d, ArrayList<File> fichiers) {
+		fichiers.addAll(Parcours.fichiers(d, f -> true));
+	}
+
+	/**
+	 * Extrait les métadonnées de chaque image et cumule les durées par classe de taille.
+	 * Un tour de chauffe non mesuré précède les tours mesurés.
+	 *
+	 * @return les durées cumulées en nanosecondes, indexées par classe de taille
+	 */
+	private static long[] mesurer(ArrayList<File> images, int tours) {
+		long[] durees = new long[BORNES.length];
+		for (int t = 0; t <= tours; t++) {
+			for (File f : images) {
+				long debut = System.nanoTime();
+				new Image(f).getMetadonnees();
+				long duree = System.nanoTime() - debut;
+				if (t > 0) {
+					durees[classe(f.length())] += duree;
+				}
+			}
+		}
+		return durees;
+	}
+
+	private static int classe(long taille) {
+		int c = 0;
+		while (taille >= BORNES[c]) {
+			c++;
+		}
+		return c;
+	}
+}
@@ -0,0 +1,538 @@
+package fonctionnel;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPIterator;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.adobe.internal.xmp.properties.XMPPropertyInfo;
+
+import com.drew.lang.GeoLocation;
+import com.drew.lang.Rational;
+import com.drew.metadata.Metadata;
+import com.drew.metadata.exif.ExifIFD0Directory;
+import com.drew.metadata.exif.ExifSubIFDDirectory;
+import com.drew.metadata.exif.ExifThumbnailDirectory;
+import com.drew.metadata.exif.GpsDirectory;
+import com.drew.metadata.iptc.IptcDirectory;
+import com.drew.metadata.xmp.XmpDirectory;
+
+/**
+ * Métadonnées typées d'une image, extraites en une seule lecture.
+ * Toutes les méthodes d'accès de {@link Image} lisent ces valeurs au lieu de relire le fichier.
+ * <p>
+ * Les valeurs, y compris la miniature EXIF, sont fixées par les méthodes de fabrique et ne changent plus ensuite.
+ * Seule la table de toutes les propriétés XMP est construite plus tard, à la première demande
+ * (voir {@link #getProprietesXmp()}) : elle est alors publiée entière, une seule fois, et peut être lue depuis plusieurs fils.
+ */
+public final class Metadonnees {
+	/**
+	 * Indique si la lecture du fichier a échoué.
+	 */
+	private boolean echec;
+	/**
+	 * Message de l'erreur rencontrée lors de la lecture, ou {@code null}.
+	 */
+	private String erreur;
+	/**
+	 * Exception levée lors de la lecture, ou {@code null}.
+	 */
+	private Exception cause;
+
+	private boolean exifIFD0;
+	private boolean exifSubIFD;
+	private boolean gps;
+	private boolean xmp;
+
+	private Integer dpiX;
+	private Integer dpiY;
+	private Integer largeurExif;
+	private Integer hauteurExif;
+
+	/**
+	 * Coordonnées GPS en degrés décimaux, {@link Double#NaN} si absentes.
+	 */
+	private double latitude = Double.NaN;
+	private double longitude = Double.NaN;
+	/**
+	 * Représentation textuelle de la position GPS telle que fournie par la bibliothèque.
+	 */
+	private String gpsTexte;
+
+	/**
+	 * Date de prise de vue (voir {@link DateCapture}), {@link DateCapture#ABSENTE} si inconnue.
+	 */
+	private long dateCapture = DateCapture.ABSENTE;
+
+	/**
+	 * Appareil et objectif : marque (Make), modèle (Model) et modèle d'objectif (LensModel).
+	 */
+	private String marque;
+	private String modele;
+	private String objectif;
+	/**
+	 * Réglages de prise de vue : sensibilité ISO, focale en millimètres et durée d'exposition en secondes,
+	 * {@link Double#NaN} si absentes.
+	 */
+	private Integer iso;
+	private double focale = Double.NaN;
+	private double exposition = Double.NaN;
+
+	private String titre;
+	private String description;
+	private String createur;
+	/**
+	 * Mots-clés IPTC (Keywords) et XMP (dc:subject) normalisés par {@link #normaliserMotCle(String)}, sans doublon.
+	 */
+	private String[] motsCles = new String[0];
+	/**
+	 * Paquet XMP brut d'un JPEG, analysé en totalité seulement si {@link #getProprietesXmp()} est appelée.
+	 */
+	private byte[] paquetXmp;
+	/**
+	 * Toutes les propriétés XMP, construites à la première demande puis publiées en une seule affectation.
+	 */
+	private volatile Map<String, String> proprietesXmp;
+
+	/**
+	 * Miniature EXIF (répertoire IFD1) : octets copiés du segment EXIF d'un JPEG ou {@code null},
+	 * position comptée depuis l'en-tête TIFF et longueur, -1 si la miniature est absente.
+	 */
+	private byte[] miniature;
+	private long positionMiniature = -1;
+	private int longueurMiniature = -1;
+
+	/**
+	 * Les instances ne sont créées que par les méthodes de fabrique de cette classe.
+	 */
+	private Metadonnees() {
+	}
+
+	/**
+	 * Construit les métadonnées typées à partir du résultat de metadata-extractor.
+	 *
+	 * @param metadata les métadonnées lues par la bibliothèque
+	 * @return les métadonnées typées
+	 */
+	public static Metadonnees depuis(Metadata metadata) {
+		Metadonnees m = new Metadonnees();
+		LinkedHashSet<String> motsCles = new LinkedHashSet<>();
+
+		ExifIFD0Directory ifd0Directory = metadata.getFirstDirectoryOfType(ExifIFD0Directory.class);
+		if (ifd0Directory != null) {
+			m.exifIFD0 = true;
+			m.dpiX = ifd0Directory.getInteger(ExifIFD0Directory.TAG_X_RESOLUTION);
+			m.dpiY = ifd0Directory.getInteger(ExifIFD0Directory.TAG_Y_RESOLUTION);
+			m.marque = texte(ifd0Directory.getString(ExifIFD0Directory.TAG_MAKE));
+			m.modele = texte(ifd0Directory.getString(ExifIFD0Directory.TAG_MODEL));
+		}
+
+		ExifSubIFDDirectory dir = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
+		if (dir != null) {
+			m.exifSubIFD = true;
+			m.largeurExif = dir.getInteger(ExifSubIFDDirectory.TAG_EXIF_IMAGE_WIDTH);
+			m.hauteurExif = dir.getInteger(ExifSubIFDDirectory.TAG_EXIF_IMAGE_HEIGHT);
+			m.dateCapture = DateCapture.depuisExif(dir.getString(ExifSubIFDDirectory.TAG_DATETIME_ORIGINAL));
+			if (m.dateCapture == DateCapture.ABSENTE) {
+				m.dateCapture = DateCapture.depuisExif(dir.getString(ExifSubIFDDirectory.TAG_DATETIME_DIGITIZED));
+			}
+			m.objectif = texte(dir.getString(ExifSubIFDDirectory.TAG_LENS_MODEL));
+			m.iso = dir.getInteger(ExifSubIFDDirectory.TAG_ISO_EQUIVALENT);
+			m.focale = reel(dir.getRational(ExifSubIFDDirectory.TAG_FOCAL_LENGTH));
+			m.exposition = reel(dir.getRational(ExifSubIFDDirectory.TAG_EXPOSURE_TIME));
+		}
+
+		GpsDirectory gpsDirectory = metadata.getFirstDirectoryOfType(GpsDirectory.class);
+		if (gpsDirectory != null) {
+			m.gps = true;
+			GeoLocation position = gpsDirectory.getGeoLocation();
+			m.gpsTexte = String.valueOf(position);
+			if (position != null) {
+				m.latitude = position.getLatitude();
+				m.longitude = position.getLongitude();
+			}
+		}
+
+		PaquetXmp paquet = metadata.getFirstDirectoryOfType(PaquetXmp.class);
+		XmpDirectory xmpDirectory = metadata.getFirstDirectoryOfType(XmpDirectory.class);
+		if (paquet != null) {
+			m.xmp = true;
+			m.paquetXmp = paquet.getPaquet();
+			try {
+				LecteurXmp lecteur = LecteurXmp.lire(m.paquetXmp);
+				m.titre = lecteur.getTitre();
+				m.description = lecteur.getDescription();
+				m.createur = lecteur.getCreateur();
+				ajouterMotsCles(motsCles, lecteur.getSujets());
+				if (m.dateCapture == DateCapture.ABSENTE) {
+					m.dateCapture = DateCapture.depuisXmp(lecteur.getDateCapture());
+				}
+			} catch (XMLStreamException e) {
+				// Paquet mal formé : aucune propriété exploitable
+			}
+		} else if (xmpDirectory != null) {
+			// Modèle déjà construit par metadata-extractor (formats autres que JPEG)
+			m.xmp = true;
+			m.proprietesXmp = xmpDirectory.getXmpProperties();
+			m.titre = m.proprietesXmp.get("dc:title[1]");
+			m.description = m.proprietesXmp.get("dc:description[1]");
+			m.createur = m.proprietesXmp.get("dc:creator[1]");
+			for (int i = 1; m.proprietesXmp.containsKey("dc:subject[" + i + "]"); i++) {
+				ajouterMotCle(motsCles, m.proprietesXmp.get("dc:subject[" + i + "]"));
+			}
+			for (String propriete : new String[] {"exif:DateTimeOriginal", "photoshop:DateCreated", "xmp:CreateDate"}) {
+				if (m.dateCapture == DateCapture.ABSENTE) {
+					m.dateCapture = DateCapture.depuisXmp(m.proprietesXmp.get(propriete));
+				}
+			}
+		}
+
+		IptcDirectory iptc = metadata.getFirstDirectoryOfType(IptcDirectory.class);
+		if (iptc != null) {
+			ajouterMotsCles(motsCles, iptc.getKeywords());
+		}
+		m.motsCles = motsCles.toArray(new String[0]);
+
+		ExifThumbnailDirectory ifd1 = metadata.getFirstDirectoryOfType(ExifThumbnailDirectory.class);
+		if (ifd1 != null) {
+			Integer position = ifd1.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_OFFSET);
+			Integer longueur = ifd1.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_LENGTH);
+			if (position != null && longueur != null && position >= 0 && longueur > 0) {
+				m.positionMiniature = position;
+				m.longueurMiniature = longueur;
+			}
+		}
+		MiniatureExif miniature = metadata.getFirstDirectoryOfType(MiniatureExif.class);
+		if (miniature != null) {
+			m.miniature = miniature.getOctets();
+			m.positionMiniature = miniature.getPosition();
+			m.longueurMiniature = miniature.getOctets().length;
+		}
+
+		return m;
+	}
+
+	/**
+	 * @return le texte sans espaces de début et de fin, {@code null} s'il est vide
+	 */
+	private static String texte(String valeur) {
+		if (valeur == null) {
+			return null;
+		}
+		valeur = valeur.trim();
+		return valeur.isEmpty() ? null : valeur;
+	}
+
+	/**
+	 * Normalise un mot-clé pour la recherche : espaces de début et de fin retirés, espaces intérieurs réduits
+	 * à un seul, minuscules et accents retirés ("  Côte   d'Azur " devient "cote d'azur").
+	 *
+	 * @param motCle le mot-clé saisi ou lu dans l'image
+	 * @return le mot-clé normalisé, {@code null} s'il est nul ou vide
+	 */
+	public static String normaliserMotCle(String motCle) {
+		if (motCle == null) {
+			return null;
+		}
+		String decompose = Normalizer.normalize(motCle, Normalizer.Form.NFD);
+		StringBuilder sb = new StringBuilder(decompose.length());
+		boolean espace = false;
+		for (int i = 0; i < decompose.length(); i++) {
+			char c = decompose.charAt(i);
+			if (Character.getType(c) == Character.NON_SPACING_MARK) {
+				continue;
+			}
+			if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+				espace = sb.length() > 0;
+				continue;
+			}
+			if (espace) {
+				sb.append(' ');
+				espace = false;
+			}
+			sb.append(c);
+		}
+		return sb.length() == 0 ? null : sb.toString().toLowerCase(Locale.ROOT);
+	}
+
+	private static void ajouterMotsCles(LinkedHashSet<String> motsCles, Collection<String> valeurs) {
+		if (valeurs != null) {
+			for (String valeur : valeurs) {
+				ajouterMotCle(motsCles, valeur);
+			}
+		}
+	}
+
+	private static void ajouterMotCle(LinkedHashSet<String> motsCles, String valeur) {
+		String motCle = normaliserMotCle(valeur);
+		if (motCle != null) {
+			motsCles.add(motCle);
+		}
+	}
+
+	/**
+	 * @return la valeur d'un rationnel EXIF, {@link Double#NaN} s'il est absent ou de dénominateur nul
+	 */
+	private static double reel(Rational valeur) {
+		if (valeur == null || valeur.getDenominator() == 0) {
+			return Double.NaN;
+		}
+		return valeur.doubleValue();
+	}
+
+	/**
+	 * Construit des métadonnées vides représentant un fichier illisible.
+	 *
+	 * @param e l'exception levée pendant la lecture
+	 * @return des métadonnées marquées en échec
+	 */
+	public static Metadonnees echec(Exception e) {
+		Metadonnees m = new Metadonnees();
+		m.echec = true;
+		m.erreur = e.getMessage();
+		m.cause = e;
+		return m;
+	}
+
+	/**
+	 * @return {@code true} si la lecture du fichier a échoué
+	 */
+	public boolean estEchec() {
+		return echec;
+	}
+
+	/**
+	 * @return le message de l'erreur de lecture, ou {@code null}
+	 */
+	public String getErreur() {
+		return erreur;
+	}
+
+	/**
+	 * @return l'exception levée pendant la lecture, ou {@code null}
+	 */
+	public Exception getCause() {
+		return cause;
+	}
+
+	/**
+	 * @return {@code true} si le répertoire EXIF IFD0 est présent
+	 */
+	public boolean aExifIFD0() {
+		return exifIFD0;
+	}
+
+	/**
+	 * @return {@code true} si le répertoire EXIF SubIFD est présent
+	 */
+	public boolean aExifSubIFD() {
+		return exifSubIFD;
+	}
+
+	/**
+	 * @return {@code true} si le répertoire GPS est présent
+	 */
+	public boolean aGps() {
+		return gps;
+	}
+
+	/**
+	 * @return {@code true} si des métadonnées XMP sont présentes
+	 */
+	public boolean aXmp() {
+		return xmp;
+	}
+
+	/**
+	 * @return la résolution horizontale (DPI) ou {@code null}
+	 */
+	public Integer getDpiX() {
+		return dpiX;
+	}
+
+	/**
+	 * @return la résolution verticale (DPI) ou {@code null}
+	 */
+	public Integer getDpiY() {
+		return dpiY;
+	}
+
+	/**
+	 * @return la largeur déclarée dans l'EXIF ou {@code null}
+	 */
+	public Integer getLargeurExif() {
+		return largeurExif;
+	}
+
+	/**
+	 * @return la hauteur déclarée dans l'EXIF ou {@code null}
+	 */
+	public Integer getHauteurExif() {
+		return hauteurExif;
+	}
+
+	/**
+	 * @return la latitude en degrés décimaux, {@link Double#NaN} si absente
+	 */
+	public double getLatitude() {
+		return latitude;
+	}
+
+	/**
+	 * @return la longitude en degrés décimaux, {@link Double#NaN} si absente
+	 */
+	public double getLongitude() {
+		return longitude;
+	}
+
+	/**
+	 * @return la position GPS sous forme de texte, ou {@code null} sans répertoire GPS
+	 */
+	public String getGpsTexte() {
+		return gpsTexte;
+	}
+
+	/**
+	 * @return la date de prise de vue EXIF (DateTimeOriginal, à défaut CreateDate) ou XMP,
+	 *         en millisecondes (voir {@link DateCapture}), {@link DateCapture#ABSENTE} si inconnue
+	 */
+	public long getDateCapture() {
+		return dateCapture;
+	}
+
+	/**
+	 * @return la marque de l'appareil (EXIF Make) ou {@code null}
+	 */
+	public String getMarque() {
+		return marque;
+	}
+
+	/**
+	 * @return le modèle de l'appareil (EXIF Model) ou {@code null}
+	 */
+	public String getModele() {
+		return modele;
+	}
+
+	/**
+	 * @return le modèle de l'objectif (EXIF LensModel) ou {@code null}
+	 */
+	public String getObjectif() {
+		return objectif;
+	}
+
+	/**
+	 * @return la sensibilité ISO ou {@code null}
+	 */
+	public Integer getIso() {
+		return iso;
+	}
+
+	/**
+	 * @return la focale en millimètres, {@link Double#NaN} si absente
+	 */
+	public double getFocale() {
+		return focale;
+	}
+
+	/**
+	 * @return la durée d'exposition en secondes, {@link Double#NaN} si absente
+	 */
+	public double getExposition() {
+		return exposition;
+	}
+
+	/**
+	 * @return le titre XMP (dc:title) ou {@code null}
+	 */
+	public String getTitre() {
+		return titre;
+	}
+
+	/**
+	 * @return la description XMP (dc:description) ou {@code null}
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return le créateur XMP (dc:creator) ou {@code null}
+	 */
+	public String getCreateur() {
+		return createur;
+	}
+
+	/**
+	 * @return les mots-clés IPTC et XMP normalisés (voir {@link #normaliserMotCle(String)}), vide s'il n'y en a pas
+	 */
+	public List<String> getMotsCles() {
+		return Collections.unmodifiableList(Arrays.asList(motsCles));
+	}
+
+	/**
+	 * @return les octets de la miniature JPEG incorporée au bloc EXIF d'un JPEG, ou {@code null}
+	 */
+	public byte[] getMiniature() {
+		return miniature;
+	}
+
+	/**
+	 * @return la position de la miniature EXIF comptée depuis l'en-tête TIFF, -1 si elle est absente
+	 */
+	public long getPositionMiniature() {
+		return positionMiniature;
+	}
+
+	/**
+	 * @return la longueur en octets de la miniature EXIF, -1 si elle est absente
+	 */
+	public int getLongueurMiniature() {
+		return longueurMiniature;
+	}
+
+	/**
+	 * Retourne toutes les propriétés XMP, indexées par leur chemin (par exemple {@code dc:title[1]}).
+	 * Pour un JPEG, le modèle XMP complet n'est construit qu'au premier appel.
+	 *
+	 * @return les propriétés XMP, vide si l'image n'en contient pas ou si le paquet est invalide
+	 */
+	public Map<String, String> getProprietesXmp() {
+		Map<String, String> proprietes = proprietesXmp;
+		if (proprietes != null) {
+			return proprietes;
+		}
+		synchronized (this) {
+			if (proprietesXmp == null) {
+				Map<String, String> table = new HashMap<>();
+				if (paquetXmp != null) {
+					try {
+						XMPIterator iterateur = XMPMetaFactory.parseFromBuffer(paquetXmp).iterator();
+						while (iterateur.hasNext()) {
+							XMPPropertyInfo propriete = (XMPPropertyInfo) iterateur.next();
+							// Les tableaux et structures n'ont pas de valeur propre, seulement leurs éléments
+							if (propriete.getPath() != null && propriete.getValue() != null && !propriete.getOptions().isCompositeProperty()) {
+								table.put(propriete.getPath(), propriete.getValue());
+							}
+						}
+					} catch (XMPException e) {
+						// Paquet invalide : aucune propriété
+					}
+				}
+				// La table n'est visible des autres fils qu'une fois remplie
+				proprietesXmp = Collections.unmodifiableMap(table);
+			}
+			return proprietesXmp;
+		}
+	}
+}
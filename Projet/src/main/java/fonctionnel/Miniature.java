@@ -0,0 +1,171 @@
+package fonctionnel;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Aperçus réduits des images.
+ * <p>
+ * La miniature JPEG incorporée par l'appareil dans le bloc EXIF (160x120 le plus souvent) est utilisée
+ * quand elle existe : elle se décode en quelques millisecondes, sans lire l'image elle-même.
+ * À défaut, l'image est décodée en sous-échantillonnant ses lignes et ses colonnes, ce qui évite
+ * de construire l'image en pleine résolution avant de la réduire.
+ */
+public final class Miniature {
+	/**
+	 * Côté par défaut des aperçus, en pixels : celui des miniatures EXIF.
+	 */
+	public static final int COTE_DEFAUT = 160;
+
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private Miniature() {
+	}
+
+	/**
+	 * Construit l'aperçu d'une image, réduit pour tenir dans un carré de côté donné.
+	 *
+	 * @param f    le fichier image
+	 * @param cote le côté du carré en pixels
+	 * @return l'aperçu, ou {@code null} si le format de l'image n'est pas pris en charge
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	public static BufferedImage lire(File f, int cote) throws IOException {
+		return lire(new Image(f, ProfilExtraction.MINIATURE), f, cote);
+	}
+
+	/**
+	 * Construit l'aperçu d'une image dont les métadonnées ont éventuellement déjà été lues.
+	 *
+	 * @param image l'image, de préférence lue avec le profil {@link ProfilExtraction#MINIATURE}
+	 * @param f     le fichier image
+	 * @param cote  le côté du carré en pixels
+	 * @return l'aperçu, ou {@code null} si le format de l'image n'est pas pris en charge
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	public static BufferedImage lire(Image image, File f, int cote) throws IOException {
+		byte[] exif = image.getMiniatureExif();
+		if (exif != null) {
+			BufferedImage miniature = ImageIO.read(new ByteArrayInputStream(exif));
+			if (miniature != null) {
+				return ajuster(miniature, cote);
+			}
+		}
+		BufferedImage reduite = sousEchantillonner(f, cote);
+		return reduite != null ? ajuster(reduite, cote) : null;
+	}
+
+	/**
+	 * Enregistre l'aperçu d'une image au format JPEG. Si la miniature EXIF tient dans le carré demandé,
+	 * ses octets sont recopiés tels quels, sans décodage.
+	 *
+	 * @param image  l'image, de préférence lue avec le profil {@link ProfilExtraction#MINIATURE}
+	 * @param f      le fichier image
+	 * @param sortie le fichier JPEG à écrire
+	 * @param cote   le côté du carré en pixels
+	 * @return {@code true} si l'aperçu provient de la miniature EXIF, {@code false} s'il a fallu décoder l'image
+	 * @throws IOException si l'image ne peut pas être lue ou l'aperçu écrit
+	 */
+	public static boolean enregistrer(Image image, File f, File sortie, int cote) throws IOException {
+		File dossier = sortie.getParentFile();
+		if (dossier != null && !dossier.isDirectory() && !dossier.mkdirs()) {
+			throw new IOException("Impossible de créer le dossier " + dossier.getPath());
+		}
+		byte[] exif = image.getMiniatureExif();
+		BufferedImage apercu = null;
+		if (exif != null) {
+			int[] dimensions = SondeDimensions.jpeg(new ByteArrayInputStream(exif));
+			if (dimensions != null && dimensions[0] <= cote && dimensions[1] <= cote) {
+				Files.write(sortie.toPath(), exif);
+				return true;
+			}
+			apercu = ImageIO.read(new ByteArrayInputStream(exif));
+		}
+		boolean depuisExif = apercu != null;
+		if (apercu == null) {
+			apercu = sousEchantillonner(f, cote);
+			if (apercu == null) {
+				throw new IOException("Format d'image non pris en charge");
+			}
+		}
+		if (!ImageIO.write(ajuster(apercu, cote), "jpg", sortie)) {
+			throw new IOException("Aucun encodeur JPEG disponible");
+		}
+		return depuisExif;
+	}
+
+	/**
+	 * Décode une image en ne lisant qu'une ligne et qu'une colonne sur {@code n}, {@code n} étant choisi
+	 * pour que le résultat reste au moins aussi grand que le carré demandé.
+	 *
+	 * @param f    le fichier image
+	 * @param cote le côté du carré en pixels
+	 * @return l'image sous-échantillonnée, ou {@code null} si aucun décodeur ne prend en charge le format
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	public static BufferedImage sousEchantillonner(File f, int cote) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(f)) {
+			if (in == null) {
+				return null;
+			}
+			Iterator<ImageReader> decodeurs = ImageIO.getImageReaders(in);
+			if (!decodeurs.hasNext()) {
+				return null;
+			}
+			ImageReader decodeur = decodeurs.next();
+			try {
+				decodeur.setInput(in, true, true);
+				int plusGrand = Math.max(decodeur.getWidth(0), decodeur.getHeight(0));
+				int pas = Math.max(1, plusGrand / Math.max(1, cote));
+				ImageReadParam parametres = decodeur.getDefaultReadParam();
+				parametres.setSourceSubsampling(pas, pas, 0, 0);
+				return decodeur.read(0, parametres);
+			} finally {
+				decodeur.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Réduit une image pour qu'elle tienne dans un carré, sans l'agrandir. Le résultat est en RVB opaque
+	 * (fond blanc sous les zones transparentes) pour pouvoir être enregistré en JPEG.
+	 *
+	 * @param image l'image à réduire
+	 * @param cote  le côté du carré en pixels
+	 * @return l'image réduite
+	 */
+	public static BufferedImage ajuster(BufferedImage image, int cote) {
+		int largeur = image.getWidth();
+		int hauteur = image.getHeight();
+		double ratio = Math.min(1.0, Math.min((double) cote / largeur, (double) cote / hauteur));
+		int nouvelleLargeur = Math.max(1, (int) Math.round(largeur * ratio));
+		int nouvelleHauteur = Math.max(1, (int) Math.round(hauteur * ratio));
+		if (ratio == 1.0 && image.getType() == BufferedImage.TYPE_INT_RGB) {
+			return image;
+		}
+		BufferedImage resultat = new BufferedImage(nouvelleLargeur, nouvelleHauteur, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = resultat.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, nouvelleLargeur, nouvelleHauteur);
+			g.drawImage(image, 0, 0, nouvelleLargeur, nouvelleHauteur, null);
+		} finally {
+			g.dispose();
+		}
+		return resultat;
+	}
+}
@@ -0,0 +1,49 @@
+package fonctionnel;
+
+import java.util.HashMap;
+
+import com.drew.metadata.Directory;
+
+/**
+ * Répertoire contenant la miniature JPEG incorporée dans le bloc EXIF d'un JPEG (répertoire IFD1),
+ * copiée depuis le segment APP1 déjà lu : l'obtenir ne demande aucune lecture supplémentaire du fichier.
+ */
+public final class MiniatureExif extends Directory {
+	private final byte[] octets;
+	private final int position;
+
+	/**
+	 * Constructeur du répertoire.
+	 *
+	 * @param octets   les octets de la miniature (un JPEG complet)
+	 * @param position la position de la miniature comptée depuis l'en-tête TIFF du bloc EXIF
+	 */
+	public MiniatureExif(byte[] octets, int position) {
+		this.octets = octets;
+		this.position = position;
+	}
+
+	/**
+	 * @return les octets de la miniature
+	 */
+	public byte[] getOctets() {
+		return octets;
+	}
+
+	/**
+	 * @return la position de la miniature comptée depuis l'en-tête TIFF du bloc EXIF
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	@Override
+	public String getName() {
+		return "Miniature EXIF";
+	}
+
+	@Override
+	protected HashMap<Integer, String> getTagNameMap() {
+		return new HashMap<>();
+	}
+}
@@ -0,0 +1,40 @@
+package fonctionnel;
+
+import java.util.HashMap;
+
+import com.drew.metadata.Directory;
+
+/**
+ * Répertoire contenant le paquet XMP brut d'un JPEG, tel qu'il figure dans le segment APP1.
+ * Le paquet n'est pas analysé à la lecture : {@link Metadonnees} n'en extrait que les propriétés
+ * courantes avec {@link LecteurXmp} et ne construit le modèle XMP complet qu'à la demande.
+ */
+public final class PaquetXmp extends Directory {
+	private final byte[] paquet;
+
+	/**
+	 * Constructeur du répertoire.
+	 *
+	 * @param paquet les octets du paquet XMP, sans le préambule du segment
+	 */
+	public PaquetXmp(byte[] paquet) {
+		this.paquet = paquet;
+	}
+
+	/**
+	 * @return les octets du paquet XMP
+	 */
+	public byte[] getPaquet() {
+		return paquet;
+	}
+
+	@Override
+	public String getName() {
+		return "XMP";
+	}
+
+	@Override
+	protected HashMap<Integer, String> getTagNameMap() {
+		return new HashMap<>();
+	}
+}
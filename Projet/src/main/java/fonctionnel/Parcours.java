@@ -0,0 +1,456 @@
+package fonctionnel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parcours parallèle d'une arborescence, partagé par toutes les recherches et listes de {@link Repertoire}.
+ * <p>
+ * Chaque dossier est une tâche fork/join : ses sous-dossiers sont lancés comme des tâches indépendantes
+ * que les fils inoccupés volent, si bien que plusieurs dossiers sont listés en même temps et que la latence
+ * de chaque appel système se recouvre. Chaque tâche rend sa propre liste, recopiée dans celle de son parent
+ * à la jonction : aucun verrou n'est pris, et les fichiers sont rendus dans l'ordre d'un parcours
+ * en profondeur séquentiel. Le filtre est évalué par les fils du parcours, en parallèle lui aussi.
+ * <p>
+ * Les entrées d'un dossier sont lues par un {@link DirectoryStream} et leurs attributs ({@link BasicFileAttributes} :
+ * type, taille, dates, identifiant) en un seul appel système par entrée. Ils sont transmis aux filtres dans
+ * un {@link Fichier}, si bien qu'aucun filtre n'a besoin d'interroger à nouveau le système de fichiers.
+ * <p>
+ * {@link #flux(File, Predicate, Predicate)} rend les mêmes fichiers, dans le même ordre, sous forme de flux paresseux :
+ * les dossiers ne sont lus qu'au fur et à mesure de la consommation du flux, si bien que le premier résultat
+ * arrive dès le premier dossier lu et que la mémoire ne dépend que de la profondeur de l'arborescence.
+ */
+public final class Parcours {
+	/**
+	 * Nombre de fils par défaut : un par processeur.
+	 */
+	public static final int PARALLELISME_DEFAUT = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Dossiers parcourus : tous.
+	 */
+	public static final Predicate<Fichier> TOUS_DOSSIERS = d -> true;
+
+	private static int parallelisme = PARALLELISME_DEFAUT;
+	private static ForkJoinPool groupe;
+
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private Parcours() {
+	}
+
+	/**
+	 * Fixe le nombre de fils du parcours. Avec un seul fil, le parcours s'exécute dans le fil appelant.
+	 *
+	 * @param fils le nombre de fils, au moins 1
+	 */
+	public static synchronized void setParallelisme(int fils) {
+		fils = Math.max(1, fils);
+		if (fils != parallelisme && groupe != null) {
+			groupe.shutdown();
+			groupe = null;
+		}
+		parallelisme = fils;
+	}
+
+	/**
+	 * @return le nombre de fils du parcours
+	 */
+	public static synchronized int getParallelisme() {
+		return parallelisme;
+	}
+
+	/**
+	 * Liste les fichiers d'une arborescence, en ignorant les dossiers exclus (voir {@link Exclusions}).
+	 *
+	 * @param racine le dossier de départ
+	 * @param filtre le critère que doivent vérifier les fichiers retenus
+	 * @return les fichiers retenus, dans l'ordre du parcours
+	 */
+	public static ArrayList<File> fichiers(File racine, Predicate<Fichier> filtre) {
+		return fichiers(racine, Exclusions.pour(racine).parcourus(), filtre);
+	}
+
+	/**
+	 * Liste les fichiers d'une arborescence.
+	 *
+	 * @param racine   le dossier de départ
+	 * @param dossiers le critère que doivent vérifier les sous-dossiers pour être parcourus
+	 * @param filtre   le critère que doivent vérifier les fichiers retenus
+	 * @return les fichiers retenus, dans l'ordre du parcours
+	 */
+	public static ArrayList<File> fichiers(File racine, Predicate<Fichier> dossiers, Predicate<Fichier> filtre) {
+		ArrayList<Fichier> entrees = entrees(racine, dossiers, filtre);
+		ArrayList<File> liste = new ArrayList<>(entrees.size());
+		for (Fichier f : entrees) {
+			liste.add(f.get_File());
+		}
+		return liste;
+	}
+
+	/**
+	 * Liste les fichiers d'une arborescence avec les attributs lus pendant le parcours.
+	 *
+	 * @param racine   le dossier de départ
+	 * @param dossiers le critère que doivent vérifier les sous-dossiers pour être parcourus
+	 * @param filtre   le critère que doivent vérifier les fichiers retenus
+	 * @return les fichiers retenus, dans l'ordre du parcours
+	 */
+	public static ArrayList<Fichier> entrees(File racine, Predicate<Fichier> dossiers, Predicate<Fichier> filtre) {
+		Tache tache = new Tache(racine.toPath(), dossiers, filtre);
+		ForkJoinPool g = groupe();
+		return g == null ? tache.compute() : g.invoke(tache);
+	}
+
+	/**
+	 * Filtre une liste de fichiers déjà parcourus (voir {@link Inventaire}). Avec plusieurs fils, la liste est
+	 * découpée en tranches évaluées en parallèle, puis les résultats sont assemblés dans l'ordre de la liste.
+	 *
+	 * @param fichiers les fichiers à filtrer
+	 * @param filtre   le critère que doivent vérifier les fichiers retenus
+	 * @return les fichiers retenus, dans l'ordre de la liste
+	 */
+	public static ArrayList<File> filtrer(List<Fichier> fichiers, Predicate<Fichier> filtre) {
+		Tranche tranche = new Tranche(fichiers, 0, fichiers.size(), filtre);
+		ForkJoinPool g = groupe();
+		return g == null ? tranche.compute() : g.invoke(tranche);
+	}
+
+	/**
+	 * Parcourt une arborescence sous forme de flux, en ignorant les dossiers exclus (voir {@link Exclusions}).
+	 *
+	 * @param racine le dossier de départ
+	 * @param filtre le critère que doivent vérifier les fichiers retenus
+	 * @return le flux des fichiers retenus, dans l'ordre du parcours, à fermer après usage
+	 */
+	public static Stream<Fichier> flux(File racine, Predicate<Fichier> filtre) {
+		return flux(racine, Exclusions.pour(racine).parcourus(), filtre);
+	}
+
+	/**
+	 * Parcourt une arborescence sous forme de flux paresseux. Les fichiers sont rendus dans l'ordre de
+	 * {@link #fichiers(File, Predicate, Predicate)}, au fur et à mesure de la lecture des dossiers.
+	 * <p>
+	 * Avec plusieurs fils, le filtre est évalué en parallèle sur une fenêtre glissante de fichiers, de taille
+	 * bornée : le parcours n'avance que lorsque le consommateur a pris le plus ancien fichier de la fenêtre.
+	 * Les dossiers encore ouverts sont fermés à la fin du flux ou à sa fermeture.
+	 *
+	 * @param racine   le dossier de départ
+	 * @param dossiers le critère que doivent vérifier les sous-dossiers pour être parcourus
+	 * @param filtre   le critère que doivent vérifier les fichiers retenus
+	 * @return le flux des fichiers retenus, dans l'ordre du parcours, à fermer après usage
+	 */
+	public static Stream<Fichier> flux(File racine, Predicate<Fichier> dossiers, Predicate<Fichier> filtre) {
+		Curseur curseur = new Curseur(racine.toPath(), dossiers);
+		ForkJoinPool g = groupe();
+		if (g == null) {
+			return flux(curseur).filter(filtre).onClose(curseur::fermer);
+		}
+		return flux(new Fenetre(curseur, filtre, g, 4 * g.getParallelism())).onClose(curseur::fermer);
+	}
+
+	private static Stream<Fichier> flux(Iterator<Fichier> iterateur) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterateur, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Lit les attributs d'une entrée en suivant les liens symboliques, comme {@link File#isDirectory()} ;
+	 * un lien cassé est décrit par ses propres attributs.
+	 *
+	 * @param p l'entrée
+	 * @return ses attributs, ou {@code null} si elle a disparu pendant le parcours
+	 */
+	private static BasicFileAttributes attributs(Path p) {
+		try {
+			return Files.readAttributes(p, BasicFileAttributes.class);
+		} catch (IOException e) {
+			try {
+				return Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			} catch (IOException e2) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * @return le groupe de fils du parcours, {@code null} pour un parcours dans le fil appelant
+	 */
+	private static synchronized ForkJoinPool groupe() {
+		if (parallelisme == 1) {
+			return null;
+		}
+		if (groupe == null) {
+			groupe = new ForkJoinPool(parallelisme);
+		}
+		return groupe;
+	}
+
+	/**
+	 * Parcours d'un dossier : les sous-dossiers sont lancés en premier, puis les fichiers du dossier sont filtrés
+	 * pendant que d'autres fils traitent les sous-dossiers, enfin les listes sont assemblées dans l'ordre des entrées.
+	 */
+	private static final class Tache extends RecursiveTask<ArrayList<Fichier>> {
+		private static final long serialVersionUID = 1L;
+
+		private final Path dossier;
+		private final Predicate<Fichier> dossiers;
+		private final Predicate<Fichier> filtre;
+
+		Tache(Path dossier, Predicate<Fichier> dossiers, Predicate<Fichier> filtre) {
+			this.dossier = dossier;
+			this.dossiers = dossiers;
+			this.filtre = filtre;
+		}
+
+		@Override
+		protected ArrayList<Fichier> compute() {
+			ArrayList<Fichier> entrees = new ArrayList<>();
+			try (DirectoryStream<Path> flux = Files.newDirectoryStream(dossier)) {
+				for (Path p : flux) {
+					BasicFileAttributes attrs = attributs(p);
+					if (attrs != null) {
+						entrees.add(new Fichier(p.toFile(), attrs));
+					}
+				}
+			} catch (IOException | DirectoryIteratorException e) {
+				// Dossier illisible ou supprimé pendant le parcours : les entrées déjà lues sont gardées
+			}
+			int n = entrees.size();
+			boolean parallele = ForkJoinTask.inForkJoinPool();
+			Tache[] sousTaches = new Tache[n];
+			for (int i = 0; i < n; i++) {
+				Fichier entree = entrees.get(i);
+				if (entree.estDossier() && dossiers.test(entree)) {
+					sousTaches[i] = new Tache(entree.get_File().toPath(), dossiers, filtre);
+					if (parallele) {
+						sousTaches[i].fork();
+					}
+				}
+			}
+			boolean[] retenus = new boolean[n];
+			int nombre = 0;
+			for (int i = 0; i < n; i++) {
+				Fichier entree = entrees.get(i);
+				if (!entree.estDossier() && filtre.test(entree)) {
+					retenus[i] = true;
+					nombre++;
+				}
+			}
+			// Jonction dans l'ordre inverse des lancements : la dernière tâche lancée est la plus souvent encore locale
+			List<List<Fichier>> resultats = new ArrayList<>(Collections.<List<Fichier>>nCopies(n, null));
+			for (int i = n - 1; i >= 0; i--) {
+				if (sousTaches[i] != null) {
+					List<Fichier> resultat = parallele ? sousTaches[i].join() : sousTaches[i].compute();
+					resultats.set(i, resultat);
+					nombre += resultat.size();
+				}
+			}
+			ArrayList<Fichier> liste = new ArrayList<>(nombre);
+			for (int i = 0; i < n; i++) {
+				List<Fichier> resultat = resultats.get(i);
+				if (resultat != null) {
+					liste.addAll(resultat);
+				} else if (retenus[i]) {
+					liste.add(entrees.get(i));
+				}
+			}
+			return liste;
+		}
+	}
+
+	/**
+	 * Filtre d'une tranche de liste : coupée en deux tant qu'elle dépasse {@link #SEUIL} fichiers.
+	 */
+	private static final class Tranche extends RecursiveTask<ArrayList<File>> {
+		private static final long serialVersionUID = 1L;
+		/**
+		 * Taille des tranches évaluées par un seul fil : assez petite pour répartir la lecture des en-têtes d'images.
+		 */
+		private static final int SEUIL = 64;
+
+		private final List<Fichier> fichiers;
+		private final int debut;
+		private final int fin;
+		private final Predicate<Fichier> filtre;
+
+		Tranche(List<Fichier> fichiers, int debut, int fin, Predicate<Fichier> filtre) {
+			this.fichiers = fichiers;
+			this.debut = debut;
+			this.fin = fin;
+			this.filtre = filtre;
+		}
+
+		@Override
+		protected ArrayList<File> compute() {
+			if (fin - debut > SEUIL && ForkJoinTask.inForkJoinPool()) {
+				int milieu = (debut + fin) >>> 1;
+				Tranche droite = new Tranche(fichiers, milieu, fin, filtre);
+				droite.fork();
+				ArrayList<File> liste = new Tranche(fichiers, debut, milieu, filtre).compute();
+				liste.addAll(droite.join());
+				return liste;
+			}
+			ArrayList<File> liste = new ArrayList<>();
+			for (int i = debut; i < fin; i++) {
+				Fichier f = fichiers.get(i);
+				if (filtre.test(f)) {
+					liste.add(f.get_File());
+				}
+			}
+			return liste;
+		}
+	}
+
+	/**
+	 * Parcours en profondeur paresseux : une pile des dossiers ouverts, du dossier de départ au dossier courant.
+	 * Un sous-dossier est ouvert dès qu'il est rencontré, si bien que l'ordre est celui de {@link Tache}.
+	 */
+	private static final class Curseur implements Iterator<Fichier> {
+		private final Predicate<Fichier> dossiers;
+		private final ArrayDeque<DirectoryStream<Path>> ouverts = new ArrayDeque<>();
+		private final ArrayDeque<Iterator<Path>> entrees = new ArrayDeque<>();
+		private Fichier suivant;
+
+		Curseur(Path racine, Predicate<Fichier> dossiers) {
+			this.dossiers = dossiers;
+			ouvrir(racine);
+		}
+
+		private void ouvrir(Path dossier) {
+			try {
+				DirectoryStream<Path> flux = Files.newDirectoryStream(dossier);
+				ouverts.push(flux);
+				entrees.push(flux.iterator());
+			} catch (IOException e) {
+				// Dossier illisible ou supprimé pendant le parcours
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (suivant == null && !entrees.isEmpty()) {
+				Path p;
+				try {
+					if (!entrees.peek().hasNext()) {
+						fermerDernier();
+						continue;
+					}
+					p = entrees.peek().next();
+				} catch (DirectoryIteratorException e) {
+					fermerDernier();
+					continue;
+				}
+				BasicFileAttributes attrs = attributs(p);
+				if (attrs == null) {
+					continue;
+				}
+				Fichier entree = new Fichier(p.toFile(), attrs);
+				if (!entree.estDossier()) {
+					suivant = entree;
+				} else if (dossiers.test(entree)) {
+					ouvrir(p);
+				}
+			}
+			return suivant != null;
+		}
+
+		@Override
+		public Fichier next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Fichier f = suivant;
+			suivant = null;
+			return f;
+		}
+
+		private void fermerDernier() {
+			entrees.pop();
+			try {
+				ouverts.pop().close();
+			} catch (IOException e) {
+				// Rien à libérer de plus
+			}
+		}
+
+		/**
+		 * Ferme les dossiers encore ouverts, quand le flux est abandonné avant sa fin.
+		 */
+		void fermer() {
+			while (!entrees.isEmpty()) {
+				fermerDernier();
+			}
+		}
+	}
+
+	/**
+	 * Filtre parallèle d'un parcours paresseux : les {@code taille} fichiers suivants sont testés par les fils
+	 * du groupe pendant que le consommateur traite les résultats, rendus dans l'ordre du parcours.
+	 */
+	private static final class Fenetre implements Iterator<Fichier> {
+		private final Iterator<Fichier> entrees;
+		private final Predicate<Fichier> filtre;
+		private final ForkJoinPool groupe;
+		private final int taille;
+		private final ArrayDeque<Fichier> enAttente = new ArrayDeque<>();
+		private final ArrayDeque<ForkJoinTask<Boolean>> tests = new ArrayDeque<>();
+		private Fichier suivant;
+
+		Fenetre(Iterator<Fichier> entrees, Predicate<Fichier> filtre, ForkJoinPool groupe, int taille) {
+			this.entrees = entrees;
+			this.filtre = filtre;
+			this.groupe = groupe;
+			this.taille = taille;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (suivant == null) {
+				while (tests.size() < taille && entrees.hasNext()) {
+					Fichier f = entrees.next();
+					enAttente.add(f);
+					tests.add(groupe.submit(() -> filtre.test(f)));
+				}
+				if (tests.isEmpty()) {
+					return false;
+				}
+				Fichier f = enAttente.poll();
+				if (tests.poll().join()) {
+					suivant = f;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public Fichier next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Fichier f = suivant;
+			suivant = null;
+			return f;
+		}
+	}
+}
@@ -0,0 +1,343 @@
+package fonctionnel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.drew.imaging.ImageMetadataReader;
+import com.drew.imaging.ImageProcessingException;
+import com.drew.imaging.jpeg.JpegMetadataReader;
+import com.drew.imaging.jpeg.JpegSegmentData;
+import com.drew.imaging.jpeg.JpegSegmentMetadataReader;
+import com.drew.imaging.jpeg.JpegSegmentReader;
+import com.drew.imaging.jpeg.JpegSegmentType;
+import com.drew.imaging.tiff.TiffProcessingException;
+import com.drew.imaging.tiff.TiffReader;
+import com.drew.lang.ByteArrayReader;
+import com.drew.lang.RandomAccessReader;
+import com.drew.lang.SequentialByteArrayReader;
+import com.drew.lang.SequentialReader;
+import com.drew.metadata.ErrorDirectory;
+import com.drew.metadata.Metadata;
+import com.drew.metadata.exif.ExifDirectoryBase;
+import com.drew.metadata.exif.ExifIFD0Directory;
+import com.drew.metadata.exif.ExifReader;
+import com.drew.metadata.exif.ExifSubIFDDirectory;
+import com.drew.metadata.exif.ExifThumbnailDirectory;
+import com.drew.metadata.exif.ExifTiffHandler;
+import com.drew.metadata.iptc.IptcReader;
+
+/**
+ * Profil d'extraction : liste des blocs de métadonnées dont l'appelant a besoin.
+ * <p>
+ * Pour un JPEG, seuls les segments correspondant aux blocs demandés sont lus ; les autres
+ * (profil ICC, ressources Photoshop autres que l'IPTC, ...) sont sautés sans être décodés, et dans le bloc EXIF
+ * les notes du fabricant, la miniature et les sous-répertoires inutiles ne sont pas analysés.
+ * Les autres formats sont lus intégralement par metadata-extractor.
+ */
+public final class ProfilExtraction {
+	/**
+	 * Blocs de métadonnées pouvant être demandés.
+	 */
+	public enum Bloc {
+		/** Répertoires EXIF IFD0 et SubIFD (résolution, dimensions). */
+		EXIF,
+		/** Répertoire GPS. */
+		GPS,
+		/** Paquet XMP : titre, description et créateur lus en flux, modèle complet construit à la demande. */
+		XMP,
+		/** Répertoire IFD1 de la miniature EXIF. */
+		MINIATURE,
+		/** Enregistrement IPTC des ressources Photoshop (mots-clés, légende...). */
+		IPTC
+	}
+
+	/**
+	 * Profil des recherches par dimensions : les dimensions EXIF servent de repli à la sonde d'en-tête.
+	 */
+	public static final ProfilExtraction DIMENSIONS = de(Bloc.EXIF);
+	/**
+	 * Profil de l'option {@code --metadata} et du catalogue : EXIF, GPS, XMP et IPTC.
+	 */
+	public static final ProfilExtraction METADONNEES = de(Bloc.EXIF, Bloc.GPS, Bloc.XMP, Bloc.IPTC);
+	/**
+	 * Profil des aperçus : seule la miniature EXIF est lue.
+	 */
+	public static final ProfilExtraction MINIATURE = de(Bloc.MINIATURE);
+	/**
+	 * Profil complet : tous les répertoires décodés par metadata-extractor.
+	 */
+	public static final ProfilExtraction COMPLET = new ProfilExtraction(EnumSet.allOf(Bloc.class), true);
+
+	private final Set<Bloc> blocs;
+	private final boolean complet;
+	/**
+	 * Lecteurs de segments JPEG correspondant aux blocs demandés.
+	 */
+	private final List<JpegSegmentMetadataReader> lecteursJpeg;
+	/**
+	 * Types des segments JPEG lus par ces lecteurs, les autres étant sautés.
+	 */
+	private final Set<JpegSegmentType> segmentsJpeg;
+
+	private ProfilExtraction(Set<Bloc> blocs, boolean complet) {
+		this.blocs = Collections.unmodifiableSet(blocs);
+		this.complet = complet;
+		List<JpegSegmentMetadataReader> lecteurs = new ArrayList<>();
+		if (blocs.contains(Bloc.EXIF) || blocs.contains(Bloc.GPS) || blocs.contains(Bloc.MINIATURE)) {
+			lecteurs.add(new LecteurExif());
+		}
+		if (blocs.contains(Bloc.XMP)) {
+			lecteurs.add(new LecteurSegmentXmp());
+		}
+		if (blocs.contains(Bloc.IPTC)) {
+			lecteurs.add(new LecteurIptc());
+		}
+		this.lecteursJpeg = Collections.unmodifiableList(lecteurs);
+		Set<JpegSegmentType> segments = EnumSet.noneOf(JpegSegmentType.class);
+		for (JpegSegmentMetadataReader lecteur : lecteurs) {
+			for (JpegSegmentType type : lecteur.getSegmentTypes()) {
+				segments.add(type);
+			}
+		}
+		this.segmentsJpeg = Collections.unmodifiableSet(segments);
+	}
+
+	/**
+	 * Construit un profil limité aux blocs indiqués.
+	 *
+	 * @param blocs les blocs de métadonnées nécessaires
+	 * @return le profil correspondant
+	 */
+	public static ProfilExtraction de(Bloc... blocs) {
+		EnumSet<Bloc> ensemble = EnumSet.noneOf(Bloc.class);
+		Collections.addAll(ensemble, blocs);
+		return new ProfilExtraction(ensemble, false);
+	}
+
+	/**
+	 * @param bloc un bloc de métadonnées
+	 * @return {@code true} si ce profil demande le bloc
+	 */
+	public boolean contient(Bloc bloc) {
+		return blocs.contains(bloc);
+	}
+
+	/**
+	 * @return {@code true} si ce profil décode tous les répertoires
+	 */
+	public boolean estComplet() {
+		return complet;
+	}
+
+	/**
+	 * Lit les métadonnées d'un flux en se limitant aux blocs du profil.
+	 *
+	 * @param in le flux de l'image, qui doit supporter {@link InputStream#mark(int)}
+	 * @return les métadonnées lues
+	 * @throws ImageProcessingException si le format n'est pas reconnu ou le fichier est invalide
+	 * @throws IOException              en cas d'erreur de lecture
+	 */
+	public Metadata lire(InputStream in) throws ImageProcessingException, IOException {
+		if (!complet) {
+			in.mark(2);
+			int premier = in.read();
+			int second = in.read();
+			in.reset();
+			if (premier == 0xFF && second == 0xD8) {
+				return JpegMetadataReader.readMetadata(in, lecteursJpeg);
+			}
+		}
+		return ImageMetadataReader.readMetadata(in);
+	}
+
+	/**
+	 * Lit les métadonnées d'un JPEG directement dans un lecteur séquentiel, par exemple une zone projetée
+	 * en mémoire ({@link LecteurProjete}) : les segments des blocs du profil sont copiés une seule fois,
+	 * de la source vers les lecteurs de métadonnées, et la lecture s'arrête au marqueur SOS.
+	 * Le profil complet passe par {@link #lire(InputStream)}, qui ajoute les répertoires propres au fichier.
+	 *
+	 * @param jpeg le lecteur positionné sur le marqueur SOI
+	 * @return les métadonnées lues
+	 * @throws ImageProcessingException si le fichier n'est pas un JPEG valide
+	 * @throws IOException              en cas d'erreur de lecture
+	 */
+	public Metadata lireJpeg(SequentialReader jpeg) throws ImageProcessingException, IOException {
+		Metadata metadata = new Metadata();
+		JpegSegmentData segments = JpegSegmentReader.readSegments(jpeg, segmentsJpeg);
+		JpegMetadataReader.processJpegSegmentData(metadata, lecteursJpeg, segments);
+		return metadata;
+	}
+
+	/**
+	 * Lecteur du segment APP1 EXIF qui n'analyse que les répertoires demandés par le profil.
+	 */
+	private class LecteurExif implements JpegSegmentMetadataReader {
+		@Override
+		public Iterable<JpegSegmentType> getSegmentTypes() {
+			return Collections.singletonList(JpegSegmentType.APP1);
+		}
+
+		@Override
+		public void readJpegSegments(Iterable<byte[]> segments, Metadata metadata, JpegSegmentType segmentType) {
+			for (byte[] segment : segments) {
+				if (!ExifReader.startsWithJpegExifPreamble(segment)) {
+					continue;
+				}
+				try {
+					new TiffReader().processTiff(new ByteArrayReader(segment), new GestionnaireExif(metadata), ExifReader.JPEG_SEGMENT_PREAMBLE.length());
+				} catch (TiffProcessingException | IOException e) {
+					metadata.addDirectory(new ErrorDirectory("Exception processing TIFF data: " + e.getMessage()));
+				}
+				if (blocs.contains(Bloc.MINIATURE)) {
+					copierMiniature(segment, metadata);
+				}
+			}
+		}
+
+		/**
+		 * Copie la miniature JPEG désignée par le répertoire IFD1, si elle est entièrement contenue dans le segment.
+		 */
+		private void copierMiniature(byte[] segment, Metadata metadata) {
+			ExifThumbnailDirectory ifd1 = metadata.getFirstDirectoryOfType(ExifThumbnailDirectory.class);
+			if (ifd1 == null || metadata.containsDirectoryOfType(MiniatureExif.class)) {
+				return;
+			}
+			Integer position = ifd1.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_OFFSET);
+			Integer longueur = ifd1.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_LENGTH);
+			if (position == null || longueur == null || position < 0 || longueur < 2) {
+				return;
+			}
+			int debut = ExifReader.JPEG_SEGMENT_PREAMBLE.length() + position;
+			if (debut + longueur > segment.length || (segment[debut] & 0xFF) != 0xFF || (segment[debut + 1] & 0xFF) != 0xD8) {
+				// Miniature hors du segment ou non compressée en JPEG
+				return;
+			}
+			metadata.addDirectory(new MiniatureExif(Arrays.copyOfRange(segment, debut, debut + longueur), position));
+		}
+	}
+
+	/**
+	 * Lecteur du segment APP1 XMP qui conserve le paquet brut sans l'analyser (voir {@link PaquetXmp}).
+	 */
+	private static class LecteurSegmentXmp implements JpegSegmentMetadataReader {
+		private static final byte[] PREAMBULE = "http://ns.adobe.com/xap/1.0/\0".getBytes(StandardCharsets.US_ASCII);
+
+		@Override
+		public Iterable<JpegSegmentType> getSegmentTypes() {
+			return Collections.singletonList(JpegSegmentType.APP1);
+		}
+
+		@Override
+		public void readJpegSegments(Iterable<byte[]> segments, Metadata metadata, JpegSegmentType segmentType) {
+			for (byte[] segment : segments) {
+				if (commencePar(segment, PREAMBULE)) {
+					metadata.addDirectory(new PaquetXmp(Arrays.copyOfRange(segment, PREAMBULE.length, segment.length)));
+					// Seul le paquet principal porte les propriétés dc: ; le XMP étendu est ignoré
+					return;
+				}
+			}
+		}
+
+		private static boolean commencePar(byte[] segment, byte[] prefixe) {
+			if (segment.length < prefixe.length) {
+				return false;
+			}
+			for (int i = 0; i < prefixe.length; i++) {
+				if (segment[i] != prefixe[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Lecteur du segment APP13 ("Photoshop 3.0") qui ne décode que la ressource IPTC (identifiant 0x0404) ;
+	 * les autres ressources (miniature Photoshop, tranches, chemins...) sont sautées.
+	 */
+	private static class LecteurIptc implements JpegSegmentMetadataReader {
+		private static final byte[] PREAMBULE = "Photoshop 3.0\0".getBytes(StandardCharsets.US_ASCII);
+		private static final int RESSOURCE_IPTC = 0x0404;
+
+		@Override
+		public Iterable<JpegSegmentType> getSegmentTypes() {
+			return Collections.singletonList(JpegSegmentType.APPD);
+		}
+
+		@Override
+		public void readJpegSegments(Iterable<byte[]> segments, Metadata metadata, JpegSegmentType segmentType) {
+			for (byte[] segment : segments) {
+				if (!LecteurSegmentXmp.commencePar(segment, PREAMBULE)) {
+					continue;
+				}
+				int i = PREAMBULE.length;
+				// Blocs "8BIM" : signature, identifiant, nom Pascal de longueur paire, taille, données de longueur paire
+				while (i + 12 <= segment.length && entier(segment, i) == 0x3842494D) {
+					int identifiant = ((segment[i + 4] & 0xFF) << 8) | (segment[i + 5] & 0xFF);
+					int nom = (segment[i + 6] & 0xFF) + 1;
+					int debut = i + 6 + nom + (nom & 1);
+					if (debut + 4 > segment.length) {
+						break;
+					}
+					int taille = entier(segment, debut);
+					debut += 4;
+					if (taille < 0 || taille > segment.length - debut) {
+						break;
+					}
+					if (identifiant == RESSOURCE_IPTC) {
+						new IptcReader().extract(new SequentialByteArrayReader(segment, debut), metadata, taille);
+						return;
+					}
+					i = debut + taille + (taille & 1);
+				}
+			}
+		}
+
+		private static int entier(byte[] b, int i) {
+			return ((b[i] & 0xFF) << 24) | ((b[i + 1] & 0xFF) << 16) | ((b[i + 2] & 0xFF) << 8) | (b[i + 3] & 0xFF);
+		}
+	}
+
+	/**
+	 * Gestionnaire TIFF qui refuse d'entrer dans les répertoires non demandés
+	 * et ignore les notes du fabricant.
+	 */
+	private class GestionnaireExif extends ExifTiffHandler {
+		GestionnaireExif(Metadata metadata) {
+			super(metadata, null);
+		}
+
+		@Override
+		public boolean tryEnterSubIfd(int tagId) {
+			if (tagId == ExifIFD0Directory.TAG_GPS_INFO_OFFSET && !blocs.contains(Bloc.GPS)) {
+				return false;
+			}
+			if (tagId == ExifDirectoryBase.TAG_SUB_IFD_OFFSET || tagId == ExifSubIFDDirectory.TAG_INTEROP_OFFSET) {
+				return false;
+			}
+			return super.tryEnterSubIfd(tagId);
+		}
+
+		@Override
+		public boolean hasFollowerIfd() {
+			// Le répertoire suivant IFD0 est celui de la miniature
+			return blocs.contains(Bloc.MINIATURE) && super.hasFollowerIfd();
+		}
+
+		@Override
+		public boolean customProcessTag(int tagOffset, Set<Integer> processedIfdOffsets, int tiffHeaderOffset, RandomAccessReader reader, int tagId, int byteCount) throws IOException {
+			if (tagId == ExifDirectoryBase.TAG_MAKERNOTE || tagId == ExifDirectoryBase.TAG_PRINT_IMAGE_MATCHING_INFO) {
+				// Considéré comme traité : ni décodé ni conservé
+				return true;
+			}
+			return super.customProcessTag(tagOffset, processedIfdOffsets, tiffHeaderOffset, reader, tagId, byteCount);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package fonctionnel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Identification du format d'un fichier d'après ses premiers octets.
+ * <p>
+ * Les octets sont lus dans un tampon direct propre à chaque fil et réutilisé d'un fichier à l'autre,
+ * et le format est rendu sous forme d'entier : l'identification ne crée aucun objet par fichier
+ * en dehors du canal ouvert par le JDK.
+ */
+public class Renifleur {
+	/** Le fichier n'a pas pu être lu (droits, disparition, erreur du disque) : son format n'est pas connu. */
+	public static final int ILLISIBLE = -2;
+	/** Format non reconnu : l'en-tête a été lu et ne correspond à aucun format d'image. */
+	public static final int INCONNU = 0;
+	public static final int JPEG = 1;
+	public static final int PNG = 2;
+	public static final int WEBP = 3;
+	public static final int GIF = 4;
+	public static final int BMP = 5;
+	/** TIFF et formats bruts construits sur TIFF (CR2, NEF, ARW, DNG, ORF, RW2). */
+	public static final int TIFF = 6;
+	/** Conteneurs ISO à boîte ftyp dont la marque principale est une image (HEIC, HEIF, AVIF). */
+	public static final int HEIF = 7;
+	public static final int PSD = 8;
+	/** Format reconnu par une extension du registre {@link Formats} dont la signature n'est pas connue ici. */
+	public static final int AUTRE = 9;
+
+	/**
+	 * Nombre d'octets lus au début du fichier : couvre l'en-tête IHDR d'un PNG
+	 * et l'en-tête du premier bloc VP8/VP8L/VP8X d'un WebP.
+	 */
+	public static final int TAILLE_ENTETE = 32;
+
+	private static final ThreadLocal<ByteBuffer> TAMPON = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(TAILLE_ENTETE));
+
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private Renifleur() {
+	}
+
+	/**
+	 * Identifie le format d'un fichier.
+	 *
+	 * @param f le fichier à identifier
+	 * @return une des constantes de format de cette classe, {@link #ILLISIBLE} si le fichier n'a pas pu être lu
+	 */
+	public static int format(File f) {
+		try (FileInputStream in = new FileInputStream(f)) {
+			return classer(lire(in.getChannel()));
+		} catch (IOException e) {
+			return ILLISIBLE;
+		}
+	}
+
+	/**
+	 * Lit le début d'un fichier dans le tampon du fil courant, sans déplacer la position du canal.
+	 * Le tampon rendu n'est valable que jusqu'au prochain appel sur le même fil.
+	 *
+	 * @param canal le canal du fichier
+	 * @return le tampon prêt à être lu, contenant au plus {@link #TAILLE_ENTETE} octets
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	public static ByteBuffer lire(FileChannel canal) throws IOException {
+		ByteBuffer tampon = TAMPON.get();
+		tampon.clear();
+		long position = 0;
+		while (tampon.hasRemaining()) {
+			int n = canal.read(tampon, position);
+			if (n <= 0) {
+				break;
+			}
+			position += n;
+		}
+		tampon.flip();
+		return tampon;
+	}
+
+	/**
+	 * Identifie le format d'après les premiers octets d'un fichier.
+	 *
+	 * @param b le début du fichier, lu de la position 0 à la limite du tampon
+	 * @return une des constantes de format de cette classe
+	 */
+	public static int classer(ByteBuffer b) {
+		int n = b.limit();
+		if (n < 4) {
+			return INCONNU;
+		}
+		int debut = b.getInt(0);
+		if ((debut >>> 16) == 0xFFD8) {
+			return JPEG;
+		}
+		if (debut == 0x89504E47) {
+			return PNG;
+		}
+		if (debut == 0x52494646 && n >= 12 && b.getInt(8) == 0x57454250) {
+			// "RIFF" .... "WEBP"
+			return WEBP;
+		}
+		if (debut == 0x47494638) {
+			// "GIF8"
+			return GIF;
+		}
+		if ((debut >>> 16) == 0x424D) {
+			// "BM"
+			return BMP;
+		}
+		if (debut == 0x49492A00 || debut == 0x4D4D002A || debut == 0x4949524F || debut == 0x4D4D4F52 || debut == 0x49495500) {
+			// II*\0, MM\0*, ORF (IIRO, MMOR) et RW2 (IIU\0)
+			return TIFF;
+		}
+		if (n >= 12 && b.getInt(4) == 0x66747970 && marqueImage(b.getInt(8))) {
+			// "ftyp" suivi d'une marque d'image ; les vidéos MP4 et MOV partagent la même boîte
+			return HEIF;
+		}
+		if (debut == 0x38425053) {
+			// "8BPS"
+			return PSD;
+		}
+		return Formats.autre(b) != null ? AUTRE : INCONNU;
+	}
+
+	/**
+	 * Indique si la marque principale d'un conteneur ISO (boîte {@code ftyp}) désigne une image.
+	 *
+	 * @param marque les quatre octets de la marque, lus en gros-boutiste
+	 * @return true pour les marques HEIF, HEIC et AVIF
+	 */
+	static boolean marqueImage(int marque) {
+		switch (marque) {
+			case 0x68656963: // heic
+			case 0x68656978: // heix
+			case 0x68657663: // hevc
+			case 0x68657678: // hevx
+			case 0x6D696631: // mif1
+			case 0x6D736631: // msf1
+			case 0x61766966: // avif
+			case 0x61766973: // avis
+				return true;
+			default:
+				return false;
+		}
+	}
+}
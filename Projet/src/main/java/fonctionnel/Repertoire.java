@@ -2,16 +2,23 @@ package fonctionnel;
 import java.util.ArrayList;
 import java.util.regex.*;
 import java.io.Serializable;
-import java.nio.file.Files;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 /**
  * Classe Repertoire utilisée pour représenter un répertoire et effectuer diverses opérations
  * telles que la collecte de statistiques et la recherche de fichiers.
  */
 public class Repertoire implements Serializable {
+	/**
+	 * Valeur calculée sur la version d'origine de la classe, pour que les instantanés déjà enregistrés restent lisibles.
+	 */
+	private static final long serialVersionUID = 8290978660282106437L;
 	/**
 	 * Liste des fichiers contenus dans ce répertoire.
 	 */
@@ -25,18 +32,7 @@ public class Repertoire implements Serializable {
     public Repertoire(String path) {
         File d = new File(path);
         if (d.exists() && d.isDirectory()) {
-            File[] tabd = d.listFiles();
-            int i = 0;
-            while (i < tabd.length) {
-                if (tabd[i].isDirectory()) {
-                    if (!(tabd[i].getName().contains("SnapShot"))) {
-                        liste_fichiers(tabd[i]);
-                    }
-                } else {
-                    this.tab.add(new Fichier(tabd[i].getAbsolutePath()));
-                }
-                i++;
-            }
+            liste_fichiers(d);
         }
     }
 
@@ -76,32 +72,54 @@ public class Repertoire implements Serializable {
      * @return le nombre total de fichiers trouvés
      */
     public static int collectStatistics(File directory, Map<String, Integer> imageFormats) {
-        int totalFiles = 0;
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile()) {
-                    totalFiles++;
-                    String extension = Fichier.getExtension(file).toLowerCase();
-                    if (isImage(extension)) {
-                        imageFormats.put(extension, imageFormats.getOrDefault(extension, 0) + 1);
-                        String mime = leMyme(file);
-                        if(!(Fichier.recupMyme(mime).equals(Fichier.getExtension(file)))) {
-                            System.out.println("Avertissement : Le fichier "+file.getPath()+" a un type MIME d'image (" + mime + ") mais son extension (" + Fichier.getExtension(file) + ") ne correspond pas.");
+        int total = 0;
+        try (Stream<Fichier> fichiers = Parcours.flux(directory, Parcours.TOUS_DOSSIERS, Fichier::estFichier)) {
+            for (Iterator<Fichier> it = fichiers.iterator(); it.hasNext(); ) {
+                Fichier fichier = it.next();
+                File file = fichier.get_File();
+                total++;
+                if (Fichier.aExtensionImage(file.getPath())) {
+                    String extension = Fichier.getExtension(file);
+                    imageFormats.put(extension, imageFormats.getOrDefault(extension, 0) + 1);
+                    String mime = leMyme(fichier);
+                    if (!Fichier.isImageMimeType(mime)) {
+                        if (!mime.isEmpty()) {
+                            System.out.println("Erreur : Le fichier "+file.getPath()+" a une extension d'image (" + extension + ") mais son type MIME (" + mime + ") indique que ce n'est pas une image.");
                         }
+                    } else if(!TypeMime.correspond(mime, extension)) {
+                        System.out.println("Avertissement : Le fichier "+file.getPath()+" a un type MIME d'image (" + mime + ") mais son extension (" + extension + ") ne correspond pas.");
                     }
-                } else if (file.isDirectory()) {
-                    totalFiles += collectStatistics(file, imageFormats);
                 }
             }
         }
-        return totalFiles;
+        return total;
     }
+    /**
+     * Détecte le type MIME d'un fichier d'après ses premiers octets (voir {@link TypeMime}).
+     *
+     * @param f le fichier à analyser
+     * @return le type MIME, ou une chaîne vide si le fichier ne peut pas être lu
+     */
     public static String leMyme(File f) {
 
         try {
-            String mimeType = Files.probeContentType(f.toPath());
-            return mimeType;
+            return TypeMime.detecter(f.toPath());
+        } catch (IOException e) {
+            System.out.println("Erreur lors de la détection du type MIME: " + e.getMessage());
+            return "";
+        }
+    }
+
+    /**
+     * Détecte le type MIME d'un fichier rencontré pendant un parcours : sa taille et sa date de modification,
+     * déjà relevées, servent à consulter le cache de {@link TypeMime} sans relire les attributs du fichier.
+     *
+     * @param f le fichier à analyser
+     * @return le type MIME, ou une chaîne vide si le fichier ne peut pas être lu
+     */
+    public static String leMyme(Fichier f) {
+        try {
+            return TypeMime.detecter(f.get_File().toPath(), f.get_taille(), f.get_modif());
         } catch (IOException e) {
             System.out.println("Erreur lors de la détection du type MIME: " + e.getMessage());
             return "";
@@ -131,26 +149,29 @@ public class Repertoire implements Serializable {
      * @param directory le répertoire à parcourir
      */
     public static void listFilesRecursively(File directory) {
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile()) {
-                    System.out.println(file.getName());
-                } else if (file.isDirectory()) {
-                    listFilesRecursively(file);
-                }
-            }
+        try (Stream<Fichier> fichiers = Parcours.flux(directory, Parcours.TOUS_DOSSIERS, Fichier::estFichier)) {
+            fichiers.forEach(f -> System.out.println(f.get_Nom()));
         }
     }
 
     /**
-     * Vérifie si une extension de fichier correspond à une image.
+     * Parcourt récursivement un répertoire pour collecter ses images, en ignorant les dossiers exclus (voir {@link Exclusions}).
+     *
+     * @param d      le répertoire à parcourir
+     * @param images la liste des images trouvées
+     */
+    public static void listerImages(File d, ArrayList<File> images) {
+        Inventaire.de(d).filtrer(file -> Fichier.aExtensionImage(file.get_Nom()), images);
+    }
+
+    /**
+     * Vérifie si une extension de fichier correspond à un format d'image enregistré dans {@link Formats}.
      *
      * @param extension l'extension du fichier
      * @return true si c'est une image, sinon false
      */
     public static boolean isImage(String extension) {
-        return extension.equals("jpg") || extension.equals("jpeg") || extension.equals("png") || extension.equals("webp");
+        return Formats.parExtension(extension) != null;
     }
 
     /**
@@ -159,21 +180,7 @@ public class Repertoire implements Serializable {
      * @param d le répertoire à parcourir
      */
     public void liste_fichiers(File d) {
-        File[] tabd = d.listFiles();
-
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (tabd[i].getName().contains("SnapShot")) {
-                    i++;
-                } else {
-                    liste_fichiers(tabd[i]);
-                }
-            } else {
-                this.tab.add(new Fichier(tabd[i].getAbsolutePath()));
-            }
-            i++;
-        }
+        this.tab.addAll(Parcours.entrees(d.getAbsoluteFile(), Exclusions.pour(d.getAbsoluteFile()).parcourus(), file -> true));
     }
 
     /**
@@ -184,20 +191,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_date(File d, String date, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_date(tabd[i], date, fileList);
-                }
-            } else {
-                if (DateEgale(tabd[i], date)) {
-                    fileList.add(tabd[i]);
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_date(date), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une date exacte donnée.
+     *
+     * @param date     la date à rechercher
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_date(String date) {
+        return f -> DateEgale(f, date);
     }
 
     /**
@@ -208,20 +212,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_date_sup_egale(File d, String date, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_date_sup_egale(tabd[i], date, fileList);
-                }
-            } else {
-                if (DateSup(tabd[i], date) || DateEgale(tabd[i], date)) {
-                    fileList.add(tabd[i]);
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_date_sup_egale(date), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une date supérieure ou égale à une date donnée.
+     *
+     * @param date     la date de référence
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_date_sup_egale(String date) {
+        return f -> DateSup(f, date) || DateEgale(f, date);
     }
     
     /**
@@ -232,20 +233,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_date_sup(File d, String date, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_date_sup(tabd[i], date, fileList);
-                }
-            } else {
-                if (DateSup(tabd[i], date)) {
-                    fileList.add(tabd[i]);
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_date_sup(date), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une date strictement supérieure à la date donnée.
+     *
+     * @param date     la date de référence
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_date_sup(String date) {
+        return f -> DateSup(f, date);
     }
 
     /**
@@ -256,20 +254,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_date_inf_egale(File d, String date, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_date_inf_egale(tabd[i], date, fileList);
-                }
-            } else {
-                if (!DateSup(tabd[i], date)) {
-                    fileList.add(tabd[i]);
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_date_inf_egale(date), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une date inférieure ou égale à la date donnée.
+     *
+     * @param date     la date de référence
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_date_inf_egale(String date) {
+        return f -> !DateSup(f, date);
     }
 
     /**
@@ -280,20 +275,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_date_inf(File d, String date, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_date_inf(tabd[i], date, fileList);
-                }
-            } else {
-                if (!DateSup(tabd[i], date) && !(DateEgale(tabd[i], date))) {
-                    fileList.add(tabd[i]);
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_date_inf(date), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une date strictement inférieure à la date donnée.
+     *
+     * @param date     la date de référence
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_date_inf(String date) {
+        return f -> !DateSup(f, date) && !DateEgale(f, date);
     }
 
     /**
@@ -304,20 +296,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_date_dif(File d, String date, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_date_dif(tabd[i], date, fileList);
-                }
-            } else {
-                if (!(DateEgale(tabd[i], date))) {
-                    fileList.add(tabd[i]);
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_date_dif(date), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une date différente de la date donnée.
+     *
+     * @param date     la date de référence
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_date_dif(String date) {
+        return f -> !DateEgale(f, date);
     }
 
     /**
@@ -328,20 +317,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_nom(File d, String nom, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_nom(tabd[i], nom, fileList);
-                }
-            } else {
-                if (nom.equals(tabd[i].getName())) {
-                    fileList.add(tabd[i]);
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_nom(nom), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant un nom exact donné.
+     *
+     * @param nom      le nom du fichier recherché
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_nom(String nom) {
+        return f -> nom.equals(f.get_Nom());
     }
 
     /**
@@ -352,20 +338,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_nom_dif(File d, String nom, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_nom_dif(tabd[i], nom, fileList);
-                }
-            } else {
-                if (!(nom.equals(tabd[i].getName()))) {
-                    fileList.add(tabd[i]);
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_nom_dif(nom), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant un nom différent de celui donné.
+     *
+     * @param nom      le nom du fichier à exclure
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_nom_dif(String nom) {
+        return f -> !nom.equals(f.get_Nom());
     }
 
     /**
@@ -377,25 +360,18 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_dim(File d, int h, int l, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_dim(tabd[i], h, l, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int hau = im.hauteur();
-                    int la = im.largeur();
-                    if ((la == l) && (h == hau)) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_dim(h, l), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant des dimensions exactes données (hauteur et largeur).
+     *
+     * @param h        la hauteur recherchée
+     * @param l        la largeur recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_dim(int h, int l) {
+        return dimensions((la, hau) -> la == l && hau == h);
     }
 
     /**
@@ -407,25 +383,18 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_dim_dif(File d, int h, int l, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_dim_dif(tabd[i], h, l, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int hau = im.hauteur();
-                    int la = im.largeur();
-                    if ((la != l) || (h != hau)) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_dim_dif(h, l), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant des dimensions différentes des dimensions données.
+     *
+     * @param h        la hauteur à exclure
+     * @param l        la largeur à exclure
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_dim_dif(int h, int l) {
+        return dimensions((la, hau) -> la != l || hau != h);
     }
     /**
      * Recherche les fichiers ayant une hauteur strictement supérieure à la hauteur donnée.
@@ -435,24 +404,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_hauteur_sup(File d, int h, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_hauteur_sup(tabd[i], h, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int hau = im.hauteur();
-                    if ((h < hau && hau != -1)) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_hauteur_sup(h), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une hauteur strictement supérieure à la hauteur donnée.
+     *
+     * @param h        la hauteur minimale recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_hauteur_sup(int h) {
+        return dimensions((la, hau) -> h < hau && hau != -1);
     }
 
     /**
@@ -463,24 +425,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_hauteur_sup_egale(File d, int h, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_hauteur_sup_egale(tabd[i], h, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int hau = im.hauteur();
-                    if ((h <= hau && hau != -1)) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_hauteur_sup_egale(h), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une hauteur supérieure ou égale à la hauteur donnée.
+     *
+     * @param h        la hauteur minimale recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_hauteur_sup_egale(int h) {
+        return dimensions((la, hau) -> h <= hau && hau != -1);
     }
 
     /**
@@ -491,24 +446,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_hauteur_inf(File d, int h, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_hauteur_inf(tabd[i], h, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int hau = im.hauteur();
-                    if ((h > hau) && hau != -1) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_hauteur_inf(h), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une hauteur strictement inférieure à la hauteur donnée.
+     *
+     * @param h        la hauteur maximale recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_hauteur_inf(int h) {
+        return dimensions((la, hau) -> h > hau && hau != -1);
     }
 
     /**
@@ -519,24 +467,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_hauteur_inf_egale(File d, int h, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_hauteur_inf_egale(tabd[i], h, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int hau = im.hauteur();
-                    if ((h >= hau) && hau != -1) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_hauteur_inf_egale(h), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une hauteur inférieure ou égale à la hauteur donnée.
+     *
+     * @param h        la hauteur maximale recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_hauteur_inf_egale(int h) {
+        return dimensions((la, hau) -> h >= hau && hau != -1);
     }
 
     /**
@@ -547,24 +488,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_hauteur_egale(File d, int h, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_hauteur_egale(tabd[i], h, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int hau = im.hauteur();
-                    if ((h == hau) && hau != -1) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_hauteur_egale(h), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une hauteur égale à la hauteur donnée.
+     *
+     * @param h        la hauteur recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_hauteur_egale(int h) {
+        return dimensions((la, hau) -> h == hau && hau != -1);
     }
 
     /**
@@ -575,24 +509,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_largeur_inf_egale(File d, int l, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_largeur_inf_egale(tabd[i], l, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int larg = im.largeur();
-                    if ((l >= larg) && larg != -1) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_largeur_inf_egale(l), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une largeur inférieure ou égale à la largeur donnée.
+     *
+     * @param l        la largeur maximale recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_largeur_inf_egale(int l) {
+        return dimensions((la, hau) -> l >= la && la != -1);
     }
 
     /**
@@ -603,24 +530,17 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
     public static void recherche_fichier_largeur_inf(File d, int l, ArrayList<File> fileList) {
-        File[] tabd = d.listFiles();
-        int i = 0;
-        while (i < tabd.length) {
-            if (tabd[i].isDirectory()) {
-                if (!(tabd[i].getName().contains("SnapShot"))) {
-                    recherche_fichier_largeur_inf(tabd[i], l, fileList);
-                }
-            } else {
-                Image im = new Image(tabd[i]);
-                if (im.estExif()) {
-                    int larg = im.largeur();
-                    if ((l > larg) && larg != -1) {
-                        fileList.add(tabd[i]);
-                    }
-                }
-            }
-            i++;
-        }
+        Inventaire.de(d).filtrer(critere_largeur_inf(l), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une largeur strictement inférieure à la largeur donnée.
+     *
+     * @param l        la largeur maximale recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_largeur_inf(int l) {
+        return dimensions((la, hau) -> l > la && la != -1);
     }
     /**
      * Recherche les fichiers ayant une largeur strictement supérieure à la largeur donnée.
@@ -630,26 +550,18 @@ public class Repertoire implements Serializable {
      * @param fileList la liste des fichiers trouvés
      */
 
-    public static void recherche_fichier_largeur_sup(File d, int l,ArrayList<File> fileList) {
-    	File [] tabd = d.listFiles();
-    	int i =0;
-    	while (i<tabd.length) {
-    		if(tabd[i].isDirectory()) {
-    			if(!(tabd[i].getName().contains("SnapShot"))) {
-					recherche_fichier_largeur_sup(tabd[i],l,fileList);
-				}
-    		}
-    		else {
-    			Image im = new Image(tabd[i]);
-    			if(im.estExif()) {
-    				int larg = im.largeur();
-    				if( (l < larg) && larg!=-1) {
-    					fileList.add(tabd[i]);
-    				}
-    			}
-    		}
-    		i = i+1;
-    	}
+    public static void recherche_fichier_largeur_sup(File d, int l, ArrayList<File> fileList) {
+        Inventaire.de(d).filtrer(critere_largeur_sup(l), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une largeur strictement supérieure à la largeur donnée.
+     *
+     * @param l        la largeur minimale recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_largeur_sup(int l) {
+        return dimensions((la, hau) -> l < la && la != -1);
     }
     /**
      * Recherche les fichiers ayant une largeur supérieure ou égale à la largeur donnée.
@@ -658,26 +570,18 @@ public class Repertoire implements Serializable {
      * @param l        la largeur minimale recherchée
      * @param fileList la liste des fichiers trouvés
      */
-    public static void recherche_fichier_largeur_sup_egale(File d, int l,ArrayList<File> fileList) {
-    	File [] tabd = d.listFiles();
-    	int i =0;
-    	while (i<tabd.length) {
-    		if(tabd[i].isDirectory()) {
-    			if(!(tabd[i].getName().contains("SnapShot"))) {
-					recherche_fichier_largeur_sup_egale(tabd[i],l,fileList);
-				}
-    		}
-    		else {
-    			Image im = new Image(tabd[i]);
-    			if(im.estExif()) {
-    				int larg = im.largeur();
-    				if( (l <=larg) && larg!=-1) {
-    					fileList.add(tabd[i]);
-    				}
-    			}
-    		}
-    		i = i+1;
-    	}
+    public static void recherche_fichier_largeur_sup_egale(File d, int l, ArrayList<File> fileList) {
+        Inventaire.de(d).filtrer(critere_largeur_sup_egale(l), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une largeur supérieure ou égale à la largeur donnée.
+     *
+     * @param l        la largeur minimale recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_largeur_sup_egale(int l) {
+        return dimensions((la, hau) -> l <= la && la != -1);
     }
     /**
      * Recherche les fichiers ayant une largeur égale à la largeur donnée.
@@ -686,26 +590,18 @@ public class Repertoire implements Serializable {
      * @param l        la largeur recherchée
      * @param fileList la liste des fichiers trouvés
      */
-    public static void recherche_fichier_largeur_egale(File d, int l,ArrayList<File> fileList) {
-    	File [] tabd = d.listFiles();
-    	int i =0;
-    	while (i<tabd.length) {
-    		if(tabd[i].isDirectory()) {
-    			if(!(tabd[i].getName().contains("SnapShot"))) {
-					recherche_fichier_largeur_egale(tabd[i],l,fileList);
-				}
-    		}
-    		else {
-    			Image im = new Image(tabd[i]);
-    			if(im.estExif()) {
-    				int larg = im.largeur();
-    				if( (l ==larg) && larg!=-1) {
-    					fileList.add(tabd[i]);
-    				}
-    			}
-    		}
-    		i = i+1;
-    	}
+    public static void recherche_fichier_largeur_egale(File d, int l, ArrayList<File> fileList) {
+        Inventaire.de(d).filtrer(critere_largeur_egale(l), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une largeur égale à la largeur donnée.
+     *
+     * @param l        la largeur recherchée
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_largeur_egale(int l) {
+        return dimensions((la, hau) -> l == la && la != -1);
     }
     /**
      * Recherche les fichiers ayant une largeur différente de la largeur donnée.
@@ -714,26 +610,18 @@ public class Repertoire implements Serializable {
      * @param l        la largeur à exclure
      * @param fileList la liste des fichiers trouvés
      */
-    public static void recherche_fichier_largeur_dif(File d, int l,ArrayList<File> fileList) {
-    	File [] tabd = d.listFiles();
-    	int i =0;
-    	while (i<tabd.length) {
-    		if(tabd[i].isDirectory()) {
-    			if(!(tabd[i].getName().contains("SnapShot"))) {
-					recherche_fichier_largeur_dif(tabd[i],l,fileList);
-				}
-    		}
-    		else {
-    			Image im = new Image(tabd[i]);
-    			if(im.estExif()) {
-    				int larg = im.largeur();
-    				if( (l !=larg) && larg!=-1) {
-    					fileList.add(tabd[i]);
-    				}
-    			}
-    		}
-    		i = i+1;
-    	}
+    public static void recherche_fichier_largeur_dif(File d, int l, ArrayList<File> fileList) {
+        Inventaire.de(d).filtrer(critere_largeur_dif(l), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une largeur différente de la largeur donnée.
+     *
+     * @param l        la largeur à exclure
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_largeur_dif(int l) {
+        return dimensions((la, hau) -> l != la && la != -1);
     }
     /**
      * Recherche les fichiers ayant une hauteur différente de la hauteur donnée.
@@ -742,26 +630,18 @@ public class Repertoire implements Serializable {
      * @param h        la hauteur à exclure
      * @param fileList la liste des fichiers trouvés
      */
-    public static void recherche_fichier_hauteur_dif (File d, int h,ArrayList<File> fileList) {
-    	File [] tabd = d.listFiles();
-    	int i =0;
-    	while (i<tabd.length) {
-    		if(tabd[i].isDirectory()) {
-    			if(!(tabd[i].getName().contains("SnapShot"))) {
-					recherche_fichier_hauteur_dif(tabd[i],h,fileList);
-				}
-    		}
-    		else {
-    			Image im = new Image(tabd[i]);
-    			if(im.estExif()) {
-    				int hau = im.hauteur();
-    				if( (h != hau) && hau!=-1) {
-    					fileList.add(tabd[i]);
-    				}
-    			}
-    		}
-    		i = i+1;
-    	}
+    public static void recherche_fichier_hauteur_dif(File d, int h, ArrayList<File> fileList) {
+        Inventaire.de(d).filtrer(critere_hauteur_dif(h), fileList);
+    }
+
+    /**
+     * Critère des fichiers ayant une hauteur différente de la hauteur donnée.
+     *
+     * @param h        la hauteur à exclure
+     * @return le critère à évaluer sur chaque fichier du parcours
+     */
+    public static Predicate<Fichier> critere_hauteur_dif(int h) {
+        return dimensions((la, hau) -> h != hau && hau != -1);
     }
     
     
@@ -770,6 +650,178 @@ public class Repertoire implements Serializable {
     
     
     
+    /**
+     * Recherche les images prises dans un rectangle de coordonnées GPS, bornes incluses.
+     * La recherche utilise l'index spatial du catalogue du répertoire (voir {@link Catalogue}).
+     *
+     * @param d        le répertoire à parcourir
+     * @param latMin   la latitude minimale
+     * @param lonMin   la longitude minimale
+     * @param latMax   la latitude maximale
+     * @param lonMax   la longitude maximale
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_geo_boite(File d, double latMin, double lonMin, double latMax, double lonMax, ArrayList<File> fileList) {
+        Catalogue.de(d).rechercherBoite(latMin, lonMin, latMax, lonMax, fileList);
+    }
+
+    /**
+     * Recherche les images prises à moins d'une distance donnée d'un point GPS.
+     * La recherche utilise l'index spatial du catalogue du répertoire (voir {@link Catalogue}).
+     *
+     * @param d        le répertoire à parcourir
+     * @param lat      la latitude du centre
+     * @param lon      la longitude du centre
+     * @param km       le rayon en kilomètres
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_geo_rayon(File d, double lat, double lon, double km, ArrayList<File> fileList) {
+        Catalogue.de(d).rechercherRayon(lat, lon, km, fileList);
+    }
+
+    /**
+     * Recherche les images prises à une date donnée, à la seconde près.
+     * La date de prise de vue (EXIF DateTimeOriginal, à défaut CreateDate ou XMP) est lue dans
+     * le catalogue du répertoire (voir {@link Catalogue}), sans relire les fichiers.
+     *
+     * @param d        le répertoire à parcourir
+     * @param date     la date recherchée (format JJ/MM/AAAA HH:mm:ss)
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_capture(File d, String date, ArrayList<File> fileList) {
+        long millis = DateCapture.depuisSaisie(date);
+        if (millis != DateCapture.ABSENTE) {
+            Catalogue.de(d).rechercherCapture(millis, millis + 999, fileList);
+        }
+    }
+
+    /**
+     * Recherche les images prises strictement après une date donnée.
+     *
+     * @param d        le répertoire à parcourir
+     * @param date     la date de référence (format JJ/MM/AAAA HH:mm:ss)
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_capture_sup(File d, String date, ArrayList<File> fileList) {
+        long millis = DateCapture.depuisSaisie(date);
+        if (millis != DateCapture.ABSENTE) {
+            Catalogue.de(d).rechercherCapture(millis + 1000, Long.MAX_VALUE, fileList);
+        }
+    }
+
+    /**
+     * Recherche les images prises strictement avant une date donnée.
+     *
+     * @param d        le répertoire à parcourir
+     * @param date     la date de référence (format JJ/MM/AAAA HH:mm:ss)
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_capture_inf(File d, String date, ArrayList<File> fileList) {
+        long millis = DateCapture.depuisSaisie(date);
+        if (millis != DateCapture.ABSENTE) {
+            Catalogue.de(d).rechercherCapture(DateCapture.ABSENTE + 1, millis - 1, fileList);
+        }
+    }
+
+    /**
+     * Recherche les images dont la marque, le modèle ou l'objectif est égal à une valeur, sans tenir compte de la casse.
+     * La recherche porte sur les colonnes codées du catalogue du répertoire (voir {@link Catalogue}).
+     *
+     * @param d        le répertoire à parcourir
+     * @param champ    la colonne interrogée : marque, modèle ou objectif
+     * @param valeur   la valeur recherchée
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_appareil(File d, Catalogue.Champ champ, String valeur, ArrayList<File> fileList) {
+        Catalogue.de(d).rechercherEgal(champ, valeur, fileList);
+    }
+
+    /**
+     * Recherche les images portant des mots-clés IPTC ou XMP, dans l'index inversé du catalogue du répertoire.
+     *
+     * @param d        le répertoire à parcourir
+     * @param mots     les mots-clés recherchés, comparés sans tenir compte de la casse ni des accents
+     * @param tous     {@code true} pour exiger tous les mots-clés, {@code false} pour en exiger au moins un
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_mots_cles(File d, String[] mots, boolean tous, ArrayList<File> fileList) {
+        Catalogue.de(d).rechercherMotsCles(mots, tous, fileList);
+    }
+
+    /**
+     * Recherche les images dont le titre, la description ou le créateur XMP contient tous les mots d'une requête,
+     * dans l'index plein texte du catalogue du répertoire.
+     *
+     * @param d        le répertoire à parcourir
+     * @param requete  les mots recherchés, séparés par des espaces ; un mot terminé par {@code *} est un préfixe
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_texte(File d, String requete, ArrayList<File> fileList) {
+        Catalogue.de(d).rechercherTexte(requete, fileList);
+    }
+
+    /**
+     * Recherche les images dont la sensibilité ISO, la focale (mm) ou la durée d'exposition (s)
+     * est comprise entre deux bornes incluses, dans le catalogue du répertoire.
+     *
+     * @param d        le répertoire à parcourir
+     * @param champ    la colonne interrogée : ISO, focale ou exposition
+     * @param min      la borne inférieure
+     * @param max      la borne supérieure
+     * @param fileList la liste des fichiers trouvés
+     */
+    public static void recherche_fichier_reglage(File d, Catalogue.Champ champ, double min, double max, ArrayList<File> fileList) {
+        Catalogue.de(d).rechercherPlage(champ, min, max, fileList);
+    }
+
+    /**
+     * Convertit une coordonnée ou une distance saisie par l'utilisateur.
+     *
+     * @param valeur la valeur en degrés décimaux ou en kilomètres, avec un point ou une virgule décimale
+     * @return la valeur, ou {@link Double#NaN} si la chaîne n'est pas un nombre
+     */
+    public static double coordonnee(String valeur) {
+        try {
+            return Double.parseDouble(valeur.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Convertit une durée d'exposition saisie par l'utilisateur, en secondes.
+     *
+     * @param valeur la durée, sous forme décimale (0.004) ou de fraction (1/250)
+     * @return la durée, ou {@link Double#NaN} si la chaîne n'est pas valide
+     */
+    public static double exposition(String valeur) {
+        int barre = valeur.indexOf('/');
+        if (barre < 0) {
+            return coordonnee(valeur);
+        }
+        double numerateur = coordonnee(valeur.substring(0, barre));
+        double denominateur = coordonnee(valeur.substring(barre + 1));
+        return denominateur > 0 ? numerateur / denominateur : Double.NaN;
+    }
+
+    /**
+     * Condition sur la largeur et la hauteur d'une image.
+     */
+    private interface ConditionDimensions {
+        boolean verifie(int largeur, int hauteur);
+    }
+
+    /**
+     * Construit le filtre des fichiers dont les dimensions sont connues et vérifient une condition.
+     * Les dimensions sont lues une seule fois par fichier (voir {@link Fichier#aDimensions()}).
+     *
+     * @param condition la condition sur la largeur et la hauteur
+     * @return le filtre à appliquer pendant le parcours
+     */
+    private static Predicate<Fichier> dimensions(ConditionDimensions condition) {
+        return f -> f.aDimensions() && condition.verifie(f.get_largeur(), f.get_hauteur());
+    }
+
     /**
      * Affiche les chemins des fichiers contenus dans une liste.
      *
@@ -781,17 +833,40 @@ public class Repertoire implements Serializable {
     		System.out.println(list.get(i).getPath());
     	}
     }
+
+    /**
+     * Affiche les chemins des fichiers d'un flux au fur et à mesure du parcours, puis ferme le flux.
+     *
+     * @param flux le flux des fichiers à afficher
+     */
+    public static void affichage(Stream<File> flux) {
+        try (Stream<File> fichiers = flux) {
+            fichiers.forEach(f -> System.out.println(f.getPath()));
+        }
+    }
+
+    /**
+     * Parcourt un répertoire sous forme de flux paresseux et garde les fichiers qui vérifient un critère
+     * (voir {@link Parcours#flux(File, Predicate)}).
+     *
+     * @param d       le répertoire à parcourir
+     * @param critere le critère, par exemple {@link #critere_date(String)}
+     * @return le flux des fichiers trouvés, dans l'ordre du parcours, à fermer après usage
+     */
+    public static Stream<File> flux_fichiers(File d, Predicate<Fichier> critere) {
+        return Parcours.flux(d, critere).map(Fichier::get_File);
+    }
     
     
     
     /**
      * Vérifie si la date de création d'un fichier est égale à une date donnée.
      *
-     * @param f     le fichier à vérifier
+     * @param f     le fichier à vérifier, avec les attributs lus pendant le parcours
      * @param date1 la date à comparer
      * @return true si la date correspond, false sinon
      */
-    private static boolean DateEgale(File f,String date1) {
+    private static boolean DateEgale(Fichier f,String date1) {
     	
     	String date = Fichier.DateDeCreation(f);
     	return date.equals(date1) ;
@@ -799,11 +874,11 @@ public class Repertoire implements Serializable {
     /**
      * Vérifie si la date de création d'un fichier est strictement supérieure à une date donnée.
      *
-     * @param f     le fichier à vérifier
+     * @param f     le fichier à vérifier, avec les attributs lus pendant le parcours
      * @param date1 la date à comparer
      * @return true si la date du fichier est supérieure, false sinon
      */
-    private static boolean DateSup(File f,String date1) {
+    private static boolean DateSup(Fichier f,String date1) {
     	String date = Fichier.DateDeCreation(f);
     	int annee1 = Fichier.annee(date1);
     	int jour1 = Fichier.jour(date1);
@@ -873,16 +948,13 @@ public class Repertoire implements Serializable {
      * @return Une liste contenant les fichiers présents à la fois dans c1 et c2.
      */
     public static ArrayList<File> compare2(ArrayList<File> c1, ArrayList<File> c2) {
+        // Ensemble de hachage : intersection en temps linéaire, l'ordre de c1 est conservé
+        HashSet<File> e2 = new HashSet<>(c2);
         ArrayList<File> result = new ArrayList<>();
         for (int i = 0; i < c1.size(); i++) {
-            boolean trouve = false;
             File f1 = c1.get(i);
-            for (int j = 0; j < c2.size() && !trouve; j++) {
-                File f2 = c2.get(j);
-                if (f2.equals(f1)) {
-                    result.add(f2);
-                    trouve = true;
-                }
+            if (e2.contains(f1)) {
+                result.add(f1);
             }
         }
         return result;
@@ -898,19 +970,13 @@ public class Repertoire implements Serializable {
      * @return Une liste contenant les fichiers présents dans c1, c2 et c3.
      */
     public static ArrayList<File> compare3(ArrayList<File> c1, ArrayList<File> c2, ArrayList<File> c3) {
+        HashSet<File> e2 = new HashSet<>(c2);
+        HashSet<File> e3 = new HashSet<>(c3);
         ArrayList<File> result = new ArrayList<>();
         for (int i = 0; i < c1.size(); i++) {
             File f1 = c1.get(i);
-            boolean trouve = false;
-            for (int j = 0; j < c2.size() && !trouve; j++) {
-                File f2 = c2.get(j);
-                for (int l = 0; l < c3.size() && !trouve; l++) {
-                    File f3 = c3.get(l);
-                    if (f1.equals(f2) && f2.equals(f3)) {
-                        result.add(f1);
-                        trouve = true;
-                    }
-                }
+            if (e2.contains(f1) && e3.contains(f1)) {
+                result.add(f1);
             }
         }
         return result;
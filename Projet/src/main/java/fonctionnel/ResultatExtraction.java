@@ -0,0 +1,60 @@
+package fonctionnel;
+
+import java.nio.file.Path;
+
+/**
+ * Résultat de l'extraction des métadonnées d'un fichier lors d'un traitement par lots.
+ */
+public final class ResultatExtraction {
+	private final Path chemin;
+	private final Image image;
+	private final Exception erreur;
+
+	/**
+	 * Constructeur d'un résultat.
+	 *
+	 * @param chemin le chemin du fichier traité
+	 * @param image  l'image dont les métadonnées ont été lues, ou {@code null} si le traitement a échoué avant
+	 * @param erreur l'exception rencontrée, ou {@code null} en cas de succès
+	 */
+	public ResultatExtraction(Path chemin, Image image, Exception erreur) {
+		this.chemin = chemin;
+		this.image = image;
+		this.erreur = erreur;
+	}
+
+	/**
+	 * @return le chemin du fichier traité
+	 */
+	public Path getChemin() {
+		return chemin;
+	}
+
+	/**
+	 * @return l'image traitée, dont les métadonnées sont déjà lues, ou {@code null} en cas d'erreur
+	 */
+	public Image getImage() {
+		return image;
+	}
+
+	/**
+	 * @return les métadonnées lues, ou {@code null} en cas d'erreur
+	 */
+	public Metadonnees getMetadonnees() {
+		return erreur == null ? image.getMetadonnees() : null;
+	}
+
+	/**
+	 * @return {@code true} si l'extraction a échoué pour ce fichier
+	 */
+	public boolean estErreur() {
+		return erreur != null;
+	}
+
+	/**
+	 * @return l'exception rencontrée pour ce fichier, ou {@code null}
+	 */
+	public Exception getErreur() {
+		return erreur;
+	}
+}
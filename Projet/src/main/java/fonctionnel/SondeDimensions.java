@@ -0,0 +1,276 @@
+package fonctionnel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Lecture rapide des dimensions d'une image directement dans l'en-tête du fichier,
+ * sans construire l'arbre complet des métadonnées.
+ */
+public class SondeDimensions {
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private SondeDimensions() {
+	}
+
+	/**
+	 * Lit les dimensions réelles d'une image dans l'en-tête de son fichier.
+	 * Les dimensions sont lues par le format du fichier enregistré dans {@link Formats} : JPEG (trame SOFn),
+	 * PNG (bloc IHDR) et WebP (blocs VP8, VP8L et VP8X) pour les formats intégrés.
+	 *
+	 * @param f le fichier image
+	 * @return un tableau {largeur, hauteur} en pixels, ou {@code null} si la sonde ne peut pas conclure
+	 */
+	public static int[] lire(File f) {
+		int[] dimensions = new int[2];
+		lire(f, dimensions);
+		return dimensions[0] > 0 ? dimensions : null;
+	}
+
+	/**
+	 * Identifie le format d'un fichier et lit les dimensions dans son en-tête, en une seule ouverture.
+	 * Le début du fichier est lu par {@link Renifleur}, puis transmis au lecteur de dimensions du format
+	 * ({@link FormatImage#lireDimensions}) ; seul un JPEG est ensuite parcouru par flux.
+	 *
+	 * @param f          le fichier image
+	 * @param dimensions tableau de deux cases recevant {largeur, hauteur}, mis à 0 si la sonde ne peut pas conclure
+	 * @return le format du fichier, une des constantes de {@link Renifleur} ; {@link Renifleur#ILLISIBLE}
+	 *         si le début du fichier n'a pas pu être lu, à distinguer d'un en-tête lu mais non reconnu ({@link Renifleur#INCONNU}).
+	 *         Un format identifié est rendu même si ses dimensions n'ont pas pu être lues (fichier tronqué, plafond atteint).
+	 */
+	public static int lire(File f, int[] dimensions) {
+		dimensions[0] = 0;
+		dimensions[1] = 0;
+		int signature = Renifleur.ILLISIBLE;
+		try (FileInputStream in = new FileInputStream(f)) {
+			ByteBuffer entete = Renifleur.lire(in.getChannel());
+			signature = Renifleur.classer(entete);
+			FormatImage format = Formats.parEntete(signature, entete);
+			// La lecture positionnelle du renifleur a laissé le flux au début du fichier
+			if (format != null && !format.lireDimensions(in, entete, dimensions)) {
+				dimensions[0] = 0;
+				dimensions[1] = 0;
+			}
+		} catch (IOException e) {
+			// Fin de fichier ou erreur pendant la recherche des dimensions : le format reste connu,
+			// les dimensions seront cherchées dans les métadonnées
+			dimensions[0] = 0;
+			dimensions[1] = 0;
+		}
+		return signature;
+	}
+
+	/**
+	 * Lit les dimensions dans le bloc IHDR qui suit obligatoirement la signature PNG.
+	 *
+	 * @param entete     le début du fichier
+	 * @param dimensions tableau recevant {largeur, hauteur}
+	 * @return {@code true} si l'en-tête est un PNG valide
+	 */
+	public static boolean png(ByteBuffer entete, int[] dimensions) {
+		if (entete.limit() < 24 || entete.getInt(0) != 0x89504E47 || entete.getInt(12) != 0x49484452) {
+			// Signature ou bloc "IHDR" absents
+			return false;
+		}
+		int largeur = entete.getInt(16);
+		int hauteur = entete.getInt(20);
+		if (largeur <= 0 || hauteur <= 0) {
+			return false;
+		}
+		dimensions[0] = largeur;
+		dimensions[1] = hauteur;
+		return true;
+	}
+
+	/**
+	 * Lit les dimensions dans le premier bloc d'un conteneur RIFF/WebP :
+	 * VP8 (avec perte), VP8L (sans perte) ou VP8X (format étendu, taille du canevas).
+	 *
+	 * @param entete     le début du fichier
+	 * @param dimensions tableau recevant {largeur, hauteur}
+	 * @return {@code true} si l'en-tête est un WebP reconnu
+	 */
+	public static boolean webp(ByteBuffer entete, int[] dimensions) {
+		int n = entete.limit();
+		if (n < 25 || entete.getInt(0) != 0x52494646 || entete.getInt(8) != 0x57454250) {
+			return false;
+		}
+		switch (entete.getInt(12)) {
+			case 0x56503820:
+				// "VP8 " : trame clé, 3 octets d'étiquette puis le code de départ 9D 01 2A
+				if (n < 30 || u8(entete, 23) != 0x9D || u8(entete, 24) != 0x01 || u8(entete, 25) != 0x2A) {
+					return false;
+				}
+				dimensions[0] = u16le(entete, 26) & 0x3FFF;
+				dimensions[1] = u16le(entete, 28) & 0x3FFF;
+				return true;
+			case 0x5650384C:
+				// "VP8L"
+				if (u8(entete, 20) != 0x2F) {
+					return false;
+				}
+				int bits = u16le(entete, 21) | (u16le(entete, 23) << 16);
+				dimensions[0] = (bits & 0x3FFF) + 1;
+				dimensions[1] = ((bits >>> 14) & 0x3FFF) + 1;
+				return true;
+			case 0x56503858:
+				// "VP8X"
+				if (n < 30) {
+					return false;
+				}
+				dimensions[0] = u24le(entete, 24) + 1;
+				dimensions[1] = u24le(entete, 27) + 1;
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Parcourt les marqueurs d'un flux JPEG jusqu'à l'en-tête de trame SOFn.
+	 * Les segments APPn et les autres segments sont sautés sans être analysés.
+	 *
+	 * @param in le flux positionné au début du fichier
+	 * @return un tableau {largeur, hauteur}, ou {@code null} si le flux n'est pas un JPEG
+	 *         ou si aucune trame exploitable n'est trouvée avant les données compressées
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	public static int[] jpeg(InputStream in) throws IOException {
+		if (in.read() != 0xFF || in.read() != 0xD8) {
+			return null;
+		}
+		while (true) {
+			int octet = in.read();
+			if (octet != 0xFF) {
+				return null;
+			}
+			int marqueur = in.read();
+			while (marqueur == 0xFF) {
+				marqueur = in.read();
+			}
+			if (marqueur == -1 || marqueur == 0xDA || marqueur == 0xD9) {
+				// Données compressées ou fin d'image atteintes sans trame
+				return null;
+			}
+			if (marqueur == 0x01 || (marqueur >= 0xD0 && marqueur <= 0xD7)) {
+				continue;
+			}
+			int longueur = lireU16(in);
+			if (longueur < 2) {
+				return null;
+			}
+			if (estSof(marqueur)) {
+				in.read(); // précision
+				int hauteur = lireU16(in);
+				int largeur = lireU16(in);
+				if (hauteur <= 0 || largeur <= 0) {
+					// Hauteur définie plus loin par un segment DNL : on laisse conclure l'EXIF
+					return null;
+				}
+				return new int[] {largeur, hauteur};
+			}
+			sauter(in, longueur - 2);
+		}
+	}
+
+	/**
+	 * Parcourt les marqueurs d'un flux JPEG jusqu'au segment APP1 EXIF et rend la position de son en-tête TIFF,
+	 * à partir de laquelle sont comptés les décalages des répertoires EXIF (notamment celui de la miniature).
+	 *
+	 * @param in le flux positionné au début du fichier
+	 * @return la position de l'en-tête TIFF dans le fichier, ou -1 si le flux ne contient pas de segment EXIF
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	public static long positionExif(InputStream in) throws IOException {
+		if (in.read() != 0xFF || in.read() != 0xD8) {
+			return -1;
+		}
+		long position = 2;
+		while (true) {
+			int octet = in.read();
+			if (octet != 0xFF) {
+				return -1;
+			}
+			int marqueur = in.read();
+			position += 2;
+			while (marqueur == 0xFF) {
+				marqueur = in.read();
+				position++;
+			}
+			if (marqueur == -1 || marqueur == 0xDA || marqueur == 0xD9) {
+				return -1;
+			}
+			if (marqueur == 0x01 || (marqueur >= 0xD0 && marqueur <= 0xD7)) {
+				continue;
+			}
+			int longueur = lireU16(in);
+			if (longueur < 2) {
+				return -1;
+			}
+			position += 2;
+			int lus = 0;
+			if (marqueur == 0xE1 && longueur >= 8) {
+				// Préambule "Exif\0\0"
+				long preambule = 0;
+				for (; lus < 6; lus++) {
+					int c = in.read();
+					if (c == -1) {
+						return -1;
+					}
+					preambule = (preambule << 8) | c;
+				}
+				if (preambule == 0x457869660000L) {
+					return position + 6;
+				}
+			}
+			sauter(in, longueur - 2 - lus);
+			position += longueur - 2;
+		}
+	}
+
+	/**
+	 * Indique si un marqueur est un début de trame (SOF0 à SOF15),
+	 * en excluant DHT (C4), JPG (C8) et DAC (CC) qui partagent la même plage.
+	 */
+	private static boolean estSof(int marqueur) {
+		return marqueur >= 0xC0 && marqueur <= 0xCF && marqueur != 0xC4 && marqueur != 0xC8 && marqueur != 0xCC;
+	}
+
+	private static int u8(ByteBuffer b, int i) {
+		return b.get(i) & 0xFF;
+	}
+
+	private static int u16le(ByteBuffer b, int i) {
+		return u8(b, i) | (u8(b, i + 1) << 8);
+	}
+
+	private static int u24le(ByteBuffer b, int i) {
+		return u16le(b, i) | (u8(b, i + 2) << 16);
+	}
+
+	private static int lireU16(InputStream in) throws IOException {
+		int fort = in.read();
+		int faible = in.read();
+		if ((fort | faible) < 0) {
+			throw new IOException("Fin de fichier inattendue");
+		}
+		return (fort << 8) | faible;
+	}
+
+	private static void sauter(InputStream in, long n) throws IOException {
+		while (n > 0) {
+			long saute = in.skip(n);
+			if (saute <= 0) {
+				if (in.read() == -1) {
+					throw new IOException("Fin de fichier inattendue");
+				}
+				saute = 1;
+			}
+			n -= saute;
+		}
+	}
+}
@@ -0,0 +1,454 @@
+package fonctionnel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Détection du type MIME d'un fichier d'après ses premiers octets, sans passer par les détecteurs
+ * de la plateforme ({@link Files#probeContentType(Path)}).
+ * <p>
+ * Les formats d'image sont identifiés par {@link Renifleur} ; les types courants qui ne sont pas des images
+ * (PDF, archives, audio, vidéo, texte...) sont reconnus ici. Le résultat est conservé pour chaque fichier,
+ * identifié par son chemin, et réutilisé tant que sa taille et sa date de modification n'ont pas changé :
+ * une nouvelle exécution de {@code --stat} sur les mêmes dossiers ne relit aucun en-tête.
+ * <p>
+ * Comme {@link CacheNegatif}, le cache est chargé à la première utilisation depuis
+ * {@code ~/.extracteur-metadonnees/types-mime.bin} et enregistré à la fin du programme s'il a été modifié.
+ */
+public final class TypeMime {
+	/**
+	 * Type rendu pour un fichier dont le contenu n'est pas reconnu.
+	 */
+	public static final String INCONNU = "application/octet-stream";
+
+	/**
+	 * Version du format du fichier de cache : un fichier d'une autre version est ignoré.
+	 */
+	private static final int VERSION = 1;
+
+	private static File fichier = new File(new File(System.getProperty("user.home"), ".extracteur-metadonnees"), "types-mime.bin");
+	private static volatile boolean actif = true;
+
+	private static Map<String, Entree> entrees;
+	private static volatile boolean modifie;
+
+	/**
+	 * Taille, date de modification et type MIME d'un fichier au moment de sa détection.
+	 */
+	private static final class Entree {
+		final long taille;
+		final long modification;
+		final String mime;
+
+		Entree(long taille, long modification, String mime) {
+			this.taille = taille;
+			this.modification = modification;
+			this.mime = mime;
+		}
+	}
+
+	/**
+	 * Constructeur privé : classe utilitaire.
+	 */
+	private TypeMime() {
+	}
+
+	/**
+	 * Active ou désactive le cache. Désactivé, il n'est ni consulté ni enrichi.
+	 *
+	 * @param etat {@code true} pour utiliser le cache
+	 */
+	public static void setActif(boolean etat) {
+		actif = etat;
+	}
+
+	/**
+	 * Change l'emplacement du fichier de cache. À appeler avant la première utilisation.
+	 *
+	 * @param f le fichier de cache
+	 */
+	public static synchronized void setFichier(File f) {
+		fichier = f;
+		entrees = null;
+	}
+
+	/**
+	 * Détecte le type MIME d'un fichier.
+	 *
+	 * @param chemin le chemin du fichier
+	 * @return le type MIME, {@link #INCONNU} si le contenu n'est pas reconnu
+	 * @throws IOException si les attributs du fichier ne peuvent pas être lus
+	 */
+	public static String detecter(Path chemin) throws IOException {
+		return detecter(chemin, Files.readAttributes(chemin, BasicFileAttributes.class));
+	}
+
+	/**
+	 * Détecte le type MIME d'un fichier dont les attributs ont déjà été lus.
+	 *
+	 * @param chemin le chemin du fichier
+	 * @param attrs  les attributs du fichier
+	 * @return le type MIME, {@link #INCONNU} si le contenu n'est pas reconnu
+	 * @throws IOException si le fichier ne peut pas être lu
+	 */
+	public static String detecter(Path chemin, BasicFileAttributes attrs) throws IOException {
+		return detecter(chemin, attrs.size(), attrs.lastModifiedTime().toMillis());
+	}
+
+	/**
+	 * Détecte le type MIME d'un fichier dont la taille et la date de modification sont déjà connues,
+	 * par exemple celles d'un {@link Fichier} relevées pendant le parcours : aucun attribut n'est relu.
+	 *
+	 * @param chemin       le chemin du fichier
+	 * @param taille       la taille du fichier en octets
+	 * @param modification la date de modification en millisecondes
+	 * @return le type MIME, {@link #INCONNU} si le contenu n'est pas reconnu
+	 * @throws IOException si le fichier ne peut pas être lu
+	 */
+	public static String detecter(Path chemin, long taille, long modification) throws IOException {
+		String cle = chemin.toAbsolutePath().toString();
+		if (actif) {
+			Entree e = entrees().get(cle);
+			if (e != null && e.taille == taille && e.modification == modification) {
+				return e.mime;
+			}
+		}
+		String mime;
+		try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+			mime = classer(Renifleur.lire(canal));
+		}
+		if (actif) {
+			entrees().put(cle, new Entree(taille, modification, mime));
+			modifie = true;
+		}
+		return mime;
+	}
+
+	/**
+	 * Vide le cache, en mémoire et sur le disque.
+	 */
+	public static synchronized void vider() {
+		entrees().clear();
+		modifie = false;
+		if (fichier.exists() && !fichier.delete()) {
+			System.err.println("Erreur : impossible de supprimer le cache " + fichier.getPath());
+		}
+	}
+
+	/**
+	 * Enregistre le cache s'il a été modifié depuis son chargement.
+	 */
+	public static synchronized void enregistrer() {
+		if (!modifie || entrees == null) {
+			return;
+		}
+		File dossier = fichier.getParentFile();
+		if (dossier != null && !dossier.isDirectory() && !dossier.mkdirs()) {
+			System.err.println("Erreur : impossible de créer le dossier " + dossier.getPath() + ", le cache n'est pas enregistré.");
+			return;
+		}
+		// Écriture dans un fichier temporaire puis renommage : un arrêt brutal ne laisse pas de cache tronqué
+		File temporaire = new File(fichier.getPath() + ".tmp");
+		List<Map.Entry<String, Entree>> copie = new ArrayList<>(entrees.entrySet());
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaire)))) {
+			out.writeInt(VERSION);
+			out.writeInt(copie.size());
+			for (Map.Entry<String, Entree> e : copie) {
+				out.writeUTF(e.getKey());
+				out.writeLong(e.getValue().taille);
+				out.writeLong(e.getValue().modification);
+				out.writeUTF(e.getValue().mime);
+			}
+		} catch (IOException e) {
+			System.err.println("Erreur d'entrée/sortie : " + e.getMessage());
+			return;
+		}
+		if (!temporaire.renameTo(fichier) && !(fichier.delete() && temporaire.renameTo(fichier))) {
+			System.err.println("Erreur : impossible d'enregistrer le cache " + fichier.getPath());
+			return;
+		}
+		modifie = false;
+	}
+
+	/**
+	 * @return la table des entrées, chargée depuis le disque au premier appel
+	 */
+	private static synchronized Map<String, Entree> entrees() {
+		if (entrees == null) {
+			entrees = new ConcurrentHashMap<>();
+			charger();
+			Runtime.getRuntime().addShutdownHook(new Thread(TypeMime::enregistrer, "cache-types-mime"));
+		}
+		return entrees;
+	}
+
+	private static void charger() {
+		if (!fichier.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fichier)))) {
+			if (in.readInt() != VERSION) {
+				return;
+			}
+			int n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				String chemin = in.readUTF();
+				long taille = in.readLong();
+				long modification = in.readLong();
+				// Quelques dizaines de types distincts : une seule chaîne par type en mémoire
+				String mime = in.readUTF().intern();
+				entrees.put(chemin, new Entree(taille, modification, mime));
+			}
+		} catch (EOFException e) {
+			// Fichier tronqué : les entrées lues sont conservées
+		} catch (IOException e) {
+			System.err.println("Erreur d'entrée/sortie : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Identifie le type MIME d'après les premiers octets d'un fichier.
+	 *
+	 * @param b le début du fichier, lu de la position 0 à la limite du tampon
+	 * @return le type MIME, {@link #INCONNU} si le contenu n'est pas reconnu
+	 */
+	public static String classer(ByteBuffer b) {
+		switch (Renifleur.classer(b)) {
+			case Renifleur.JPEG:
+				return "image/jpeg";
+			case Renifleur.PNG:
+				return "image/png";
+			case Renifleur.WEBP:
+				return "image/webp";
+			case Renifleur.GIF:
+				return "image/gif";
+			case Renifleur.BMP:
+				return "image/bmp";
+			case Renifleur.TIFF:
+				return "image/tiff";
+			case Renifleur.HEIF:
+				return conteneurIso(b);
+			case Renifleur.PSD:
+				return "image/vnd.adobe.photoshop";
+			case Renifleur.AUTRE:
+				return Formats.autre(b).getTypesMime()[0];
+			default:
+				return autre(b);
+		}
+	}
+
+	/**
+	 * Indique si une extension correspond à un type MIME : pour un format du registre {@link Formats},
+	 * toutes ses extensions conviennent ({@code jpg} et {@code jpeg}, {@code nef} pour un TIFF...).
+	 *
+	 * @param mime      le type MIME
+	 * @param extension l'extension en minuscules, sans le point
+	 * @return {@code true} si l'extension est celle attendue pour ce type
+	 */
+	public static boolean correspond(String mime, String extension) {
+		FormatImage format = Formats.parTypeMime(mime);
+		if (format != null) {
+			return format == Formats.parExtension(extension);
+		}
+		String sousType = Fichier.recupMyme(mime);
+		if (sousType.equals("tiff")) {
+			return extension.equals("tif") || extension.equals("tiff");
+		}
+		return sousType.equals(extension);
+	}
+
+	/**
+	 * Distingue les conteneurs ISO (boîte {@code ftyp}) d'après leur marque principale.
+	 * Une marque inconnue rend le type générique : la boîte ne suffit pas à savoir ce que contient le fichier.
+	 */
+	private static String conteneurIso(ByteBuffer b) {
+		if (b.limit() < 12) {
+			return INCONNU;
+		}
+		int marque = b.getInt(8);
+		switch (marque >>> 8) {
+			case 0x336770: // 3gp4, 3gp5...
+				return "video/3gpp";
+			case 0x336732: // 3g2a...
+				return "video/3gpp2";
+			default:
+				break;
+		}
+		switch (marque) {
+			case 0x61766966: // avif
+			case 0x61766973: // avis
+				return "image/avif";
+			case 0x68656963: // heic
+			case 0x68656978: // heix
+			case 0x68657663: // hevc
+			case 0x68657678: // hevx
+				return "image/heic";
+			case 0x6D696631: // mif1
+			case 0x6D736631: // msf1
+				return "image/heif";
+			case 0x71742020: // "qt  "
+				return "video/quicktime";
+			case 0x4D344120: // "M4A "
+			case 0x4D344220: // "M4B "
+				return "audio/mp4";
+			case 0x69736F6D: // isom
+			case 0x69736F32: // iso2
+			case 0x69736F34: // iso4
+			case 0x69736F35: // iso5
+			case 0x69736F36: // iso6
+			case 0x6D703431: // mp41
+			case 0x6D703432: // mp42
+			case 0x61766331: // avc1
+			case 0x4D345620: // "M4V "
+			case 0x64617368: // dash
+			case 0x4D534E56: // MSNV
+				return "video/mp4";
+			default:
+				return INCONNU;
+		}
+	}
+
+	/**
+	 * Reconnaît les types courants qui ne sont pas des images.
+	 */
+	private static String autre(ByteBuffer b) {
+		int n = b.limit();
+		if (n == 0) {
+			return "text/plain";
+		}
+		if (n >= 12 && b.getInt(4) == 0x66747970) {
+			// "ftyp" d'un conteneur ISO qui n'est pas une image (MP4, MOV, M4A)
+			return conteneurIso(b);
+		}
+		int debut = n >= 4 ? b.getInt(0) : 0;
+		switch (debut) {
+			case 0x25504446: // %PDF
+				return "application/pdf";
+			case 0x504B0304: // PK\3\4
+				return "application/zip";
+			case 0x52617221: // Rar!
+				return "application/vnd.rar";
+			case 0x377ABCAF: // 7z
+				return "application/x-7z-compressed";
+			case 0x4F676753: // OggS
+				return "audio/ogg";
+			case 0x664C6143: // fLaC
+				return "audio/flac";
+			case 0x7F454C46: // ELF
+				return "application/x-executable";
+			case 0x00000100: // icône Windows
+				return "image/vnd.microsoft.icon";
+			case 0x1A45DFA3: // EBML (Matroska, WebM)
+				return "video/x-matroska";
+			case 0x52494646: // RIFF, hors WebP
+				if (n >= 12 && b.getInt(8) == 0x57415645) {
+					return "audio/wav";
+				}
+				if (n >= 12 && b.getInt(8) == 0x41564920) {
+					return "video/x-msvideo";
+				}
+				return INCONNU;
+			default:
+				break;
+		}
+		int deux = n >= 2 ? b.getShort(0) & 0xFFFF : 0;
+		if (deux == 0xFFFE || deux == 0xFEFF) {
+			// Marque d'ordre des octets UTF-16, petit- ou gros-boutiste : FF FE serait aussi une synchronisation MPEG
+			return "text/plain";
+		}
+		if (deux == 0x1F8B) {
+			return "application/gzip";
+		}
+		if (deux == 0x4D5A) {
+			// MZ
+			return "application/x-msdownload";
+		}
+		if ((debut >>> 8) == 0x494433 || estTrameMpeg(b)) {
+			// ID3 ou trame MPEG audio
+			return "audio/mpeg";
+		}
+		return texte(b);
+	}
+
+	/**
+	 * Vérifie l'en-tête d'une trame MPEG audio : synchronisation sur 11 bits, version et couche définies,
+	 * indice de débit ni libre ni invalide, fréquence d'échantillonnage définie.
+	 */
+	private static boolean estTrameMpeg(ByteBuffer b) {
+		if (b.limit() < 3) {
+			return false;
+		}
+		int entete = ((b.getShort(0) & 0xFFFF) << 8) | (b.get(2) & 0xFF);
+		int version = (entete >>> 11) & 0x3;
+		int couche = (entete >>> 9) & 0x3;
+		int debit = (entete >>> 4) & 0xF;
+		int frequence = (entete >>> 2) & 0x3;
+		return (entete >>> 13) == 0x7FF && version != 1 && couche != 0 && debit != 0 && debit != 0xF && frequence != 3;
+	}
+
+	/**
+	 * Reconnaît un contenu textuel (UTF-8 ou ASCII) et les documents balisés courants.
+	 */
+	private static String texte(ByteBuffer b) {
+		int n = b.limit();
+		int i = 0;
+		if (n >= 3 && (b.get(0) & 0xFF) == 0xEF && (b.get(1) & 0xFF) == 0xBB && (b.get(2) & 0xFF) == 0xBF) {
+			// Marque d'ordre des octets UTF-8
+			i = 3;
+		}
+		int premier = -1;
+		for (int k = i; k < n; k++) {
+			int c = b.get(k) & 0xFF;
+			if (c < 0x20 && c != '\t' && c != '\n' && c != '\r' && c != '\f') {
+				return INCONNU;
+			}
+			if (premier < 0 && c > ' ') {
+				premier = k;
+			}
+		}
+		if (premier >= 0 && b.get(premier) == '<') {
+			if (commencePar(b, premier, "<?xml")) {
+				return "application/xml";
+			}
+			if (commencePar(b, premier, "<svg")) {
+				return "image/svg+xml";
+			}
+			if (commencePar(b, premier, "<!doctype html") || commencePar(b, premier, "<html")) {
+				return "text/html";
+			}
+		}
+		return "text/plain";
+	}
+
+	/**
+	 * Compare le tampon à un préfixe ASCII sans tenir compte de la casse.
+	 */
+	private static boolean commencePar(ByteBuffer b, int debut, String prefixe) {
+		if (debut + prefixe.length() > b.limit()) {
+			return false;
+		}
+		for (int k = 0; k < prefixe.length(); k++) {
+			if (Character.toLowerCase((char) b.get(debut + k)) != prefixe.charAt(k)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,52 @@
+package fonctionnel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Vérifie la lecture des dates EXIF, XMP et saisies, et leur formatage.
+ */
+public class DateCaptureTest {
+
+	private static final String ATTENDUE = "2024-03-15T10:20:30";
+
+	@Test
+	public void exif() {
+		assertEquals(ATTENDUE, DateCapture.formater(DateCapture.depuisExif("2024:03:15 10:20:30")));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisExif("0000:00:00 00:00:00"));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisExif("2024:02:30 10:20:30"));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisExif("2024:03:15 10:20"));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisExif("    :  :     :  :  "));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisExif(null));
+	}
+
+	@Test
+	public void xmp() {
+		assertEquals(ATTENDUE, DateCapture.formater(DateCapture.depuisXmp("2024-03-15T10:20:30")));
+		assertEquals(ATTENDUE, DateCapture.formater(DateCapture.depuisXmp("2024-03-15T10:20:30.250+02:00")));
+		assertEquals(ATTENDUE, DateCapture.formater(DateCapture.depuisXmp(" 2024-03-15T10:20:30Z ")));
+		assertEquals("2024-03-15T10:20:00", DateCapture.formater(DateCapture.depuisXmp("2024-03-15T10:20")));
+		assertEquals("2024-03-15T10:20:00", DateCapture.formater(DateCapture.depuisXmp("2024-03-15T10:20+02:00")));
+		assertEquals("2024-03-15T00:00:00", DateCapture.formater(DateCapture.depuisXmp("2024-03-15")));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisXmp("2024-03"));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisXmp("15/03/2024"));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisXmp(null));
+	}
+
+	@Test
+	public void saisie() {
+		assertEquals(DateCapture.depuisExif("2024:03:15 10:20:30"), DateCapture.depuisSaisie("15/03/2024 10:20:30"));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisSaisie("2024-03-15 10:20:30"));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisSaisie("31/04/2024 10:20:30"));
+		assertEquals(DateCapture.ABSENTE, DateCapture.depuisSaisie(null));
+	}
+
+	@Test
+	public void formatage() {
+		assertEquals("1970-01-01T00:00:00", DateCapture.formater(0));
+		assertEquals("1969-12-31T23:59:59", DateCapture.formater(-1));
+		assertNull(DateCapture.formater(DateCapture.ABSENTE));
+	}
+}
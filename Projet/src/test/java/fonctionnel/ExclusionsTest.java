@@ -0,0 +1,98 @@
+package fonctionnel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Vérifie la traduction des motifs glob en expressions régulières et le découpage de la liste de l'option {@code --exclure}.
+ */
+public class ExclusionsTest {
+
+	private static boolean correspond(String glob, String chemin) {
+		return Pattern.compile(Exclusions.expression(glob)).matcher(chemin).matches();
+	}
+
+	@Test
+	public void etoile() {
+		assertTrue(correspond("*.bak", "photos.bak"));
+		assertTrue(correspond("*.bak", ".bak"));
+		assertFalse(correspond("*.bak", "photos.bak2"));
+		assertFalse(correspond("*.bak", "photos/vacances.bak"));
+		assertFalse(correspond("*.bak", "photosXbak"));
+		assertTrue(correspond("*SnapShot*", "SnapShot"));
+		assertTrue(correspond("*SnapShot*", "mes-SnapShot-2024"));
+	}
+
+	@Test
+	public void doubleEtoile() {
+		assertTrue(correspond("photos/**/brouillons", "photos/brouillons"));
+		assertTrue(correspond("photos/**/brouillons", "photos/2024/mars/brouillons"));
+		assertFalse(correspond("photos/**/brouillons", "photos/2024/brouillons-old"));
+		assertTrue(correspond("photos/**", "photos/2024/mars"));
+		assertFalse(correspond("photos/**", "photos"));
+		assertTrue(correspond("**/cache", "a/b/cache"));
+		assertTrue(correspond("**/cache", "cache"));
+	}
+
+	@Test
+	public void pointInterrogation() {
+		assertTrue(correspond("img?", "img1"));
+		assertFalse(correspond("img?", "img12"));
+		assertFalse(correspond("img?", "img"));
+		assertFalse(correspond("a?b", "a/b"));
+	}
+
+	@Test
+	public void accolades() {
+		assertTrue(correspond("*.{tmp,bak}", "a.tmp"));
+		assertTrue(correspond("*.{tmp,bak}", "a.bak"));
+		assertFalse(correspond("*.{tmp,bak}", "a.tm"));
+		assertFalse(correspond("*.{tmp,bak}", "a.{tmp,bak}"));
+		assertTrue(correspond("{cache,tmp}-*", "tmp-1"));
+		// Hors accolades, la virgule est un caractère ordinaire
+		assertTrue(correspond("a,b", "a,b"));
+		assertTrue(correspond("a}", "a}"));
+	}
+
+	@Test
+	public void classes() {
+		assertTrue(correspond("img[0-9]", "img7"));
+		assertFalse(correspond("img[0-9]", "imgx"));
+		assertTrue(correspond("img[!0-9]", "imgx"));
+		assertFalse(correspond("img[!0-9]", "img7"));
+		assertTrue(correspond("a[", "a["));
+	}
+
+	@Test
+	public void caracteresSpeciaux() {
+		// Les métacaractères des expressions régulières sont pris tels quels
+		assertTrue(correspond("photos (2024).old", "photos (2024).old"));
+		assertFalse(correspond("photos (2024).old", "photos 2024Xold"));
+		assertTrue(correspond("a+b", "a+b"));
+		assertFalse(correspond("a+b", "aab"));
+		assertTrue(correspond("^x$|y", "^x$|y"));
+		assertFalse(correspond("^x$|y", "y"));
+		// Un caractère précédé de \ perd son rôle de joker
+		assertTrue(correspond("\\*", "*"));
+		assertFalse(correspond("\\*", "a"));
+		assertTrue(correspond("\\{a,b\\}", "{a,b}"));
+		assertTrue(correspond("a\\?", "a?"));
+		assertFalse(correspond("a\\?", "ab"));
+		assertTrue(correspond("a\\\\b", "a\\b"));
+	}
+
+	@Test
+	public void decouper() {
+		assertEquals(Arrays.asList("*.tmp", "node_modules"), Exclusions.decouper("*.tmp,node_modules"));
+		assertEquals(Arrays.asList("*.{tmp,bak}", "!.git"), Exclusions.decouper("*.{tmp,bak},!.git"));
+		assertEquals(Arrays.asList("a\\,b", "c"), Exclusions.decouper("a\\,b,c"));
+		assertEquals(Arrays.asList("seul"), Exclusions.decouper("seul"));
+		assertEquals(Arrays.asList("a", "", "b"), Exclusions.decouper("a,,b"));
+	}
+}
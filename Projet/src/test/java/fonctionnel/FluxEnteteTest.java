@@ -0,0 +1,140 @@
+package fonctionnel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Vérifie que la lecture d'un en-tête JPEG s'arrête au marqueur SOS, que {@link FluxEntete#skip(long)}
+ * conserve le suivi des segments et que les lectures écourtées par le plafond sont signalées.
+ */
+public class FluxEnteteTest {
+
+	/**
+	 * SOI, segment APP1 de 18 octets, segment SOF0 8x4, puis SOS suivi de données compressées.
+	 */
+	private static byte[] jpeg() {
+		ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+		ecrire(sortie, 0xFF, 0xD8);
+		ecrire(sortie, 0xFF, 0xE1, 0x00, 0x12);
+		for (int i = 0; i < 16; i++) {
+			sortie.write('a' + i);
+		}
+		ecrire(sortie, 0xFF, 0xC0, 0x00, 0x0B, 0x08, 0x00, 0x04, 0x00, 0x08, 0x01, 0x01, 0x11, 0x00);
+		ecrire(sortie, 0xFF, 0xDA, 0x00, 0x08, 0x01, 0x01, 0x00, 0x00, 0x3F, 0x00);
+		for (int i = 0; i < 64; i++) {
+			sortie.write(i);
+		}
+		return sortie.toByteArray();
+	}
+
+	private static void ecrire(ByteArrayOutputStream sortie, int... octets) {
+		for (int o : octets) {
+			sortie.write(o);
+		}
+	}
+
+	/**
+	 * Octets rendus par le flux : tout jusqu'au marqueur SOS inclus.
+	 */
+	private static byte[] attendus(byte[] jpeg) {
+		for (int i = 2; i < jpeg.length - 1; i++) {
+			if ((jpeg[i] & 0xFF) == 0xFF && (jpeg[i + 1] & 0xFF) == 0xDA) {
+				return Arrays.copyOf(jpeg, i + 2);
+			}
+		}
+		throw new IllegalStateException("marqueur SOS absent");
+	}
+
+	@Test
+	public void lectureOctetParOctet() throws IOException {
+		byte[] jpeg = jpeg();
+		ByteArrayOutputStream lus = new ByteArrayOutputStream();
+		try (FluxEntete flux = new FluxEntete(new ByteArrayInputStream(jpeg), 0)) {
+			int o;
+			while ((o = flux.read()) != -1) {
+				lus.write(o);
+			}
+		}
+		assertEquals(Arrays.toString(attendus(jpeg)), Arrays.toString(lus.toByteArray()));
+	}
+
+	@Test
+	public void sautSansPerteDeSegment() throws IOException {
+		byte[] jpeg = jpeg();
+		byte[] attendus = attendus(jpeg);
+		try (FluxEntete flux = new FluxEntete(new ByteArrayInputStream(jpeg), 0)) {
+			// SOI et en-tête APP1, puis saut du contenu du segment en deux fois
+			assertEquals(0xFF, flux.read());
+			assertEquals(0xD8, flux.read());
+			long saute = 0;
+			while (saute < 4) {
+				saute += flux.skip(4 - saute);
+			}
+			saute = 0;
+			while (saute < 16) {
+				saute += flux.skip(16 - saute);
+			}
+			// Le segment SOF0 doit être rendu tel quel après le saut
+			for (int i = 22; i < attendus.length; i++) {
+				assertEquals(attendus[i] & 0xFF, flux.read());
+			}
+			assertEquals(-1, flux.read());
+			assertEquals(0, flux.skip(10));
+		}
+	}
+
+	@Test
+	public void plafond() throws IOException {
+		byte[] jpeg = jpeg();
+		try (FluxEntete flux = new FluxEntete(new ByteArrayInputStream(jpeg), 10)) {
+			byte[] b = new byte[64];
+			int total = 0;
+			int n;
+			while ((n = flux.read(b, 0, b.length)) != -1) {
+				total += n;
+			}
+			assertEquals(10, total);
+			assertEquals(10, flux.getOctetsLus());
+			assertTrue(flux.estTronque());
+		}
+	}
+
+	@Test
+	public void lectureCompleteNonTronquee() throws IOException {
+		byte[] jpeg = jpeg();
+		// Plafond égal à la longueur de l'en-tête : tout ce qui est demandé est rendu
+		try (FluxEntete flux = new FluxEntete(new ByteArrayInputStream(jpeg), attendus(jpeg).length)) {
+			byte[] b = new byte[4];
+			while (flux.read(b, 0, b.length) != -1) {
+				// Lecture jusqu'au marqueur SOS
+			}
+			assertFalse(flux.estTronque());
+		}
+	}
+
+	@Test
+	public void sautTronqueParLePlafond() throws IOException {
+		byte[] jpeg = jpeg();
+		// Le plafond tombe au milieu du segment APP1, que le lecteur saute sans le lire
+		try (FluxEntete flux = new FluxEntete(new ByteArrayInputStream(jpeg), 12)) {
+			for (int i = 0; i < 6; i++) {
+				flux.read();
+			}
+			long saute = 0;
+			long n;
+			while (saute < 16 && (n = flux.skip(16 - saute)) > 0) {
+				saute += n;
+			}
+			assertEquals(6, saute);
+			assertTrue(flux.estTronque());
+		}
+	}
+}
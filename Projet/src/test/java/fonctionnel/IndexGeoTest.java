@@ -0,0 +1,113 @@
+package fonctionnel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Vérifie les recherches de l'index spatial aux limites des cellules et de part et d'autre de l'antiméridien.
+ */
+public class IndexGeoTest {
+
+	/**
+	 * Construit l'index de points donnés par paires {latitude, longitude}.
+	 */
+	private static IndexGeo index(double[]... points) {
+		double[] latitudes = new double[points.length];
+		double[] longitudes = new double[points.length];
+		for (int i = 0; i < points.length; i++) {
+			latitudes[i] = points[i][0];
+			longitudes[i] = points[i][1];
+		}
+		return new IndexGeo(latitudes, longitudes, points.length);
+	}
+
+	private static String boite(IndexGeo index, double latMin, double lonMin, double latMax, double lonMax) {
+		ListeEntiers trouve = new ListeEntiers();
+		index.boite(latMin, lonMin, latMax, lonMax, trouve);
+		trouve.trier();
+		return Arrays.toString(trouve.versTableau());
+	}
+
+	private static String rayon(IndexGeo index, double lat, double lon, double km) {
+		ListeEntiers trouve = new ListeEntiers();
+		index.rayon(lat, lon, km, trouve);
+		trouve.trier();
+		return Arrays.toString(trouve.versTableau());
+	}
+
+	@Test
+	public void cellulesVoisines() {
+		// Une ligne de points espacés d'un pas de grille, et deux points de part et d'autre d'une limite de cellule
+		IndexGeo index = index(
+				new double[] {45.00, 5.00},
+				new double[] {45.05, 5.05},
+				new double[] {45.10, 5.10},
+				new double[] {45.15, 5.15},
+				new double[] {45.0499, 5.0499},
+				new double[] {45.0501, 5.0501});
+		assertEquals(6, index.taille());
+		// Bornes incluses : les points situés exactement sur les bords sont retenus
+		assertEquals("[0, 1, 4, 5]", boite(index, 45.00, 5.00, 45.0501, 5.0501));
+		assertEquals("[1, 2, 5]", boite(index, 45.05, 5.05, 45.10, 5.10));
+		// Rectangle plus petit qu'une cellule, à cheval sur une limite
+		assertEquals("[1, 4, 5]", boite(index, 45.049, 5.049, 45.051, 5.051));
+		assertEquals("[0, 1, 2, 3, 4, 5]", boite(index, 44.9, 4.9, 45.2, 5.2));
+		assertEquals("[]", boite(index, 45.16, 5.16, 46, 6));
+	}
+
+	@Test
+	public void antimeridien() {
+		IndexGeo index = index(
+				new double[] {0, 179.99},
+				new double[] {0, -179.99},
+				new double[] {0, 0},
+				new double[] {0, 180},
+				new double[] {0, -180});
+		// Rectangle du bord ouest 179.9 au bord est -179.9
+		assertEquals("[0, 1, 3, 4]", boite(index, -1, 179.9, 1, -179.9));
+		assertEquals("[2]", boite(index, -1, -179.9, 1, 179.9));
+		// Cercle centré sur l'antiméridien : 0.01 degré vaut environ 1.1 km à l'équateur
+		assertEquals("[0, 1, 3, 4]", rayon(index, 0, 180, 5));
+		assertEquals("[0, 1, 3, 4]", rayon(index, 0, -179.995, 5));
+		assertEquals("[2]", rayon(index, 0, 0, 5));
+	}
+
+	@Test
+	public void rayon() {
+		IndexGeo index = index(
+				new double[] {45.0, 5.0},
+				new double[] {45.0, 5.0 + 0.05},
+				new double[] {45.2, 5.0},
+				new double[] {89.99, 0},
+				new double[] {89.99, 180});
+		// 0.05 degré de longitude vaut environ 3.9 km à 45 degrés de latitude
+		assertEquals("[0]", rayon(index, 45.0, 5.0, 3.5));
+		assertEquals("[0, 1]", rayon(index, 45.0, 5.0, 4.5));
+		assertEquals("[0, 1, 2]", rayon(index, 45.0, 5.0, 23));
+		// Cercle contenant le pôle : toutes les longitudes sont parcourues
+		assertEquals("[3, 4]", rayon(index, 90, 0, 5));
+	}
+
+	@Test
+	public void positionsEcartees() {
+		IndexGeo index = index(
+				new double[] {Double.NaN, Double.NaN},
+				new double[] {91, 0},
+				new double[] {0, 181},
+				new double[] {10, 10});
+		assertEquals(1, index.taille());
+		assertEquals("[3]", boite(index, -90, -180, 90, 180));
+	}
+
+	@Test
+	public void distance() {
+		// Un degré de méridien vaut environ 111.2 km
+		assertEquals(111.195, IndexGeo.distanceKm(0, 0, 1, 0), 0.001);
+		assertEquals(0, IndexGeo.distanceKm(48.8566, 2.3522, 48.8566, 2.3522), 1e-9);
+		assertTrue(IndexGeo.distanceKm(0, 179.99, 0, -179.99) < 2.3);
+	}
+}
@@ -0,0 +1,71 @@
+package fonctionnel;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Vérifie l'intersection et l'union des listes de l'index inversé.
+ */
+public class IndexInverseTest {
+
+	/**
+	 * Lignes 0 à 4 portant les codes {0, 1}, {1}, {}, {0, 2} et {0, 1, 2}.
+	 */
+	private static IndexInverse index() {
+		int[] debuts = {0, 2, 3, 3, 5, 8};
+		int[] valeurs = {0, 1, 1, 0, 2, 0, 1, 2};
+		return new IndexInverse(debuts, valeurs, 5, 4);
+	}
+
+	private static String contient(IndexInverse index, int code) {
+		ListeEntiers trouve = new ListeEntiers();
+		index.contient(code, trouve);
+		return Arrays.toString(trouve.versTableau());
+	}
+
+	private static String tous(IndexInverse index, int... codes) {
+		ListeEntiers trouve = new ListeEntiers();
+		index.tous(codes, trouve);
+		return Arrays.toString(trouve.versTableau());
+	}
+
+	private static String un(IndexInverse index, int... codes) {
+		ListeEntiers trouve = new ListeEntiers();
+		index.un(codes, trouve);
+		return Arrays.toString(trouve.versTableau());
+	}
+
+	@Test
+	public void listes() {
+		IndexInverse index = index();
+		assertEquals(3, index.frequence(0));
+		assertEquals(3, index.frequence(1));
+		assertEquals(2, index.frequence(2));
+		assertEquals(0, index.frequence(3));
+		assertEquals("[0, 3, 4]", contient(index, 0));
+		assertEquals("[0, 1, 4]", contient(index, 1));
+		assertEquals("[]", contient(index, 3));
+	}
+
+	@Test
+	public void intersection() {
+		IndexInverse index = index();
+		assertEquals("[0, 4]", tous(index, 0, 1));
+		assertEquals("[4]", tous(index, 1, 2, 0));
+		assertEquals("[3, 4]", tous(index, 2, 0));
+		assertEquals("[]", tous(index, 1, 3));
+		assertEquals("[]", tous(index));
+	}
+
+	@Test
+	public void union() {
+		IndexInverse index = index();
+		assertEquals("[0, 1, 3, 4]", un(index, 1, 2));
+		assertEquals("[0, 1, 3, 4]", un(index, 2, 1, 0, 3));
+		assertEquals("[0, 3, 4]", un(index, 0, 0));
+		assertEquals("[]", un(index));
+	}
+}
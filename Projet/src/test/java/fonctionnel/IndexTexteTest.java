@@ -0,0 +1,80 @@
+package fonctionnel;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Vérifie le découpage des textes XMP en termes et les recherches par mots et par préfixes.
+ */
+public class IndexTexteTest {
+
+	/**
+	 * Construit l'index d'une ligne par texte, comme le {@link Catalogue} : termes codés sans doublon par ligne.
+	 */
+	private static IndexTexte index(String... textes) {
+		Dictionnaire dictionnaire = new Dictionnaire();
+		int[] debuts = new int[textes.length + 1];
+		ListeEntiers codes = new ListeEntiers();
+		for (int i = 0; i < textes.length; i++) {
+			Set<Integer> ligne = new LinkedHashSet<>();
+			for (String terme : IndexTexte.termes(textes[i])) {
+				ligne.add(dictionnaire.coder(terme));
+			}
+			for (int code : ligne) {
+				codes.ajouter(code);
+			}
+			debuts[i + 1] = codes.taille();
+		}
+		return new IndexTexte(debuts, codes.versTableau(), textes.length, dictionnaire);
+	}
+
+	private static String rechercher(IndexTexte index, String requete) {
+		ListeEntiers trouve = new ListeEntiers();
+		index.rechercher(requete, trouve);
+		return Arrays.toString(trouve.versTableau());
+	}
+
+	@Test
+	public void termes() {
+		List<String> termes = IndexTexte.termes("Éléphant d'Afrique, été 2024 !");
+		assertEquals(Arrays.asList("elephant", "d", "afrique", "ete", "2024"), termes);
+		assertEquals(Arrays.asList("port", "de", "brest"), IndexTexte.termes("Port-de-Brest"));
+		assertEquals(0, IndexTexte.termes(null).size());
+		assertEquals(0, IndexTexte.termes("  -- ").size());
+	}
+
+	@Test
+	public void motsEntiers() {
+		IndexTexte index = index(
+				"Coucher de soleil sur le port",
+				"Port de Brest, Jeanne Martin",
+				"Le phare du port de Brest",
+				"Forêt en été");
+		assertEquals("[0, 1, 2]", rechercher(index, "port"));
+		assertEquals("[1, 2]", rechercher(index, "PORT brest"));
+		assertEquals("[3]", rechercher(index, "foret ÉTÉ"));
+		assertEquals("[]", rechercher(index, "port foret"));
+		assertEquals("[]", rechercher(index, "portail"));
+	}
+
+	@Test
+	public void prefixes() {
+		IndexTexte index = index(
+				"Harbour at dusk",
+				"Harbor lights",
+				"Hare in the field",
+				"Port de Brest",
+				"Port de Bordeaux");
+		assertEquals("[0, 1]", rechercher(index, "harb*"));
+		assertEquals("[0, 1, 2]", rechercher(index, "har*"));
+		assertEquals("[3, 4]", rechercher(index, "port-de-b*"));
+		assertEquals("[3]", rechercher(index, "port-de-br*"));
+		assertEquals("[]", rechercher(index, "harbo* field"));
+	}
+}
@@ -0,0 +1,97 @@
+package fonctionnel;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Vérifie l'identification des formats d'après les premiers octets de chaque format pris en charge.
+ */
+public class RenifleurTest {
+
+	private static int classer(int... octets) {
+		byte[] entete = new byte[octets.length];
+		for (int i = 0; i < octets.length; i++) {
+			entete[i] = (byte) octets[i];
+		}
+		return Renifleur.classer(ByteBuffer.wrap(entete));
+	}
+
+	private static int classer(String debut) {
+		return Renifleur.classer(ByteBuffer.wrap(debut.getBytes(StandardCharsets.ISO_8859_1)));
+	}
+
+	@Test
+	public void jpeg() {
+		assertEquals(Renifleur.JPEG, classer(0xFF, 0xD8, 0xFF, 0xE0, 0x00, 0x10, 'J', 'F', 'I', 'F'));
+		assertEquals(Renifleur.JPEG, classer(0xFF, 0xD8, 0xFF, 0xE1, 0x00, 0x10, 'E', 'x', 'i', 'f'));
+	}
+
+	@Test
+	public void png() {
+		assertEquals(Renifleur.PNG, classer(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A));
+	}
+
+	@Test
+	public void webp() {
+		assertEquals(Renifleur.WEBP, classer("RIFF$\u0000\u0000\u0000WEBPVP8 "));
+		assertEquals(Renifleur.INCONNU, classer("RIFF$\u0000\u0000\u0000WAVEfmt "));
+	}
+
+	@Test
+	public void gif() {
+		assertEquals(Renifleur.GIF, classer("GIF87a"));
+		assertEquals(Renifleur.GIF, classer("GIF89a"));
+	}
+
+	@Test
+	public void bmp() {
+		assertEquals(Renifleur.BMP, classer(0x42, 0x4D, 0x36, 0x00, 0x0C, 0x00));
+	}
+
+	@Test
+	public void tiff() {
+		assertEquals(Renifleur.TIFF, classer(0x49, 0x49, 0x2A, 0x00, 0x08, 0x00, 0x00, 0x00));
+		assertEquals(Renifleur.TIFF, classer(0x4D, 0x4D, 0x00, 0x2A, 0x00, 0x00, 0x00, 0x08));
+	}
+
+	@Test
+	public void orf() {
+		assertEquals(Renifleur.TIFF, classer("IIRO\u0008\u0000\u0000\u0000"));
+		assertEquals(Renifleur.TIFF, classer("MMOR\u0000\u0000\u0000\u0008"));
+	}
+
+	@Test
+	public void rw2() {
+		assertEquals(Renifleur.TIFF, classer(0x49, 0x49, 0x55, 0x00, 0x18, 0x00, 0x00, 0x00));
+	}
+
+	@Test
+	public void heif() {
+		assertEquals(Renifleur.HEIF, classer("\u0000\u0000\u0000\u0018ftypheic\u0000\u0000\u0000\u0000"));
+		assertEquals(Renifleur.HEIF, classer("\u0000\u0000\u0000\u0018ftypmif1\u0000\u0000\u0000\u0000"));
+		assertEquals(Renifleur.HEIF, classer("\u0000\u0000\u0000\u001Cftypavif\u0000\u0000\u0000\u0000"));
+	}
+
+	@Test
+	public void conteneurIsoNonImage() {
+		assertEquals(Renifleur.INCONNU, classer("\u0000\u0000\u0000\u0020ftypisom\u0000\u0000\u0002\u0000"));
+		assertEquals(Renifleur.INCONNU, classer("\u0000\u0000\u0000\u0014ftypqt  \u0000\u0000\u0000\u0000"));
+		assertEquals(Renifleur.INCONNU, classer("\u0000\u0000\u0000\u0020ftypM4A \u0000\u0000\u0000\u0000"));
+	}
+
+	@Test
+	public void psd() {
+		assertEquals(Renifleur.PSD, classer("8BPS\u0000\u0001"));
+	}
+
+	@Test
+	public void inconnu() {
+		assertEquals(Renifleur.INCONNU, classer("Bonjour, monde"));
+		assertEquals(Renifleur.INCONNU, classer(0xFF));
+		assertEquals(Renifleur.INCONNU, classer(new int[0]));
+	}
+}
@@ -0,0 +1,94 @@
+package fonctionnel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+/**
+ * Vérifie la détection des types qui ne sont pas des images (audio MPEG, texte UTF-16, conteneurs ISO)
+ * et la conservation des types détectés dans le cache enregistré sur le disque.
+ */
+public class TypeMimeTest {
+
+	private static String classer(int... octets) {
+		byte[] entete = new byte[octets.length];
+		for (int i = 0; i < octets.length; i++) {
+			entete[i] = (byte) octets[i];
+		}
+		return TypeMime.classer(ByteBuffer.wrap(entete));
+	}
+
+	private static String classer(String debut) {
+		return TypeMime.classer(ByteBuffer.wrap(debut.getBytes(StandardCharsets.ISO_8859_1)));
+	}
+
+	@Test
+	public void trameMpeg() {
+		// MPEG-1 couche III, 128 kbit/s, 44,1 kHz
+		assertEquals("audio/mpeg", classer(0xFF, 0xFB, 0x90, 0x44));
+		assertEquals("audio/mpeg", classer("ID3\u0004\u0000"));
+	}
+
+	@Test
+	public void trameMpegInvalide() {
+		// Indice de débit invalide, débit libre, couche réservée, fréquence réservée ; l'octet nul écarte le texte
+		assertEquals(TypeMime.INCONNU, classer(0xFF, 0xFB, 0xF0, 0x44, 0x00));
+		assertEquals(TypeMime.INCONNU, classer(0xFF, 0xFB, 0x00, 0x44, 0x00));
+		assertEquals(TypeMime.INCONNU, classer(0xFF, 0xF9, 0x90, 0x44, 0x00));
+		assertEquals(TypeMime.INCONNU, classer(0xFF, 0xFB, 0x9C, 0x44, 0x00));
+	}
+
+	@Test
+	public void texteUtf16() {
+		assertEquals("text/plain", classer(0xFF, 0xFE, 'H', 0x00, 'i', 0x00));
+		assertEquals("text/plain", classer(0xFE, 0xFF, 0x00, 'H', 0x00, 'i'));
+	}
+
+	@Test
+	public void conteneurIso() {
+		assertEquals("video/mp4", classer("\u0000\u0000\u0000 ftypisom\u0000\u0000\u0002\u0000"));
+		assertEquals("video/quicktime", classer("\u0000\u0000\u0000\u0014ftypqt  \u0000\u0000\u0000\u0000"));
+		assertEquals("audio/mp4", classer("\u0000\u0000\u0000 ftypM4A \u0000\u0000\u0000\u0000"));
+		assertEquals("video/3gpp", classer("\u0000\u0000\u0000\u0018ftyp3gp5\u0000\u0000\u0000\u0000"));
+		assertEquals("image/heic", classer("\u0000\u0000\u0000\u0018ftypheic\u0000\u0000\u0000\u0000"));
+	}
+
+	@Test
+	public void marqueIsoInconnue() {
+		assertEquals(TypeMime.INCONNU, classer("\u0000\u0000\u0000\u0018ftypcrx \u0000\u0000\u0000\u0000"));
+	}
+
+	@Test
+	public void cacheEnregistre() throws IOException {
+		File cache = File.createTempFile("types-mime", ".bin");
+		File f = File.createTempFile("document", ".txt");
+		try {
+			assertTrue(cache.delete());
+			Files.write(f.toPath(), "Bonjour".getBytes(StandardCharsets.US_ASCII));
+			long modification = f.lastModified();
+			TypeMime.setFichier(cache);
+			assertEquals("text/plain", TypeMime.detecter(f.toPath()));
+			TypeMime.enregistrer();
+
+			// Même taille et même date : le type enregistré est rendu sans relire le fichier
+			Files.write(f.toPath(), "%PDF-1.".getBytes(StandardCharsets.US_ASCII));
+			assertTrue(f.setLastModified(modification));
+			TypeMime.setFichier(cache);
+			assertEquals("text/plain", TypeMime.detecter(f.toPath()));
+
+			// Date changée : le fichier est de nouveau analysé
+			assertTrue(f.setLastModified(modification + 2000));
+			assertEquals("application/pdf", TypeMime.detecter(f.toPath()));
+		} finally {
+			f.delete();
+			cache.delete();
+		}
+	}
+}